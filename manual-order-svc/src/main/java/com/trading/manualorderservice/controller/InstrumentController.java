@@ -0,0 +1,26 @@
+package com.trading.manualorderservice.controller;
+
+import com.trading.manualorderservice.instrument.SymbolSearchIndex;
+import com.trading.manualorderservice.instrument.SymbolSearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/manual-order/instruments")
+@RequiredArgsConstructor
+public class InstrumentController {
+
+    private final SymbolSearchService searchService;
+
+    /**
+     * Ranked prefix search over trading symbols, names and option underlyings.
+     */
+    @GetMapping("/search")
+    public List<SymbolSearchIndex.Match> search(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "10") int limit) {
+        return searchService.search(query, limit);
+    }
+}
@@ -2,19 +2,33 @@ package com.trading.manualorderservice.controller;
 
 import com.trading.manualorderservice.dto.IvRequestDto;
 import com.trading.manualorderservice.dto.IvResponseDto;
+import com.trading.manualorderservice.optionfilter.OptionChain;
+import com.trading.manualorderservice.optionfilter.OptionChainService;
 import com.trading.manualorderservice.service.IvService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+
 @RestController
 @RequestMapping("/api/manual-order")
 @RequiredArgsConstructor
 public class IvController {
 
     private final IvService ivService;
+    private final OptionChainService chainService;
 
     @PostMapping("/iv")
     public IvResponseDto getOptionIv(@RequestBody IvRequestDto req) throws Exception {
         return ivService.fetchIv(req);
     }
+
+    /** Live option chain of one expiry (opened and streamed on first call). */
+    @GetMapping("/option-chain")
+    public OptionChain.Snapshot getOptionChain(
+            @RequestParam String underlying,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate expiry) {
+        return chainService.chain(underlying, expiry).snapshot();
+    }
 }
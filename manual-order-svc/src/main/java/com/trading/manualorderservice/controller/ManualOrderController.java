@@ -1,15 +1,22 @@
 package com.trading.manualorderservice.controller;
 
 import com.trading.manualorderservice.service.DhanCredentialService;
-import com.trading.manualorderservice.service.OrderBuildService;
+import com.trading.manualorderservice.service.OrderSubmissionService;
 import com.trading.shareddto.entity.BrokerUserDetails;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/manual-order")
@@ -17,7 +24,11 @@ import org.springframework.web.bind.annotation.*;
 public class ManualOrderController {
 
 	private final DhanCredentialService dhanCredentialService;
-	private final OrderBuildService orderBuildService;
+	private final OrderSubmissionService submissionService;
+
+	/** Longest a synchronous build is awaited before answering 202; below spring.mvc.async.request-timeout. */
+	@Value("${orders.executor.response-wait-ms:30000}")
+	private long responseWaitMs;
 
 	// inside ManualOrderController
 	public record Req(
@@ -32,7 +43,9 @@ public class ManualOrderController {
 			String moneyness,          // ATM/ITM/OTM
 			Integer numberOfLots,
 			Integer quantity,
-			String dateInMonthYear,    // DEC-2025
+			String dateInMonthYear,    // DEC-2025 (latest monthly expiry of that month)
+			String expiryType,         // WEEKLY / MONTHLY (default MONTHLY)
+			String expiry,             // NEAREST / NEXT / 2026-01-27 — overrides dateInMonthYear
 
 			// Common
 			String transactionType,    // BUY/SELL
@@ -47,25 +60,82 @@ public class ManualOrderController {
 
 
 
+	/**
+	 * Queue an order build on the order executor. The servlet thread is
+	 * released right away; the response is written when the build finishes,
+	 * or immediately with 202 + order handle when {@code accepted=true}.
+	 * A build still queued or running after {@code orders.executor.response-wait-ms}
+	 * also gets 202 + handle — the order may still be placed, so clients poll
+	 * the handle instead of retrying. 429 when the order queue is full.
+	 */
 	@PostMapping("/buildProcess")
-	public ResponseEntity<?> build(@RequestBody Req req, HttpServletRequest request) {
+	public CompletableFuture<ResponseEntity<?>> build(@RequestBody Req req,
+													  @RequestParam(defaultValue = "false") boolean accepted,
+													  HttpServletRequest request) {
 		try {
 			Long userId = dhanCredentialService.extractUserIdFromRequest(request);
 			BrokerUserDetails creds = dhanCredentialService.getDhanCredentials(userId, request);
 
 			if (creds == null) {
-				return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
-						.body("Unable to fetch Dhan credentials");
+				return done(ResponseEntity.status(HttpStatus.BAD_GATEWAY)
+						.body("Unable to fetch Dhan credentials"));
 			}
 
 			log.info("Using Dhan credentials for User ID {}", userId);
-			return ResponseEntity.ok(orderBuildService.buildOrder(req, creds,userId));
+			OrderSubmissionService.Accepted submission = submissionService.submit(req, creds, userId);
+
+			if (accepted) {
+				return done(accepted(submission.handle()));
+			}
+
+			return submission.result()
+					.<ResponseEntity<?>>handle((dto, ex) -> {
+						if (ex == null) return ResponseEntity.ok(dto);
+						Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+						return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(cause.getMessage());
+					})
+					.completeOnTimeout(null, responseWaitMs, TimeUnit.MILLISECONDS)
+					.thenApply(response -> response != null ? response : accepted(submission.handle()));
 
 		} catch (SecurityException se) {
-			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(se.getMessage());
+			return done(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(se.getMessage()));
+		} catch (RejectedExecutionException re) {
+			return done(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+					.body("Order queue full, retry shortly"));
 		} catch (Exception e) {
 			log.error("Error processing order: ", e);
-			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+			return done(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage()));
+		}
+	}
+
+	/** State of a queued / running / finished submission (own submissions only). */
+	@GetMapping("/buildProcess/{handle}")
+	public ResponseEntity<?> status(@PathVariable String handle, HttpServletRequest request) {
+		try {
+			Long userId = dhanCredentialService.extractUserIdFromRequest(request);
+
+			return submissionService.find(handle)
+					.filter(s -> s.userId().equals(userId))
+					.<ResponseEntity<?>>map(ResponseEntity::ok)
+					.orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("Unknown order handle " + handle));
+
+		} catch (SecurityException se) {
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(se.getMessage());
 		}
 	}
+
+	private ResponseEntity<?> accepted(String handle) {
+		OrderSubmissionService.State state = submissionService.find(handle)
+				.map(OrderSubmissionService.Submission::state)
+				.orElse(OrderSubmissionService.State.QUEUED);
+
+		return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
+				"orderHandle", handle,
+				"status", state,
+				"statusUrl", "/api/manual-order/buildProcess/" + handle));
+	}
+
+	private static CompletableFuture<ResponseEntity<?>> done(ResponseEntity<?> response) {
+		return CompletableFuture.completedFuture(response);
+	}
 }
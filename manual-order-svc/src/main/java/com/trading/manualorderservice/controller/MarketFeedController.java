@@ -0,0 +1,113 @@
+package com.trading.manualorderservice.controller;
+
+import com.trading.manualorderservice.market.CandleAggregator;
+import com.trading.manualorderservice.marketfeed.FeedConnectionPool;
+import com.trading.manualorderservice.marketfeed.MarketFeedManager;
+import com.trading.manualorderservice.marketfeed.TickReplayEngine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/manual-order/market")
+@RequiredArgsConstructor
+public class MarketFeedController {
+
+    private final MarketFeedManager feedManager;
+    private final FeedConnectionPool feedPool;
+    private final TickReplayEngine replayEngine;
+    private final CandleAggregator candleAggregator;
+
+    public record WatchReq(
+            String exchangeSegment,    // NSE_EQ / NSE_FNO / NSE_IDX
+            String securityId          // Dhan security ID
+    ) {}
+
+    public record ReplayReq(
+            LocalDate day,             // journal day, yyyy-MM-dd
+            Double speed               // 1 = real time, N = N× faster, 0 = max speed
+    ) {}
+
+    @PostMapping("/watch")
+    public ResponseEntity<?> watch(@RequestBody WatchReq req) {
+        if (req.exchangeSegment() == null || req.securityId() == null) {
+            return ResponseEntity.badRequest().body("exchangeSegment and securityId are required");
+        }
+        feedManager.watch(req.exchangeSegment().toUpperCase(), req.securityId().trim());
+        return ResponseEntity.ok().build();
+    }
+
+    @DeleteMapping("/watch")
+    public ResponseEntity<?> unwatch(@RequestBody WatchReq req) {
+        if (req.exchangeSegment() == null || req.securityId() == null) {
+            return ResponseEntity.badRequest().body("exchangeSegment and securityId are required");
+        }
+        feedManager.unwatch(req.exchangeSegment().toUpperCase(), req.securityId().trim());
+        return ResponseEntity.ok().build();
+    }
+
+    @GetMapping("/subscriptions")
+    public Set<MarketFeedManager.Instrument> subscriptions() {
+        return feedManager.getStreamed();
+    }
+
+    /**
+     * Instruments per feed connection shard (-1 = shard not opened).
+     */
+    @GetMapping("/shards")
+    public int[] shards() {
+        return feedPool.shardLoads();
+    }
+
+    /**
+     * Live-built OHLCV bars: timeframe 1 / 3 / 5 / 15 minutes.
+     */
+    @GetMapping("/candles")
+    public List<CandleAggregator.Candle> candles(@RequestParam String exchangeSegment,
+                                                @RequestParam String securityId,
+                                                @RequestParam(defaultValue = "1") int timeframe,
+                                                @RequestParam(defaultValue = "100") int limit) {
+        return candleAggregator.getCandles(exchangeSegment.toUpperCase(), securityId.trim(), timeframe, limit);
+    }
+
+    // ------------------------------------------------------------------------
+    // REPLAY (market.replay.enabled=true only)
+    // ------------------------------------------------------------------------
+
+    @PostMapping("/replay")
+    public ResponseEntity<?> startReplay(@RequestBody ReplayReq req) {
+        if (req.day() == null) {
+            return ResponseEntity.badRequest().body("day is required");
+        }
+        double speed = req.speed() == null ? 1.0 : req.speed();
+        if (speed < 0) {
+            return ResponseEntity.badRequest().body("speed must be >= 0");
+        }
+
+        try {
+            replayEngine.start(req.day(), speed);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(e.getMessage());
+        }
+        return ResponseEntity.accepted().body(replayEngine.status());
+    }
+
+    @GetMapping("/replay")
+    public TickReplayEngine.Status replayStatus() {
+        return replayEngine.status();
+    }
+
+    @DeleteMapping("/replay")
+    public ResponseEntity<?> stopReplay() {
+        replayEngine.stop();
+        return ResponseEntity.ok(replayEngine.status());
+    }
+}
@@ -38,6 +38,7 @@ public class DhanOrderClient {
         boolean ok;
         String status;
         double tradedPrice;
+        int filledQty;
         String raw;
     }
 
@@ -138,11 +139,13 @@ public class DhanOrderClient {
                 JSONObject json = new JSONObject(body);
                 String status = json.optString("orderStatus", "UNKNOWN");
                 double tradedPrice = json.optDouble("price", 0.0);
+                int filledQty = json.optInt("filledQty", 0);
 
                 return OrderStatusResult.builder()
                         .ok(true)
                         .status(status)
                         .tradedPrice(tradedPrice)
+                        .filledQty(filledQty)
                         .raw(body)
                         .build();
             }
@@ -11,4 +11,6 @@ public class IvRequestDto {
     private String transactionType;
     private String tradeType;
     private String dateInMonthYear; // DEC-2025
+    private String expiryType;      // WEEKLY / MONTHLY (default MONTHLY)
+    private String expiry;          // NEAREST / NEXT / 2026-01-27 — overrides dateInMonthYear
 }
@@ -14,8 +14,12 @@ import java.time.Instant;
 @Table(name = "orders")
 public class OrderEntity {
 
+    /** IDs handed out in blocks, so an order and its SL / TARGET legs insert as one batch. */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     private Long userId;
@@ -49,6 +53,10 @@ public class OrderEntity {
     private Double targetPrice;
     private Double triggerPrice;
 
+    // Fills reported by the broker
+    private Integer filledQuantity;
+    private Double averageTradedPrice;
+
     // Broker info
     private String brokerOrderId;
     private String orderStatus;       // NEW/PENDING/FILLED/FAILED
@@ -1,17 +1,28 @@
 package com.trading.manualorderservice.instrument;
 
 import org.springframework.stereotype.Component;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * symbol → securityId for NSE EQ stocks.
+ *
+ * Reloads build a complete new map off to the side and publish it with one
+ * volatile write; readers never lock and never see a half-filled map.
+ */
 @Component
 public class InstrumentCache {
     // symbol -> securityId (only NSE EQ stocks per your requirement)
-    private final Map<String, String> stockMap = new ConcurrentHashMap<>();
+    private volatile Map<String, String> stockMap = Map.of();
 
-    public void putStock(String symbol, String securityId) {
-        if (symbol != null && securityId != null)
-            stockMap.put(symbol.trim().toUpperCase(), securityId.trim());
+    /** Replace the whole stock map at once. */
+    public void replaceStocks(Map<String, String> stocks) {
+        Map<String, String> normalized = new HashMap<>(stocks.size() * 2);
+        stocks.forEach((symbol, securityId) -> {
+            if (symbol != null && securityId != null)
+                normalized.putIfAbsent(symbol.trim().toUpperCase(), securityId.trim());
+        });
+        stockMap = Map.copyOf(normalized);
     }
 
     public String getStockId(String symbol) {
@@ -20,6 +31,4 @@ public class InstrumentCache {
     }
 
     public int size() { return stockMap.size(); }
-
-    public void clear() { stockMap.clear(); }
 }
@@ -1,15 +1,12 @@
 package com.trading.manualorderservice.instrument;
 
-import com.opencsv.CSVReader;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
-import java.io.InputStreamReader;
-import java.net.URL;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -19,53 +16,37 @@ import java.util.Map;
 public class InstrumentLoader {
 
     private final InstrumentCache cache;
-
-    @Value("${instrument.csv-url}")
-    private String csvUrl;
-
-    @Value("${instrument.reload-cron}")
-    private String cronInfo; // just to show config present
+    private final InstrumentMasterService masterService;
 
     @PostConstruct
-    public void initialLoad() { loadCsv(); }
+    public void initialLoad() { load(masterService.master()); }
 
     @Scheduled(cron = "${instrument.reload-cron}")
-    public void scheduledReload() { loadCsv(); }
-
-    private void loadCsv() {
-        int loaded = 0;
-        try (CSVReader reader = new CSVReader(new InputStreamReader(new URL(csvUrl).openStream()))) {
-            String[] headers = reader.readNext();
-            if (headers == null) throw new RuntimeException("Empty CSV");
-            cache.clear();
+    public void scheduledReload() { masterService.reload(); }
 
-            String[] row;
-            while ((row = reader.readNext()) != null) {
-                if (row.length != headers.length) continue;
-                Map<String, String> map = new HashMap<>();
-                for (int i = 0; i < headers.length; i++) map.put(headers[i].trim(), row[i].trim());
+    @EventListener
+    public void onMasterReloaded(InstrumentMasterReloadedEvent event) { load(event.master()); }
 
-                // Match NSE equities exactly (from your screenshot)
-                String exch   = map.getOrDefault("SEM_EXM_EXCH_ID", "");
-                String seg    = map.getOrDefault("SEM_SEGMENT", "");
-                String type   = map.getOrDefault("SEM_EXCH_INSTRUMENT_TYPE", "");
-                String series = map.getOrDefault("SEM_SERIES", "");
-                String symbol = map.getOrDefault("SEM_TRADING_SYMBOL", "");
-                String secId  = map.getOrDefault("SEM_SMST_SECURITY_ID", "");
+    /** Build the full stock map first, then swap it in; lookups never miss mid-reload. */
+    private void load(InstrumentMaster master) {
+        if (master.isEmpty()) {
+            log.error("❌ Instrument master empty, NSE EQ cache not loaded.");
+            return;
+        }
 
-                if (!"NSE".equalsIgnoreCase(exch)) continue;
-                if (!"E".equalsIgnoreCase(seg)) continue;
-                if (!"ES".equalsIgnoreCase(type)) continue;   // equity stock
-                if (!"EQ".equalsIgnoreCase(series)) continue; // EQ series
-                if (symbol.isEmpty() || secId.isEmpty()) continue;
+        Map<String, String> stocks = new HashMap<>();
 
-                cache.putStock(symbol, secId);
-                loaded++;
-            }
+        for (int row = 0; row < master.size(); row++) {
+            // Match NSE equities exactly (from your screenshot)
+            if (master.kind(row) != InstrumentMaster.EQUITY) continue;   // equity stock
+            if (!"NSE".equalsIgnoreCase(master.exchange(row))) continue;
+            if (master.segment(row) != 'E') continue;
+            if (!"EQ".equalsIgnoreCase(master.series(row))) continue;   // EQ series
 
-            log.info("✅ Instrument cache loaded: {} NSE EQ stocks (securityId pre-warmed).", loaded);
-        } catch (Exception e) {
-            log.error("❌ Failed loading instrument CSV: {}", e.getMessage());
+            stocks.put(master.tradingSymbol(row), String.valueOf(master.securityId(row)));
         }
+
+        cache.replaceStocks(stocks);
+        log.info("✅ Instrument cache loaded: {} NSE EQ stocks (securityId pre-warmed).", cache.size());
     }
 }
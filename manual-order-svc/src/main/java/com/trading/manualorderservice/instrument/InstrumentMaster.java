@@ -0,0 +1,209 @@
+package com.trading.manualorderservice.instrument;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Parsed Dhan scrip master, structure-of-arrays: one column per field, one
+ * row per instrument. Only the instruments the platform trades or prices
+ * are kept — equities, indices and options.
+ *
+ * Immutable once built. Low-cardinality string columns (exchange, series,
+ * instrument name/type, underlying) share pooled instances.
+ */
+public final class InstrumentMaster {
+
+    public static final byte EQUITY = 1;
+    public static final byte INDEX  = 2;
+    public static final byte OPTION = 3;
+
+    public static final byte NONE = 0;
+    public static final byte CE = 1;
+    public static final byte PE = 2;
+
+    /** Expiry column value for instruments without an expiry. */
+    public static final int NO_EXPIRY = Integer.MIN_VALUE;
+
+    private static final InstrumentMaster EMPTY = new Builder().build();
+
+    private final int size;
+
+    final int[] securityId;
+    final byte[] kind;
+    final String[] exchange;          // NSE / BSE
+    final byte[] segment;             // E / D / I ...
+    final String[] series;            // EQ / BE ...
+    final String[] instrumentName;    // EQUITY / INDEX / OPTIDX / OPTSTK
+    final String[] instrumentType;    // ES / INDEX / OP
+    final String[] tradingSymbol;
+    final String[] customSymbol;
+    final String[] underlying;        // options only
+    final int[] expiryDay;            // epoch day, NO_EXPIRY if none
+    final double[] strike;
+    final byte[] optionType;          // NONE / CE / PE
+    final byte[] expiryFlag;          // M / W, 0 if none
+    final double[] lotUnits;
+    final double[] tickSize;          // as published, NaN if missing
+
+    InstrumentMaster(int size, int[] securityId, byte[] kind, String[] exchange, byte[] segment,
+                     String[] series, String[] instrumentName, String[] instrumentType,
+                     String[] tradingSymbol, String[] customSymbol, String[] underlying,
+                     int[] expiryDay, double[] strike, byte[] optionType, byte[] expiryFlag,
+                     double[] lotUnits, double[] tickSize) {
+        this.size = size;
+        this.securityId = securityId;
+        this.kind = kind;
+        this.exchange = exchange;
+        this.segment = segment;
+        this.series = series;
+        this.instrumentName = instrumentName;
+        this.instrumentType = instrumentType;
+        this.tradingSymbol = tradingSymbol;
+        this.customSymbol = customSymbol;
+        this.underlying = underlying;
+        this.expiryDay = expiryDay;
+        this.strike = strike;
+        this.optionType = optionType;
+        this.expiryFlag = expiryFlag;
+        this.lotUnits = lotUnits;
+        this.tickSize = tickSize;
+    }
+
+    public static InstrumentMaster empty() {
+        return EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // ------------------------------------------------------------------------
+    // ROW ACCESS
+    // ------------------------------------------------------------------------
+
+    public int securityId(int row)          { return securityId[row]; }
+    public byte kind(int row)               { return kind[row]; }
+    public String exchange(int row)         { return exchange[row]; }
+    public char segment(int row)            { return (char) segment[row]; }
+    public String series(int row)           { return series[row]; }
+    public String instrumentName(int row)   { return instrumentName[row]; }
+    public String instrumentType(int row)   { return instrumentType[row]; }
+    public String tradingSymbol(int row)    { return tradingSymbol[row]; }
+    public String customSymbol(int row)     { return customSymbol[row]; }
+    public String underlying(int row)       { return underlying[row]; }
+    public int expiryDay(int row)           { return expiryDay[row]; }
+    public double strike(int row)           { return strike[row]; }
+    public byte optionType(int row)         { return optionType[row]; }
+    public double lotUnits(int row)         { return lotUnits[row]; }
+    public double tickSize(int row)         { return tickSize[row]; }
+
+    public LocalDate expiry(int row) {
+        int d = expiryDay[row];
+        return d == NO_EXPIRY ? null : LocalDate.ofEpochDay(d);
+    }
+
+    public String optionTypeName(int row) {
+        return switch (optionType[row]) {
+            case CE -> "CE";
+            case PE -> "PE";
+            default -> "";
+        };
+    }
+
+    public String expiryFlag(int row) {
+        byte f = expiryFlag[row];
+        return f == 0 ? "" : String.valueOf((char) f);
+    }
+
+    // ------------------------------------------------------------------------
+    // BUILDER
+    // ------------------------------------------------------------------------
+
+    /** Growable column set used while parsing. */
+    static final class Builder {
+
+        private int size;
+        private int[] securityId = new int[1024];
+        private byte[] kind = new byte[1024];
+        private String[] exchange = new String[1024];
+        private byte[] segment = new byte[1024];
+        private String[] series = new String[1024];
+        private String[] instrumentName = new String[1024];
+        private String[] instrumentType = new String[1024];
+        private String[] tradingSymbol = new String[1024];
+        private String[] customSymbol = new String[1024];
+        private String[] underlying = new String[1024];
+        private int[] expiryDay = new int[1024];
+        private double[] strike = new double[1024];
+        private byte[] optionType = new byte[1024];
+        private byte[] expiryFlag = new byte[1024];
+        private double[] lotUnits = new double[1024];
+        private double[] tickSize = new double[1024];
+
+        int size() {
+            return size;
+        }
+
+        void add(int securityId, byte kind, String exchange, byte segment, String series,
+                 String instrumentName, String instrumentType, String tradingSymbol,
+                 String customSymbol, String underlying, int expiryDay, double strike,
+                 byte optionType, byte expiryFlag, double lotUnits, double tickSize) {
+            if (size == this.securityId.length) grow();
+            int i = size++;
+            this.securityId[i] = securityId;
+            this.kind[i] = kind;
+            this.exchange[i] = exchange;
+            this.segment[i] = segment;
+            this.series[i] = series;
+            this.instrumentName[i] = instrumentName;
+            this.instrumentType[i] = instrumentType;
+            this.tradingSymbol[i] = tradingSymbol;
+            this.customSymbol[i] = customSymbol;
+            this.underlying[i] = underlying;
+            this.expiryDay[i] = expiryDay;
+            this.strike[i] = strike;
+            this.optionType[i] = optionType;
+            this.expiryFlag[i] = expiryFlag;
+            this.lotUnits[i] = lotUnits;
+            this.tickSize[i] = tickSize;
+        }
+
+        private void grow() {
+            int n = securityId.length << 1;
+            securityId = Arrays.copyOf(securityId, n);
+            kind = Arrays.copyOf(kind, n);
+            exchange = Arrays.copyOf(exchange, n);
+            segment = Arrays.copyOf(segment, n);
+            series = Arrays.copyOf(series, n);
+            instrumentName = Arrays.copyOf(instrumentName, n);
+            instrumentType = Arrays.copyOf(instrumentType, n);
+            tradingSymbol = Arrays.copyOf(tradingSymbol, n);
+            customSymbol = Arrays.copyOf(customSymbol, n);
+            underlying = Arrays.copyOf(underlying, n);
+            expiryDay = Arrays.copyOf(expiryDay, n);
+            strike = Arrays.copyOf(strike, n);
+            optionType = Arrays.copyOf(optionType, n);
+            expiryFlag = Arrays.copyOf(expiryFlag, n);
+            lotUnits = Arrays.copyOf(lotUnits, n);
+            tickSize = Arrays.copyOf(tickSize, n);
+        }
+
+        /** Trim the columns to size and freeze. */
+        InstrumentMaster build() {
+            int n = size;
+            return new InstrumentMaster(n,
+                    Arrays.copyOf(securityId, n), Arrays.copyOf(kind, n),
+                    Arrays.copyOf(exchange, n), Arrays.copyOf(segment, n),
+                    Arrays.copyOf(series, n), Arrays.copyOf(instrumentName, n),
+                    Arrays.copyOf(instrumentType, n), Arrays.copyOf(tradingSymbol, n),
+                    Arrays.copyOf(customSymbol, n), Arrays.copyOf(underlying, n),
+                    Arrays.copyOf(expiryDay, n), Arrays.copyOf(strike, n),
+                    Arrays.copyOf(optionType, n), Arrays.copyOf(expiryFlag, n),
+                    Arrays.copyOf(lotUnits, n), Arrays.copyOf(tickSize, n));
+        }
+    }
+}
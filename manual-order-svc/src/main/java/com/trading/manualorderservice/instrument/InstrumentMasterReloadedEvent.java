@@ -0,0 +1,6 @@
+package com.trading.manualorderservice.instrument;
+
+/**
+ * Published after a fresh scrip master replaced the one in use.
+ */
+public record InstrumentMasterReloadedEvent(InstrumentMaster master) {}
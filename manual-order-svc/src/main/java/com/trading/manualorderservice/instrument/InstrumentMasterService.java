@@ -0,0 +1,215 @@
+package com.trading.manualorderservice.instrument;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+
+/**
+ * Single owner of the Dhan scrip master.
+ *
+ * The CSV is downloaded once per load and parsed while it streams in, straight
+ * into an {@link InstrumentMaster}; stock lookups ({@link InstrumentLoader},
+ * DhanStockHelper) and the option master (OptionOrderHelper) all read from it.
+ * Rows other than equities, indices and options are dropped during the scan.
+ *
+ * Every successful load is saved as a binary snapshot. At startup the
+ * snapshot is mapped and served right away, and the CSV is fetched in the
+ * background once the application is up; consumers pick the fresh master up
+ * from {@link InstrumentMasterReloadedEvent}. Without a snapshot the first
+ * load is synchronous, as before.
+ */
+@Slf4j
+@Component
+public class InstrumentMasterService {
+
+    private static final int CONNECT_TIMEOUT_MS = 10_000;
+    private static final int READ_TIMEOUT_MS = 60_000;
+
+    private final String csvUrl;
+    private final Path snapshotPath;
+    private final ApplicationEventPublisher events;
+
+    private volatile InstrumentMaster master = InstrumentMaster.empty();
+    private volatile boolean servingSnapshot;
+
+    public InstrumentMasterService(@Value("${instrument.csv-url}") String csvUrl,
+                                   @Value("${instrument.snapshot-path:./data/instrument-master.bin}") String snapshotPath,
+                                   ApplicationEventPublisher events) {
+        this.csvUrl = csvUrl;
+        this.snapshotPath = Paths.get(snapshotPath);
+        this.events = events;
+    }
+
+    @PostConstruct
+    public void initialLoad() {
+        if (Files.exists(snapshotPath)) {
+            long t0 = System.nanoTime();
+            try {
+                InstrumentMasterSnapshot.Loaded s = InstrumentMasterSnapshot.read(snapshotPath);
+                master = s.master();
+                servingSnapshot = true;
+                log.info("✅ Instrument master mapped from snapshot: {} instruments in {} ms (saved {})",
+                        s.master().size(), (System.nanoTime() - t0) / 1_000_000, Instant.ofEpochMilli(s.savedAtMs()));
+                return;
+            } catch (Exception e) {
+                log.warn("⚠ Instrument master snapshot unusable, downloading CSV: {}", e.getMessage());
+            }
+        }
+        download();
+    }
+
+    /** Replace the snapshot with a fresh download once the application is serving. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void refreshInBackground() {
+        if (!servingSnapshot) return;
+
+        Thread t = new Thread(this::reload, "instrument-master-refresh");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    public InstrumentMaster master() {
+        return master;
+    }
+
+    /**
+     * Download and parse the master again and notify consumers. On failure
+     * the previous master is kept and returned.
+     */
+    public synchronized InstrumentMaster reload() {
+        InstrumentMaster before = master;
+        InstrumentMaster after = download();
+        if (after != before) {
+            events.publishEvent(new InstrumentMasterReloadedEvent(after));
+        }
+        return after;
+    }
+
+    private synchronized InstrumentMaster download() {
+        long t0 = System.nanoTime();
+        try {
+            URLConnection conn = new URL(csvUrl).openConnection();
+            conn.setConnectTimeout(CONNECT_TIMEOUT_MS);
+            conn.setReadTimeout(READ_TIMEOUT_MS);
+
+            InstrumentMaster parsed;
+            try (InputStream in = conn.getInputStream()) {
+                parsed = parse(in);
+            }
+            if (parsed.isEmpty()) throw new IOException("no instruments in CSV");
+
+            master = parsed;
+            servingSnapshot = false;
+            log.info("✅ Instrument master loaded: {} instruments in {} ms",
+                    parsed.size(), (System.nanoTime() - t0) / 1_000_000);
+
+            saveSnapshot(parsed);
+        } catch (Exception e) {
+            log.error("❌ Failed loading instrument master CSV: {} (keeping {} instruments)",
+                    e.getMessage(), master.size());
+        }
+        return master;
+    }
+
+    private void saveSnapshot(InstrumentMaster m) {
+        try {
+            InstrumentMasterSnapshot.write(m, snapshotPath, System.currentTimeMillis());
+            log.info("💾 Instrument master snapshot saved to {}", snapshotPath.toAbsolutePath());
+        } catch (Exception e) {
+            log.warn("⚠ Could not save instrument master snapshot: {}", e.getMessage());
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // PARSE
+    // ------------------------------------------------------------------------
+
+    static InstrumentMaster parse(InputStream in) throws IOException {
+        try (ScripMasterReader r = new ScripMasterReader(in)) {
+            int cSecId    = require(r, "SEM_SMST_SECURITY_ID");
+            int cExch     = require(r, "SEM_EXM_EXCH_ID");
+            int cSegment  = require(r, "SEM_SEGMENT");
+            int cInstName = require(r, "SEM_INSTRUMENT_NAME");
+            int cInstType = require(r, "SEM_EXCH_INSTRUMENT_TYPE");
+            int cSymbol   = require(r, "SEM_TRADING_SYMBOL");
+            int cCustom   = r.column("SEM_CUSTOM_SYMBOL");
+            int cSeries   = r.column("SEM_SERIES");
+            int cExpiry   = r.column("SEM_EXPIRY_DATE");
+            int cStrike   = r.column("SEM_STRIKE_PRICE");
+            int cOptType  = r.column("SEM_OPTION_TYPE");
+            int cExpFlag  = r.column("SEM_EXPIRY_FLAG");
+            int cLot      = r.column("SEM_LOT_UNITS");
+            int cTick     = r.column("SEM_TICK_SIZE");
+
+            ScripMasterReader.StringPool pool = new ScripMasterReader.StringPool();
+            InstrumentMaster.Builder b = new InstrumentMaster.Builder();
+            int skipped = 0;
+
+            while (r.next()) {
+                if (!r.isComplete() || r.isEmpty(cSymbol)) {
+                    skipped++;
+                    continue;
+                }
+
+                byte kind;
+                if (r.is(cInstType, "ES")) kind = InstrumentMaster.EQUITY;
+                else if (r.is(cInstType, "INDEX")) kind = InstrumentMaster.INDEX;
+                else if (r.startsWith(cInstType, "OP")) kind = InstrumentMaster.OPTION;
+                else continue;
+
+                int secId = r.parseInt(cSecId, -1);
+                if (secId < 0) {
+                    skipped++;
+                    continue;
+                }
+
+                boolean option = kind == InstrumentMaster.OPTION;
+                byte optType = InstrumentMaster.NONE;
+                if (option) {
+                    if (r.is(cOptType, "CE")) optType = InstrumentMaster.CE;
+                    else if (r.is(cOptType, "PE")) optType = InstrumentMaster.PE;
+                }
+
+                b.add(secId,
+                        kind,
+                        r.pooled(cExch, pool),
+                        r.isEmpty(cSegment) ? 0 : r.byteAt(cSegment, 0),
+                        r.pooled(cSeries, pool),
+                        r.pooled(cInstName, pool),
+                        r.pooled(cInstType, pool),
+                        r.string(cSymbol),
+                        r.string(cCustom),
+                        option ? r.pooledPrefix(cSymbol, '-', pool).toUpperCase() : null,
+                        option ? r.parseEpochDay(cExpiry, InstrumentMaster.NO_EXPIRY) : InstrumentMaster.NO_EXPIRY,
+                        option ? r.parseDouble(cStrike, 0.0) : 0.0,
+                        optType,
+                        r.isEmpty(cExpFlag) ? 0 : r.byteAt(cExpFlag, 0),
+                        r.parseDouble(cLot, 1.0),
+                        r.parseDouble(cTick, Double.NaN));
+            }
+
+            log.info("📄 Scrip master scanned: {} rows, {} kept, {} skipped",
+                    r.records(), b.size(), skipped);
+            return b.build();
+        }
+    }
+
+    private static int require(ScripMasterReader r, String header) throws IOException {
+        int c = r.column(header);
+        if (c < 0) throw new IOException("Scrip master has no column " + header);
+        return c;
+    }
+}
@@ -0,0 +1,196 @@
+package com.trading.manualorderservice.instrument;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Versioned binary image of an {@link InstrumentMaster}, so a restart can
+ * serve the last known-good universe without the CSV download.
+ *
+ * Layout (little-endian):
+ * <pre>
+ *   header : int magic, int version, long savedAtMs, int rows, int dictSize, int crc32(payload)
+ *   payload: dictionary of every string value ([int len][utf-8 bytes] each),
+ *            then one block per column, strings as dictionary indices (-1 = null)
+ * </pre>
+ * Written to a temp file and atomically renamed; read back through a
+ * read-only mapping with bulk column copies.
+ */
+final class InstrumentMasterSnapshot {
+
+    static final int MAGIC = 0x54534D49;   // "IMST"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 28;
+
+    private InstrumentMasterSnapshot() {}
+
+    /** Snapshot contents plus the time it was written. */
+    record Loaded(InstrumentMaster master, long savedAtMs) {}
+
+    // ------------------------------------------------------------------------
+    // WRITE
+    // ------------------------------------------------------------------------
+
+    static void write(InstrumentMaster m, Path file, long savedAtMs) throws IOException {
+        int n = m.size();
+
+        Map<String, Integer> index = new HashMap<>();
+        List<byte[]> dict = new ArrayList<>();
+        String[][] stringColumns = {
+                m.exchange, m.series, m.instrumentName, m.instrumentType,
+                m.tradingSymbol, m.customSymbol, m.underlying
+        };
+        int dictBytes = 0;
+        for (String[] col : stringColumns) {
+            for (String s : col) {
+                if (s == null || index.containsKey(s)) continue;
+                byte[] b = s.getBytes(StandardCharsets.UTF_8);
+                index.put(s, dict.size());
+                dict.add(b);
+                dictBytes += 4 + b.length;
+            }
+        }
+
+        // per row: 4 securityId + 1 kind + 1 segment + 7*4 string refs + 4 expiry
+        //          + 8 strike + 1 optionType + 1 expiryFlag + 8 lot + 8 tick
+        long payload = dictBytes + (long) n * (4 + 1 + 1 + 7 * 4 + 4 + 8 + 1 + 1 + 8 + 8);
+        if (HEADER_SIZE + payload > Integer.MAX_VALUE) throw new IOException("Instrument master too large to snapshot");
+
+        ByteBuffer buf = ByteBuffer.allocate((int) (HEADER_SIZE + payload)).order(ByteOrder.LITTLE_ENDIAN);
+        buf.position(HEADER_SIZE);
+
+        for (byte[] b : dict) {
+            buf.putInt(b.length).put(b);
+        }
+        for (int i = 0; i < n; i++) buf.putInt(m.securityId[i]);
+        buf.put(m.kind, 0, n);
+        buf.put(m.segment, 0, n);
+        for (String[] col : stringColumns) {
+            for (int i = 0; i < n; i++) buf.putInt(col[i] == null ? -1 : index.get(col[i]));
+        }
+        for (int i = 0; i < n; i++) buf.putInt(m.expiryDay[i]);
+        for (int i = 0; i < n; i++) buf.putDouble(m.strike[i]);
+        buf.put(m.optionType, 0, n);
+        buf.put(m.expiryFlag, 0, n);
+        for (int i = 0; i < n; i++) buf.putDouble(m.lotUnits[i]);
+        for (int i = 0; i < n; i++) buf.putDouble(m.tickSize[i]);
+
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), HEADER_SIZE, buf.position() - HEADER_SIZE);
+        buf.putInt(0, MAGIC)
+                .putInt(4, VERSION)
+                .putLong(8, savedAtMs)
+                .putInt(16, n)
+                .putInt(20, dict.size())
+                .putInt(24, (int) crc.getValue());
+        buf.flip();
+
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buf.hasRemaining()) ch.write(buf);
+            ch.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // ------------------------------------------------------------------------
+    // READ
+    // ------------------------------------------------------------------------
+
+    static Loaded read(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (ch.size() < HEADER_SIZE) throw new IOException("Truncated snapshot " + file);
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            buf.order(ByteOrder.LITTLE_ENDIAN);
+
+            int magic = buf.getInt();
+            int version = buf.getInt();
+            if (magic != MAGIC) throw new IOException("Not an instrument master snapshot: " + file);
+            if (version != VERSION) throw new IOException("Unsupported snapshot version " + version + " in " + file);
+
+            long savedAtMs = buf.getLong();
+            int n = buf.getInt();
+            int dictSize = buf.getInt();
+            int expectedCrc = buf.getInt();
+
+            CRC32 crc = new CRC32();
+            crc.update(buf.slice(HEADER_SIZE, buf.limit() - HEADER_SIZE));
+            if ((int) crc.getValue() != expectedCrc) throw new IOException("Snapshot checksum mismatch: " + file);
+
+            String[] dict = new String[dictSize];
+            byte[] tmp = new byte[256];
+            for (int i = 0; i < dictSize; i++) {
+                int len = buf.getInt();
+                if (len > tmp.length) tmp = new byte[len];
+                buf.get(tmp, 0, len);
+                dict[i] = new String(tmp, 0, len, StandardCharsets.UTF_8);
+            }
+
+            int[] securityId = ints(buf, n);
+            byte[] kind = bytes(buf, n);
+            byte[] segment = bytes(buf, n);
+            String[] exchange = strings(buf, n, dict);
+            String[] series = strings(buf, n, dict);
+            String[] instrumentName = strings(buf, n, dict);
+            String[] instrumentType = strings(buf, n, dict);
+            String[] tradingSymbol = strings(buf, n, dict);
+            String[] customSymbol = strings(buf, n, dict);
+            String[] underlying = strings(buf, n, dict);
+            int[] expiryDay = ints(buf, n);
+            double[] strike = doubles(buf, n);
+            byte[] optionType = bytes(buf, n);
+            byte[] expiryFlag = bytes(buf, n);
+            double[] lotUnits = doubles(buf, n);
+            double[] tickSize = doubles(buf, n);
+
+            InstrumentMaster m = new InstrumentMaster(n, securityId, kind, exchange, segment, series,
+                    instrumentName, instrumentType, tradingSymbol, customSymbol, underlying,
+                    expiryDay, strike, optionType, expiryFlag, lotUnits, tickSize);
+            return new Loaded(m, savedAtMs);
+        }
+    }
+
+    private static int[] ints(ByteBuffer buf, int n) {
+        int[] a = new int[n];
+        buf.asIntBuffer().get(a);
+        buf.position(buf.position() + n * 4);
+        return a;
+    }
+
+    private static double[] doubles(ByteBuffer buf, int n) {
+        double[] a = new double[n];
+        buf.asDoubleBuffer().get(a);
+        buf.position(buf.position() + n * 8);
+        return a;
+    }
+
+    private static byte[] bytes(ByteBuffer buf, int n) {
+        byte[] a = new byte[n];
+        buf.get(a);
+        return a;
+    }
+
+    private static String[] strings(ByteBuffer buf, int n, String[] dict) {
+        int[] refs = ints(buf, n);
+        String[] a = new String[n];
+        for (int i = 0; i < n; i++) a[i] = refs[i] < 0 ? null : dict[refs[i]];
+        return a;
+    }
+}
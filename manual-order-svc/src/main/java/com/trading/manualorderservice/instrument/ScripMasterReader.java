@@ -0,0 +1,366 @@
+package com.trading.manualorderservice.instrument;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Streaming reader for the Dhan scrip master CSV.
+ *
+ * Reads straight off the byte stream one record at a time into a reusable
+ * buffer and only records field offsets; nothing is allocated per row unless
+ * the caller asks for a String. Columns are looked up by header name once via
+ * {@link #column(String)}.
+ *
+ * Handles plain and double-quoted fields ("" escapes a quote); the master is
+ * ASCII, so bytes map 1:1 to chars.
+ */
+final class ScripMasterReader implements Closeable {
+
+    private static final int MAX_FIELDS = 64;
+
+    private final InputStream in;
+    private final byte[] buf = new byte[1 << 16];
+    private int bufPos;
+    private int bufLen;
+
+    /** Current record, unquoted. */
+    private byte[] line = new byte[512];
+    private final int[] start = new int[MAX_FIELDS];
+    private final int[] end = new int[MAX_FIELDS];
+    private int fieldCount;
+
+    private final String[] headers;
+    private long records;
+
+    ScripMasterReader(InputStream in) throws IOException {
+        this.in = in;
+        if (!next()) throw new IOException("Empty CSV");
+
+        headers = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            String h = string(i);
+            // Strip a UTF-8 BOM on the first header
+            headers[i] = (i == 0 && h.startsWith("\uFEFF")) ? h.substring(1) : h;
+        }
+        records = 0;
+    }
+
+    /** Index of a header column, -1 if absent. */
+    int column(String name) {
+        for (int i = 0; i < headers.length; i++) {
+            if (headers[i].equals(name)) return i;
+        }
+        return -1;
+    }
+
+    int headerCount() {
+        return headers.length;
+    }
+
+    long records() {
+        return records;
+    }
+
+    // ------------------------------------------------------------------------
+    // RECORD SCAN
+    // ------------------------------------------------------------------------
+
+    /** Advance to the next record; false at end of stream. */
+    boolean next() throws IOException {
+        int len = 0;
+        fieldCount = 0;
+        boolean quoted = false;
+        boolean any = false;
+        int fieldStart = 0;
+
+        while (true) {
+            if (bufPos == bufLen) {
+                bufLen = in.read(buf, 0, buf.length);
+                bufPos = 0;
+                if (bufLen <= 0) {
+                    bufLen = 0;
+                    if (!any) return false;
+                    break;
+                }
+            }
+
+            byte b = buf[bufPos++];
+            any = true;
+
+            if (quoted) {
+                if (b == '"') {
+                    if (peek() == '"') {
+                        bufPos++;
+                    } else {
+                        quoted = false;
+                        continue;
+                    }
+                }
+            } else if (b == '"') {
+                quoted = true;
+                continue;
+            } else if (b == ',') {
+                addField(fieldStart, len);
+                fieldStart = len;
+                continue;
+            } else if (b == '\n') {
+                break;
+            } else if (b == '\r') {
+                continue;
+            }
+
+            if (len == line.length) line = Arrays.copyOf(line, len << 1);
+            line[len++] = b;
+        }
+
+        addField(fieldStart, len);
+        records++;
+        return true;
+    }
+
+    private int peek() throws IOException {
+        if (bufPos == bufLen) {
+            bufLen = in.read(buf, 0, buf.length);
+            bufPos = 0;
+            if (bufLen <= 0) {
+                bufLen = 0;
+                return -1;
+            }
+        }
+        return buf[bufPos];
+    }
+
+    private void addField(int from, int to) {
+        if (fieldCount == MAX_FIELDS) return;
+        // trim
+        while (from < to && line[from] == ' ') from++;
+        while (to > from && line[to - 1] == ' ') to--;
+        start[fieldCount] = from;
+        end[fieldCount] = to;
+        fieldCount++;
+    }
+
+    /** True if the record has as many fields as the header (rows that don't are skipped). */
+    boolean isComplete() {
+        return fieldCount == headers.length;
+    }
+
+    // ------------------------------------------------------------------------
+    // FIELD ACCESS (current record)
+    // ------------------------------------------------------------------------
+
+    boolean isEmpty(int col) {
+        return col < 0 || col >= fieldCount || start[col] == end[col];
+    }
+
+    int length(int col) {
+        return isEmpty(col) ? 0 : end[col] - start[col];
+    }
+
+    byte byteAt(int col, int i) {
+        return line[start[col] + i];
+    }
+
+    boolean is(int col, String value) {
+        int n = length(col);
+        if (n != value.length()) return false;
+        int s = start[col];
+        for (int i = 0; i < n; i++) {
+            if (Character.toUpperCase((char) line[s + i]) != Character.toUpperCase(value.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    boolean startsWith(int col, String prefix) {
+        int n = prefix.length();
+        if (length(col) < n) return false;
+        int s = start[col];
+        for (int i = 0; i < n; i++) {
+            if (Character.toUpperCase((char) line[s + i]) != Character.toUpperCase(prefix.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    String string(int col) {
+        if (isEmpty(col)) return "";
+        return new String(line, start[col], end[col] - start[col], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * String value through a pool: repeated values (exchange, series,
+     * instrument type, underlying...) share one instance and are looked up
+     * without allocating.
+     */
+    String pooled(int col, StringPool pool) {
+        if (isEmpty(col)) return "";
+        return pool.get(line, start[col], end[col]);
+    }
+
+    /** Pooled part of a field before the first {@code delimiter} (the whole field if absent). */
+    String pooledPrefix(int col, char delimiter, StringPool pool) {
+        if (isEmpty(col)) return "";
+        int s = start[col], e = end[col];
+        int i = s;
+        while (i < e && line[i] != delimiter) i++;
+        return pool.get(line, s, i > s ? i : e);
+    }
+
+    /** Byte-keyed intern table for low-cardinality columns. */
+    static final class StringPool {
+        private String[] table = new String[256];
+        private int size;
+
+        String get(byte[] b, int from, int to) {
+            int mask = table.length - 1;
+            int i = hash(b, from, to) & mask;
+            String s;
+            while ((s = table[i]) != null) {
+                if (matches(s, b, from, to)) return s;
+                i = (i + 1) & mask;
+            }
+            s = new String(b, from, to - from, StandardCharsets.UTF_8);
+            table[i] = s;
+            if (++size * 2 > table.length) grow();
+            return s;
+        }
+
+        String get(String value) {
+            byte[] b = value.getBytes(StandardCharsets.UTF_8);
+            return get(b, 0, b.length);
+        }
+
+        private static int hash(byte[] b, int from, int to) {
+            int h = 0;
+            for (int i = from; i < to; i++) h = 31 * h + b[i];
+            return h ^ (h >>> 16);
+        }
+
+        private static boolean matches(String s, byte[] b, int from, int to) {
+            if (s.length() != to - from) return false;
+            for (int i = 0; i < s.length(); i++) {
+                if (s.charAt(i) != (char) (b[from + i] & 0xFF)) return false;
+            }
+            return true;
+        }
+
+        private void grow() {
+            String[] old = table;
+            table = new String[old.length << 1];
+            int mask = table.length - 1;
+            for (String s : old) {
+                if (s == null) continue;
+                byte[] b = s.getBytes(StandardCharsets.UTF_8);
+                int i = hash(b, 0, b.length) & mask;
+                while (table[i] != null) i = (i + 1) & mask;
+                table[i] = s;
+            }
+        }
+    }
+
+    /** Integer value, or {@code def} if empty / not a plain integer. */
+    int parseInt(int col, int def) {
+        if (isEmpty(col)) return def;
+        int s = start[col], e = end[col];
+        boolean neg = line[s] == '-';
+        if (neg) s++;
+        if (s == e) return def;
+
+        long v = 0;
+        for (int i = s; i < e; i++) {
+            int d = line[i] - '0';
+            if (d < 0 || d > 9) return def;
+            v = v * 10 + d;
+            if (v > Integer.MAX_VALUE) return def;
+        }
+        return (int) (neg ? -v : v);
+    }
+
+    /** Decimal value, or {@code def} if empty / unparseable. Fast path for plain decimals. */
+    double parseDouble(int col, double def) {
+        if (isEmpty(col)) return def;
+        int s = start[col], e = end[col];
+        boolean neg = line[s] == '-';
+        if (neg) s++;
+
+        long mantissa = 0;
+        int scale = 0;
+        boolean dot = false;
+        int digits = 0;
+
+        for (int i = s; i < e; i++) {
+            byte b = line[i];
+            if (b == '.' && !dot) {
+                dot = true;
+                continue;
+            }
+            int d = b - '0';
+            if (d < 0 || d > 9 || ++digits > 17) {
+                // exponent, grouping or too many digits: take the slow path
+                try {
+                    return Double.parseDouble(string(col));
+                } catch (NumberFormatException ex) {
+                    return def;
+                }
+            }
+            mantissa = mantissa * 10 + d;
+            if (dot) scale++;
+        }
+        if (digits == 0) return def;
+
+        double v = mantissa / POW10[scale];
+        return neg ? -v : v;
+    }
+
+    private static final double[] POW10 = new double[18];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) POW10[i] = POW10[i - 1] * 10;
+    }
+
+    /**
+     * Date prefix of "yyyy-MM-dd ..." or "dd-MM-yyyy ..." as epoch day,
+     * or {@code def} if absent / malformed.
+     */
+    int parseEpochDay(int col, int def) {
+        if (length(col) < 10) return def;
+        int s = start[col];
+        int y, m, d;
+
+        if (line[s + 4] == '-') {             // yyyy-MM-dd
+            y = digits(s, 4);
+            m = digits(s + 5, 2);
+            d = digits(s + 8, 2);
+        } else if (line[s + 2] == '-') {      // dd-MM-yyyy
+            d = digits(s, 2);
+            m = digits(s + 3, 2);
+            y = digits(s + 6, 4);
+        } else {
+            return def;
+        }
+        if (y < 0 || m < 1 || m > 12 || d < 1 || d > 31) return def;
+        try {
+            return (int) java.time.LocalDate.of(y, m, d).toEpochDay();
+        } catch (java.time.DateTimeException e) {
+            return def;
+        }
+    }
+
+    private int digits(int from, int n) {
+        int v = 0;
+        for (int i = from; i < from + n; i++) {
+            int c = line[i] - '0';
+            if (c < 0 || c > 9) return -1;
+            v = v * 10 + c;
+        }
+        return v;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
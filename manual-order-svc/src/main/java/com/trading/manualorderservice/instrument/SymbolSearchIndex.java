@@ -0,0 +1,219 @@
+package com.trading.manualorderservice.instrument;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Prefix index over the instrument universe for symbol search / autocomplete.
+ *
+ * Two tiers of case-insensitively sorted keys, searched by binary search:
+ *
+ *   1. equities, indices and option underlyings (trading symbol + name)
+ *   2. option contracts (trading symbol + custom symbol)
+ *
+ * Tier 1 matches always rank first (exact match, symbol before name, then
+ * shorter key); tier 2 fills the remaining slots. Keys are the master's own
+ * strings, so the index adds only the sorted arrays. Immutable; rebuilt on
+ * master reload.
+ */
+public final class SymbolSearchIndex {
+
+    /** Option matches examined per query; keeps broad prefixes ("N") bounded. */
+    private static final int MAX_OPTION_SCAN = 2_000;
+
+    private static final byte FIELD_SYMBOL = 0;
+    private static final byte FIELD_NAME = 1;
+    private static final byte FIELD_UNDERLYING = 2;
+
+    public record Match(
+            String symbol,             // trading symbol (underlying for UNDERLYING matches)
+            String name,               // custom symbol
+            String kind,               // EQUITY / INDEX / OPTION / UNDERLYING
+            String exchangeSegment,    // NSE_EQ / BSE_EQ / NSE_IDX / NSE_FNO ...
+            String securityId,         // null for UNDERLYING
+            String underlying,
+            LocalDate expiry,
+            Double strike,
+            String optionType
+    ) {}
+
+    /** Sorted keys with the master row and matched field of each. */
+    private static final class Tier {
+        final String[] keys;
+        final int[] rows;
+        final byte[] fields;
+
+        Tier(List<String> keys, List<Integer> rows, List<Byte> fields) {
+            Integer[] order = new Integer[keys.size()];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> String.CASE_INSENSITIVE_ORDER.compare(keys.get(a), keys.get(b)));
+
+            this.keys = new String[order.length];
+            this.rows = new int[order.length];
+            this.fields = new byte[order.length];
+            for (int i = 0; i < order.length; i++) {
+                this.keys[i] = keys.get(order[i]);
+                this.rows[i] = rows.get(order[i]);
+                this.fields[i] = fields.get(order[i]);
+            }
+        }
+
+        /** First key not ordered before {@code q}. */
+        int lowerBound(String q) {
+            int lo = 0, hi = keys.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (String.CASE_INSENSITIVE_ORDER.compare(keys[mid], q) < 0) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        boolean matches(int i, String q) {
+            return i < keys.length && keys[i].regionMatches(true, 0, q, 0, q.length());
+        }
+    }
+
+    private final InstrumentMaster master;
+    private final Tier primary;
+    private final Tier options;
+
+    private SymbolSearchIndex(InstrumentMaster master, Tier primary, Tier options) {
+        this.master = master;
+        this.primary = primary;
+        this.options = options;
+    }
+
+    // ------------------------------------------------------------------------
+    // BUILD
+    // ------------------------------------------------------------------------
+
+    public static SymbolSearchIndex build(InstrumentMaster m) {
+        List<String> pk = new ArrayList<>(), ok = new ArrayList<>();
+        List<Integer> pr = new ArrayList<>(), or = new ArrayList<>();
+        List<Byte> pf = new ArrayList<>(), of = new ArrayList<>();
+
+        Set<String> spotSymbols = new HashSet<>();
+        Map<String, Integer> underlyingRow = new LinkedHashMap<>();
+
+        for (int row = 0; row < m.size(); row++) {
+            String symbol = m.tradingSymbol(row);
+            String name = m.customSymbol(row);
+
+            if (m.kind(row) == InstrumentMaster.OPTION) {
+                add(ok, or, of, symbol, row, FIELD_SYMBOL);
+                add(ok, or, of, name, row, FIELD_NAME);
+                underlyingRow.putIfAbsent(m.underlying(row), row);
+            } else {
+                add(pk, pr, pf, symbol, row, FIELD_SYMBOL);
+                if (!name.equalsIgnoreCase(symbol)) add(pk, pr, pf, name, row, FIELD_NAME);
+                spotSymbols.add(symbol.toUpperCase());
+            }
+        }
+
+        // Underlyings without a spot listing of the same name (e.g. FINNIFTY options)
+        underlyingRow.forEach((u, row) -> {
+            if (!spotSymbols.contains(u)) add(pk, pr, pf, u, row, FIELD_UNDERLYING);
+        });
+
+        return new SymbolSearchIndex(m, new Tier(pk, pr, pf), new Tier(ok, or, of));
+    }
+
+    private static void add(List<String> keys, List<Integer> rows, List<Byte> fields,
+                            String key, int row, byte field) {
+        if (key == null || key.isEmpty()) return;
+        keys.add(key);
+        rows.add(row);
+        fields.add(field);
+    }
+
+    // ------------------------------------------------------------------------
+    // SEARCH
+    // ------------------------------------------------------------------------
+
+    /**
+     * Up to {@code limit} instruments whose symbol, name or underlying starts
+     * with {@code query} (case-insensitive), best match first.
+     */
+    public List<Match> search(String query, int limit) {
+        if (query == null || limit <= 0) return List.of();
+        String q = query.trim();
+        if (q.isEmpty()) return List.of();
+
+        List<Match> out = new ArrayList<>(limit);
+        Set<Integer> seen = new HashSet<>();
+
+        // Tier 1: rank the whole prefix range (exact, then shorter key)
+        List<Integer> hits = new ArrayList<>();
+        for (int i = primary.lowerBound(q); primary.matches(i, q); i++) hits.add(i);
+        hits.sort(Comparator
+                .comparingInt((Integer i) -> primary.keys[i].equalsIgnoreCase(q) ? 0 : 1)
+                .thenComparingInt(i -> primary.fields[i])
+                .thenComparingInt(i -> primary.keys[i].length()));
+
+        for (int i : hits) {
+            if (out.size() == limit) return out;
+            int row = primary.rows[i];
+            if (primary.fields[i] == FIELD_UNDERLYING) {
+                out.add(underlyingMatch(row));
+            } else if (seen.add(row)) {
+                out.add(match(row));
+            }
+        }
+
+        // Tier 2: option contracts in key order, bounded scan
+        int scanned = 0;
+        List<Integer> optionHits = new ArrayList<>();
+        for (int i = options.lowerBound(q); options.matches(i, q) && scanned < MAX_OPTION_SCAN; i++, scanned++) optionHits.add(i);
+        optionHits.sort(Comparator.comparingInt((Integer i) -> options.keys[i].length())
+                .thenComparingInt(i -> master.expiryDay(options.rows[i])));
+
+        for (int i : optionHits) {
+            if (out.size() == limit) break;
+            int row = options.rows[i];
+            if (seen.add(row)) out.add(match(row));
+        }
+        return out;
+    }
+
+    private Match match(int row) {
+        byte kind = master.kind(row);
+        boolean option = kind == InstrumentMaster.OPTION;
+        return new Match(
+                master.tradingSymbol(row),
+                master.customSymbol(row),
+                kindName(kind),
+                exchangeSegment(row),
+                String.valueOf(master.securityId(row)),
+                option ? master.underlying(row) : master.tradingSymbol(row),
+                option ? master.expiry(row) : null,
+                option ? master.strike(row) : null,
+                option ? master.optionTypeName(row) : null);
+    }
+
+    private Match underlyingMatch(int optionRow) {
+        String u = master.underlying(optionRow);
+        return new Match(u, u, "UNDERLYING", exchangeSegment(optionRow), null, u, null, null, null);
+    }
+
+    private String exchangeSegment(int row) {
+        String exch = master.exchange(row);
+        return switch (master.kind(row)) {
+            case InstrumentMaster.OPTION -> exch + "_FNO";
+            case InstrumentMaster.INDEX -> "NSE".equals(exch) ? "NSE_IDX" : "IDX_I";
+            default -> exch + "_EQ";
+        };
+    }
+
+    private static String kindName(byte kind) {
+        return switch (kind) {
+            case InstrumentMaster.EQUITY -> "EQUITY";
+            case InstrumentMaster.INDEX -> "INDEX";
+            default -> "OPTION";
+        };
+    }
+
+    public int size() {
+        return primary.keys.length + options.keys.length;
+    }
+}
@@ -0,0 +1,42 @@
+package com.trading.manualorderservice.instrument;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Symbol search / autocomplete over the in-memory instrument master.
+ * Queries never touch the database or the CSV; the index is rebuilt off to
+ * the side on master reload and swapped in.
+ */
+@Slf4j
+@Service
+public class SymbolSearchService {
+
+    public static final int MAX_LIMIT = 50;
+
+    private volatile SymbolSearchIndex index;
+
+    public SymbolSearchService(InstrumentMasterService masterService) {
+        rebuild(masterService.master());
+    }
+
+    @EventListener
+    public void onMasterReloaded(InstrumentMasterReloadedEvent event) {
+        rebuild(event.master());
+    }
+
+    private void rebuild(InstrumentMaster master) {
+        long t0 = System.nanoTime();
+        SymbolSearchIndex built = SymbolSearchIndex.build(master);
+        index = built;
+        log.info("🔎 Symbol search index built: {} keys in {} ms",
+                built.size(), (System.nanoTime() - t0) / 1_000_000);
+    }
+
+    public List<SymbolSearchIndex.Match> search(String query, int limit) {
+        return index.search(query, Math.min(Math.max(limit, 1), MAX_LIMIT));
+    }
+}
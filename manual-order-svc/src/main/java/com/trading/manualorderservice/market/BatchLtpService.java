@@ -1,18 +1,34 @@
 package com.trading.manualorderservice.market;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.trading.manualorderservice.limits.GlobalRateLimitRegistry;
 import com.trading.manualorderservice.util.SegmentMapper;
 import com.trading.shareddto.entity.BrokerUserDetails;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.json.JSONObject;
-import org.json.JSONArray;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.net.http.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.net.http.*;
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * REST batch LTP fetcher (/v2/marketfeed/ltp).
+ *
+ * Requests are split at the broker's per-request instrument cap and sent one
+ * after another through the per-user LTP throttle (1 request/sec), over one
+ * shared HTTP/2 client (pooled connections, no per-call TLS setup).
+ * Responses are stream-parsed straight into the LTP store — no intermediate
+ * JSON tree.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -20,107 +36,181 @@ public class BatchLtpService {
 
     private static final String LTP_URL = "https://api.dhan.co/v2/marketfeed/ltp";
 
+    // Dhan accepts at most 1000 instruments per marketfeed request
+    private static final int MAX_INSTRUMENTS_PER_REQUEST = 1000;
+
+    private static final long BATCH_TIMEOUT_MS = 10_000;
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private static final HttpClient HTTP = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
     private final LtpCacheService ltpCacheService;
 
-    // NEW: pending symbols to batch-fetch
-    private final Map<String, Set<String>> pending = new ConcurrentHashMap<>();
+    /** Replay: never call the broker, the store only holds journal prices. */
+    @Value("${market.replay.enabled:false}")
+    private boolean replayMode;
 
     /**
-     * Allow anyone to request LTP for a security.
-     * This will be fetched on the next batch cycle.
+     * Called every 20 seconds from LtpBatchRefreshEngine,
+     * and by LtpService micro-batches for cache misses.
+     *
+     * @return number of instruments whose LTP was updated
      */
-    public void request(String segment, String secId) {
-        pending.computeIfAbsent(segment, k -> ConcurrentHashMap.newKeySet())
-                .add(secId);
+    public int fetchBatchLtp(Map<String, List<String>> segmentsMap,
+                             BrokerUserDetails creds) {
+
+        if (segmentsMap.isEmpty() || replayMode) return 0;
+
+        List<Map<String, List<String>>> chunks = chunk(segmentsMap);
+
+        int updated = 0;
+        for (Map<String, List<String>> chunk : chunks) {
+            // same per-user LTP pacing as ThrottledHttpClient
+            GlobalRateLimitRegistry.awaitTurn(creds.getUserId());
+            try {
+                updated += send(chunk, creds);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("⚠ Batch LTP interrupted after {} instruments", updated);
+                break;
+            } catch (Exception e) {
+                log.error("❌ Batch LTP chunk failed: {}", e.getMessage());
+            }
+        }
+
+        log.info("Batch LTP updated {} instruments in {} request(s)", updated, chunks.size());
+        return updated;
     }
 
     /**
-     * Called every 20 seconds from LtpBatchRefreshEngine,
-     * OR manually if someone wants forced refresh.
+     * Split into requests of at most {@link #MAX_INSTRUMENTS_PER_REQUEST}
+     * instruments in total (a request may span several segments).
      */
-    public void fetchBatchLtp(Map<String, List<String>> segmentsMap,
-                              BrokerUserDetails creds) {
-
-        // 1️⃣ Merge pending requests into segmentsMap
-        mergePendingRequests(segmentsMap);
-
-        if (segmentsMap.isEmpty()) return;
-
-        try {
-            JSONObject body = new JSONObject();
-
-            // Convert internal → Dhan API keys
-            segmentsMap.forEach((segment, ids) -> {
-                String apiSeg = SegmentMapper.toDhanApi(segment);
-
-                JSONArray arr = new JSONArray();
-                ids.forEach(id -> arr.put(Integer.parseInt(id)));
-
-                body.put(apiSeg, arr);
-            });
-
-            HttpClient http = HttpClient.newHttpClient();
-
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(LTP_URL))
-                    .header("access-token", creds.getAccessToken())
-                    .header("client-id", creds.getClientId())
-                    .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
-                    .build();
+    private static List<Map<String, List<String>>> chunk(Map<String, List<String>> segmentsMap) {
+        List<Map<String, List<String>>> chunks = new ArrayList<>();
+        Map<String, List<String>> current = new LinkedHashMap<>();
+        int count = 0;
+
+        for (var e : segmentsMap.entrySet()) {
+            for (String id : e.getValue()) {
+                if (count == MAX_INSTRUMENTS_PER_REQUEST) {
+                    chunks.add(current);
+                    current = new LinkedHashMap<>();
+                    count = 0;
+                }
+                current.computeIfAbsent(e.getKey(), k -> new ArrayList<>()).add(id);
+                count++;
+            }
+        }
+        if (count > 0) chunks.add(current);
+        return chunks;
+    }
 
-            HttpResponse<String> response =
-                    http.send(request, HttpResponse.BodyHandlers.ofString());
+    private int send(Map<String, List<String>> chunk, BrokerUserDetails creds)
+            throws IOException, InterruptedException {
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(LTP_URL))
+                .timeout(Duration.ofMillis(BATCH_TIMEOUT_MS))
+                .header("access-token", creds.getAccessToken())
+                .header("client-id", creds.getClientId())
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(requestBody(chunk)))
+                .build();
+
+        HttpResponse<InputStream> response = HTTP.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream in = response.body()) {
+            if (response.statusCode() != 200) {
+                String err = new String(in.readNBytes(512));
+                throw new IllegalStateException("HTTP " + response.statusCode() + ": " + err);
+            }
+            return parseInto(in);
+        }
+    }
 
-            JSONObject json = new JSONObject(response.body());
-            JSONObject data = json.getJSONObject("data");
+    /** {"NSE_EQ":[11536,...],"NSE_FNO":[...]} with Dhan API segment names. */
+    private static byte[] requestBody(Map<String, List<String>> chunk) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 + chunk.size() * 8);
+        try (JsonGenerator g = JSON.createGenerator(out)) {
+            g.writeStartObject();
+            for (var e : chunk.entrySet()) {
+                g.writeArrayFieldStart(SegmentMapper.toDhanApi(e.getKey()));
+                for (String id : e.getValue()) {
+                    g.writeNumber(Integer.parseInt(id));
+                }
+                g.writeEndArray();
+            }
+            g.writeEndObject();
+        }
+        return out.toByteArray();
+    }
 
-            // Parse response
-            for (String internalSeg : segmentsMap.keySet()) {
-                String apiSeg = SegmentMapper.toDhanApi(internalSeg);
+    /**
+     * Stream-parse {"data":{"NSE_EQ":{"11536":{"last_price":4520.0}}},"status":"success"}
+     * into the store. Returns the number of prices written.
+     */
+    private int parseInto(InputStream in) throws IOException {
+        int updated = 0;
 
-                if (!data.has(apiSeg)) continue;
+        try (JsonParser p = JSON.createParser(in)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) return 0;
 
-                JSONObject segData = data.getJSONObject(apiSeg);
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.getCurrentName();
+                p.nextToken();
 
-                for (String secId : segmentsMap.get(internalSeg)) {
+                if (!"data".equals(field) || p.currentToken() != JsonToken.START_OBJECT) {
+                    p.skipChildren();
+                    continue;
+                }
 
-                    if (segData.has(secId)) {
-                        double ltp = segData.getJSONObject(secId)
-                                .getDouble("last_price");
+                // data → segment objects
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    int seg = SegmentMapper.toFeedCode(p.getCurrentName());
+                    if (p.nextToken() != JsonToken.START_OBJECT || seg < 0) {
+                        p.skipChildren();
+                        continue;
+                    }
 
-                        // store in cache
-                        ltpCacheService.update(internalSeg, secId, ltp);
+                    // segment → securityId objects
+                    while (p.nextToken() == JsonToken.FIELD_NAME) {
+                        int secId = parseSecurityId(p.getCurrentName());
+                        if (p.nextToken() != JsonToken.START_OBJECT || secId < 0) {
+                            p.skipChildren();
+                            continue;
+                        }
+
+                        double ltp = Double.NaN;
+                        while (p.nextToken() == JsonToken.FIELD_NAME) {
+                            String name = p.getCurrentName();
+                            p.nextToken();
+                            if ("last_price".equals(name)) {
+                                ltp = p.getValueAsDouble();
+                            } else {
+                                p.skipChildren();
+                            }
+                        }
+
+                        if (ltp > 0) {
+                            ltpCacheService.update(seg, secId, ltp);
+                            updated++;
+                        }
                     }
                 }
             }
-
-            log.info("Batch LTP updated for {} segments", segmentsMap.size());
-
-        } catch (Exception e) {
-            log.error("❌ Batch LTP failed: {}", e.getMessage());
         }
+        return updated;
     }
 
-    /**
-     * Merge pending queued requests into the next batch cycle.
-     */
-    private void mergePendingRequests(Map<String, List<String>> segmentsMap) {
-
-        pending.forEach((seg, set) -> {
-            if (!segmentsMap.containsKey(seg)) {
-                segmentsMap.put(seg, new ArrayList<>(set));
-            } else {
-                List<String> existing = segmentsMap.get(seg);
-                for (String s : set) {
-                    if (!existing.contains(s)) {
-                        existing.add(s);
-                    }
-                }
-            }
-        });
-
-        // clear queue after merging
-        pending.clear();
+    private static int parseSecurityId(String s) {
+        try {
+            return Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
     }
 }
@@ -0,0 +1,159 @@
+package com.trading.manualorderservice.market;
+
+import com.trading.manualorderservice.marketfeed.TickDispatcher;
+import com.trading.manualorderservice.marketfeed.TickEvent;
+import com.trading.manualorderservice.marketfeed.TickHandler;
+import com.trading.manualorderservice.util.SegmentMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Builds rolling 1m / 3m / 5m / 15m OHLCV bars for every streamed instrument
+ * straight from the tick ring.
+ *
+ * Buckets are aligned on exchange time (epoch-aligned, which lines up with the
+ * 09:15 IST open for all four timeframes), and idle bars are closed on that
+ * same clock. Bars live in fixed-size primitive
+ * rings and are updated in place — a tick allocates nothing; only a bar close
+ * creates the {@link CandleClosedEvent}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CandleAggregator implements TickHandler {
+
+    public static final int[] TIMEFRAMES = {1, 3, 5, 15};
+
+    /** Bars kept per timeframe (power of two; > one session of 1m bars). */
+    private static final int CAPACITY = 512;
+
+    /** Idle bars are closed this long after their period ends (late ticks). */
+    private static final long CLOSE_GRACE_MS = 2_000;
+
+    private final TickDispatcher tickDispatcher;
+    private final ApplicationEventPublisher events;
+    private final MarketClock clock;
+
+    public record Candle(long startMs, double open, double high, double low, double close, long volume) {}
+
+    /** Instrument → one series per entry of {@link #TIMEFRAMES}. */
+    private volatile InstrumentMap<CandleSeries[]> series = InstrumentMap.empty();
+    private final Map<Long, CandleSeries[]> seriesByKey = new HashMap<>();
+    private final List<CandleSeries> allSeries = new CopyOnWriteArrayList<>();
+
+    /**
+     * Exchange time minus local clock at the newest exchange timestamp seen, so
+     * the idle sweep can tell exchange time when nothing is ticking.
+     */
+    private long latestExchangeMs;
+    private volatile long exchangeOffsetMs;
+
+    @PostConstruct
+    public void registerForTicks() {
+        tickDispatcher.register(this);
+    }
+
+    // ------------------------------------------------------------------------
+    // TICK PATH
+    // ------------------------------------------------------------------------
+
+    @Override
+    public String name() {
+        return "candles";
+    }
+
+    @Override
+    public boolean isInterested(int segment, int securityId) {
+        return true;
+    }
+
+    @Override
+    public void onTick(TickEvent tick) {
+        if (!tick.hasPrice() || tick.exchangeTimeMs <= 0) return;
+
+        if (tick.exchangeTimeMs > latestExchangeMs) {
+            latestExchangeMs = tick.exchangeTimeMs;
+            exchangeOffsetMs = tick.exchangeTimeMs - clock.millis();
+        }
+
+        long key = InstrumentKey.of(tick.segment, tick.securityId);
+        CandleSeries[] bars = series.get(key);
+        if (bars == null) bars = create(key, tick.segment, tick.securityId);
+
+        for (CandleSeries s : bars) {
+            long closed = s.onTrade(tick.exchangeTimeMs, tick.ltp, tick.volume, tick.lastTradeQty);
+            if (closed >= 0) publish(s, closed);
+        }
+    }
+
+    private synchronized CandleSeries[] create(long key, int segment, int securityId) {
+        CandleSeries[] bars = seriesByKey.get(key);
+        if (bars != null) return bars;
+
+        bars = new CandleSeries[TIMEFRAMES.length];
+        for (int i = 0; i < TIMEFRAMES.length; i++) {
+            bars[i] = new CandleSeries(segment, securityId, TIMEFRAMES[i], CAPACITY);
+            allSeries.add(bars[i]);
+        }
+        seriesByKey.put(key, bars);
+        series = InstrumentMap.copyOf(seriesByKey);
+        return bars;
+    }
+
+    // ------------------------------------------------------------------------
+    // IDLE CLOSE
+    // ------------------------------------------------------------------------
+
+    /**
+     * Closes bars of instruments that stopped ticking, so a bar-close event is
+     * not held back until the next trade.
+     */
+    @Scheduled(fixedDelay = 1000)
+    public void closeIdleBars() {
+        long now = clock.millis() + exchangeOffsetMs - CLOSE_GRACE_MS;
+        for (CandleSeries s : allSeries) {
+            long closed = s.closeIfDue(now);
+            if (closed >= 0) publish(s, closed);
+        }
+    }
+
+    private void publish(CandleSeries s, long seq) {
+        try {
+            events.publishEvent(new CandleClosedEvent(
+                    SegmentMapper.fromFeedCode(s.segment), s.securityId, s.minutes, s.bar(seq)));
+        } catch (Exception e) {
+            log.error("❌ Candle close listener failed for {}:{} {}m: {}",
+                    s.segment, s.securityId, s.minutes, e.getMessage());
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // QUERIES
+    // ------------------------------------------------------------------------
+
+    /**
+     * Most recent bars (oldest first, forming bar last). Empty if the
+     * instrument is not streamed or the timeframe is unsupported.
+     */
+    public List<Candle> getCandles(String segment, String securityId, int minutes, int limit) {
+        long key = InstrumentKey.of(segment, securityId);
+        if (key < 0) return List.of();
+
+        CandleSeries[] bars = series.get(key);
+        if (bars == null) return List.of();
+
+        for (int i = 0; i < TIMEFRAMES.length; i++) {
+            if (TIMEFRAMES[i] == minutes) return bars[i].last(limit);
+        }
+        return List.of();
+    }
+}
@@ -0,0 +1,14 @@
+package com.trading.manualorderservice.market;
+
+/**
+ * Published through Spring's ApplicationEventPublisher when a bar completes,
+ * either because a tick opened the next bucket or the period ended idle.
+ *
+ * Listeners run on the candle thread — hand heavy work off with @Async.
+ */
+public record CandleClosedEvent(
+        String exchangeSegment,    // NSE_EQ / NSE_FNO / NSE_IDX
+        int securityId,
+        int timeframeMinutes,
+        CandleAggregator.Candle candle
+) {}
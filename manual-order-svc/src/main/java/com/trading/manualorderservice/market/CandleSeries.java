@@ -0,0 +1,133 @@
+package com.trading.manualorderservice.market;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rolling OHLCV bars of one instrument and one timeframe, stored column-wise
+ * in fixed-size primitive rings. The forming bar is updated in place; once
+ * capacity is reached the oldest bar is overwritten.
+ *
+ * Guarded by its own monitor: written by the candle tick thread, read by REST
+ * and the close sweep.
+ */
+final class CandleSeries {
+
+    final int segment;
+    final int securityId;
+    final int minutes;
+    private final long periodMs;
+
+    private final long[] start;
+    private final double[] open;
+    private final double[] high;
+    private final double[] low;
+    private final double[] close;
+    private final long[] volume;
+    private final int mask;
+
+    /** Index of the forming bar in the ring, -1 before the first tick. */
+    private long current = -1;
+    private boolean currentClosed;
+
+    /** Last cumulative day volume seen (quote / full packets). */
+    private long lastCumVolume;
+
+    /** Volume of late ticks for already-closed bars, booked into the next bar. */
+    private long carriedVolume;
+
+    CandleSeries(int segment, int securityId, int minutes, int capacity) {
+        this.segment = segment;
+        this.securityId = securityId;
+        this.minutes = minutes;
+        this.periodMs = minutes * 60_000L;
+        this.start = new long[capacity];
+        this.open = new double[capacity];
+        this.high = new double[capacity];
+        this.low = new double[capacity];
+        this.close = new double[capacity];
+        this.volume = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Apply one trade. Returns the ring index of a bar closed by this tick
+     * (the tick opened a new bucket), or -1.
+     *
+     * Ticks for a bar that is already closed never change it; their volume is
+     * carried into the next bar.
+     */
+    synchronized long onTrade(long timeMs, double price, long cumVolume, int lastTradeQty) {
+        long bucket = timeMs - Math.floorMod(timeMs, periodMs);
+        long closed = -1;
+
+        long delta = 0;
+        if (cumVolume > 0) {
+            if (lastCumVolume == 0) {
+                delta = lastTradeQty;   // first packet: only its own trade belongs to this bar
+            } else if (cumVolume > lastCumVolume) {
+                delta = cumVolume - lastCumVolume;
+            }
+            lastCumVolume = Math.max(lastCumVolume, cumVolume);
+        }
+
+        if (current >= 0) {
+            long formingStart = start[(int) (current & mask)];
+            if (bucket < formingStart || (bucket == formingStart && currentClosed)) {
+                carriedVolume += delta;   // late tick for a closed bar
+                return -1;
+            }
+        }
+
+        if (current < 0 || bucket > start[(int) (current & mask)]) {
+            if (current >= 0 && !currentClosed) closed = current;
+
+            current++;
+            currentClosed = false;
+            int i = (int) (current & mask);
+            start[i] = bucket;
+            open[i] = high[i] = low[i] = close[i] = price;
+            volume[i] = carriedVolume + delta;
+            carriedVolume = 0;
+            return closed;
+        }
+
+        int i = (int) (current & mask);
+        if (price > high[i]) high[i] = price;
+        if (price < low[i]) low[i] = price;
+        close[i] = price;
+        volume[i] += delta;
+        return -1;
+    }
+
+    /**
+     * Close the forming bar if its period has ended without a new tick.
+     * {@code nowMs} is exchange time, the clock the buckets are keyed on.
+     * Returns its ring index, or -1.
+     */
+    synchronized long closeIfDue(long nowMs) {
+        if (current < 0 || currentClosed) return -1;
+        if (nowMs < start[(int) (current & mask)] + periodMs) return -1;
+        currentClosed = true;
+        return current;
+    }
+
+    /** Snapshot of bar {@code seq}; caller must know it is still in the ring. */
+    synchronized CandleAggregator.Candle bar(long seq) {
+        int i = (int) (seq & mask);
+        return new CandleAggregator.Candle(start[i], open[i], high[i], low[i], close[i], volume[i]);
+    }
+
+    /** Up to {@code limit} most recent bars, oldest first, forming bar included. */
+    synchronized List<CandleAggregator.Candle> last(int limit) {
+        if (current < 0) return List.of();
+
+        long count = Math.min(Math.min(limit, mask + 1), current + 1);
+        List<CandleAggregator.Candle> out = new ArrayList<>((int) count);
+        for (long s = current - count + 1; s <= current; s++) {
+            int i = (int) (s & mask);
+            out.add(new CandleAggregator.Candle(start[i], open[i], high[i], low[i], close[i], volume[i]));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,38 @@
+package com.trading.manualorderservice.market;
+
+import com.trading.manualorderservice.util.SegmentMapper;
+
+/**
+ * Packs (exchange segment code, securityId) into one non-zero long so that
+ * instrument lookups on the tick path work on primitives only.
+ */
+public final class InstrumentKey {
+
+    private InstrumentKey() {}
+
+    /** Segment is shifted by one so that no valid key equals 0. */
+    public static long of(int segment, int securityId) {
+        return ((long) (segment + 1) << 32) | (securityId & 0xFFFF_FFFFL);
+    }
+
+    /**
+     * Internal segment name (NSE_EQ / NSE_FNO / NSE_IDX) + string security ID, -1 if unmappable.
+     */
+    public static long of(String segment, String securityId) {
+        int seg = SegmentMapper.toFeedCode(segment);
+        if (seg < 0 || securityId == null || securityId.isBlank()) return -1;
+        try {
+            return of(seg, Integer.parseInt(securityId.trim()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public static int segment(long key) {
+        return (int) (key >>> 32) - 1;
+    }
+
+    public static int securityId(long key) {
+        return (int) key;
+    }
+}
@@ -0,0 +1,77 @@
+package com.trading.manualorderservice.market;
+
+import java.util.Map;
+
+/**
+ * Immutable primitive open-addressing map from {@link InstrumentKey} to V.
+ * Built off the tick path and swapped in through a volatile reference;
+ * lookups neither lock nor box.
+ */
+public final class InstrumentMap<V> {
+
+    private static final InstrumentMap<?> EMPTY = new InstrumentMap<>(new long[1], new Object[1], 0);
+
+    private final long[] keys;
+    private final Object[] values;
+    private final int mask;
+    private final int size;
+
+    private InstrumentMap(long[] keys, Object[] values, int size) {
+        this.keys = keys;
+        this.values = values;
+        this.mask = keys.length - 1;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> InstrumentMap<V> empty() {
+        return (InstrumentMap<V>) EMPTY;
+    }
+
+    public static <V> InstrumentMap<V> copyOf(Map<Long, V> source) {
+        if (source.isEmpty()) return empty();
+
+        int cap = Integer.highestOneBit(Math.max(source.size() * 2, 2) - 1) << 1;
+        long[] keys = new long[cap];
+        Object[] values = new Object[cap];
+        int mask = cap - 1;
+
+        for (Map.Entry<Long, V> e : source.entrySet()) {
+            long k = e.getKey();
+            if (k == 0) continue;
+            int i = mix(k) & mask;
+            while (keys[i] != 0 && keys[i] != k) i = (i + 1) & mask;
+            keys[i] = k;
+            values[i] = e.getValue();
+        }
+        return new InstrumentMap<>(keys, values, source.size());
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int i = mix(key) & mask;
+        long k;
+        while ((k = keys[i]) != 0) {
+            if (k == key) return (V) values[i];
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -1,10 +1,12 @@
 package com.trading.manualorderservice.market;
 
 import com.trading.manualorderservice.entity.OrderEntity;
+import com.trading.manualorderservice.marketfeed.MarketFeedManager;
 import com.trading.manualorderservice.repo.OrderRepository;
 import com.trading.manualorderservice.service.DhanCredentialService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import java.util.*;
@@ -17,9 +19,16 @@ public class LtpBatchRefreshEngine {
     private final OrderRepository orderRepository;
     private final DhanCredentialService dhanCredentialService;
     private final BatchLtpService batchLtpService;
+    private final MarketFeedManager feedManager;
+    private final LtpCacheService ltpCacheService;
+
+    /** Replay: prices come from the journal only, no broker polling. */
+    @Value("${market.replay.enabled:false}")
+    private boolean replayMode;
 
     @Scheduled(fixedDelay = 20000)
     public void refreshLtpCache() {
+        if (replayMode) return;
 
         List<OrderEntity> orders = orderRepository.findOrdersForLtpRefresh();
         if (orders.isEmpty()) {
@@ -43,11 +52,14 @@ public class LtpBatchRefreshEngine {
 
             if (seg == null || sec == null) continue;
 
+            // Streamed over WebSocket and ticking → REST batch not needed
+            if (feedManager.isStreaming(seg, sec) && ltpCacheService.getFresh(seg, sec) != null) continue;
+
             segmentsMap.computeIfAbsent(seg, x -> new HashSet<>()).add(sec);
         }
 
         if (segmentsMap.isEmpty()) {
-            log.warn("⚠ No valid segments found for LTP batching");
+            log.debug("All active instruments are streaming, skipping REST LTP batch");
             return;
         }
 
@@ -1,40 +1,31 @@
 package com.trading.manualorderservice.market;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Component
+@RequiredArgsConstructor
 public class LtpCache {
 
     private static final long TTL = 5000; // 5 seconds
 
-    private static class Entry {
-        double price;
-        long timestamp;
-
-        Entry(double price) {
-            this.price = price;
-            this.timestamp = System.currentTimeMillis();
-        }
-    }
-
-    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+    private final LtpStore store;
+    private final MarketClock clock;
 
     public void put(String segment, String id, double price) {
-        cache.put(segment + "|" + id, new Entry(price));
+        long key = InstrumentKey.of(segment, id);
+        if (key < 0) return;
+        long now = clock.millis();
+        store.update(InstrumentKey.segment(key), InstrumentKey.securityId(key), price, now, now);
     }
 
+    /** Null on a miss, including an unmappable segment or non-numeric id. */
     public Double get(String segment, String id) {
-        String key = segment + "|" + id;
-        Entry e = cache.get(key);
-
-        if (e == null) return null;
+        long key = InstrumentKey.of(segment, id);
+        if (key < 0) return null;
 
-        if (System.currentTimeMillis() - e.timestamp > TTL) {
-            cache.remove(key);
-            return null;
-        }
-        return e.price;
+        double price = store.priceIfNewer(InstrumentKey.segment(key), InstrumentKey.securityId(key),
+                clock.millis() - TTL);
+        return Double.isNaN(price) ? null : price;
     }
 }
@@ -1,48 +1,66 @@
 package com.trading.manualorderservice.market;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
+/**
+ * String-facing view over {@link LtpStore} for REST / order code paths.
+ * The feed writes through the primitive overloads and never builds keys.
+ * An unmappable segment or non-numeric security id is a cache miss.
+ */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class LtpCacheService {
 
-    private final Map<String, Double> ltpMap = new ConcurrentHashMap<>();
-    private final Map<String, Long> timestampMap = new ConcurrentHashMap<>();
+    private final LtpStore store;
+    private final MarketClock clock;
 
     // FIXED — must be > 20 seconds batch interval
     private static final long FRESHNESS_MS = 30_000; // 30 sec
 
-    private String key(String segment, String secId) {
-        return segment + "|" + secId;
-    }
-
     public void update(String segment, String secId, double ltp) {
-        String k = key(segment, secId);
-        ltpMap.put(k, ltp);
-        timestampMap.put(k, System.currentTimeMillis());
+        long key = InstrumentKey.of(segment, secId);
+        if (key < 0) return;
+        long now = clock.millis();
+        store.update(InstrumentKey.segment(key), InstrumentKey.securityId(key), ltp, now, now);
     }
 
-    public Double getFresh(String segment, String secId) {
-        String k = key(segment, secId);
+    /**
+     * Feed path: primitive keys, exchange timestamp from the packet.
+     */
+    public void update(int segment, int secId, double ltp, long exchangeTimeMs) {
+        store.update(segment, secId, ltp, exchangeTimeMs, clock.millis());
+    }
 
-        Long ts = timestampMap.get(k);
-        if (ts == null) return null;
+    /**
+     * REST path with primitive keys: no exchange timestamp, stamped with receive time.
+     */
+    public void update(int segment, int secId, double ltp) {
+        long now = clock.millis();
+        store.update(segment, secId, ltp, now, now);
+    }
 
-        long age = System.currentTimeMillis() - ts;
-        if (age > FRESHNESS_MS) return null;
+    public Double getFresh(String segment, String secId) {
+        long key = InstrumentKey.of(segment, secId);
+        if (key < 0) return null;
 
-        return ltpMap.get(k);
+        double ltp = store.priceIfNewer(InstrumentKey.segment(key), InstrumentKey.securityId(key),
+                clock.millis() - FRESHNESS_MS);
+        return Double.isNaN(ltp) ? null : ltp;
     }
 
     public Double getLastKnown(String segment, String secId) {
-        return ltpMap.get(key(segment, secId));
+        long key = InstrumentKey.of(segment, secId);
+        if (key < 0) return null;
+
+        double ltp = store.lastPrice(InstrumentKey.segment(key), InstrumentKey.securityId(key));
+        return Double.isNaN(ltp) ? null : ltp;
     }
 
     public boolean exists(String segment, String secId) {
-        return ltpMap.containsKey(key(segment, secId));
+        long key = InstrumentKey.of(segment, secId);
+        return key >= 0 && store.contains(InstrumentKey.segment(key), InstrumentKey.securityId(key));
     }
 }
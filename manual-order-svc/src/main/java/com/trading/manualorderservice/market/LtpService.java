@@ -1,10 +1,16 @@
 package com.trading.manualorderservice.market;
 import com.trading.manualorderservice.service.DhanAllApis;
 import com.trading.shareddto.entity.BrokerUserDetails;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -14,6 +20,39 @@ public class LtpService {
     private final BatchLtpService batchLtpService;
     private final DhanAllApis dhanAllApis;
 
+    /** Replay: answer from the replayed prices only, never from the broker. */
+    @Value("${market.replay.enabled:false}")
+    private boolean replayMode;
+
+    /** Misses arriving within this window share one /marketfeed/ltp call. */
+    private static final long FLUSH_DELAY_MS = 3;
+
+    /** Longest a trading caller waits for a miss (batch + fallback) to resolve. */
+    private static final long RESOLVE_TIMEOUT_MS = 15_000;
+
+    /** One cache miss waiting for the next micro-batch. */
+    private record PendingLtp(long key, String segment, String secId,
+                              BrokerUserDetails creds, Long userId,
+                              CompletableFuture<Double> future) {}
+
+    /** Instrument key → in-flight fetch, shared by every concurrent caller. */
+    private final Map<Long, CompletableFuture<Double>> inFlight = new ConcurrentHashMap<>();
+    private final Queue<PendingLtp> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "ltp-microbatch");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** Batch calls and direct fallbacks; the flusher only drains and groups. */
+    private final ExecutorService fetcher = Executors.newFixedThreadPool(4, r -> {
+        Thread t = new Thread(r, "ltp-fetch");
+        t.setDaemon(true);
+        return t;
+    });
+
     /**
      * Universal LTP fetcher used by OrderBuildService
      */
@@ -21,31 +60,149 @@ public class LtpService {
                                    String segment,
                                    BrokerUserDetails creds,
                                    Long userId) throws Exception {
+        try {
+            return getLtpAsync(secId, segment, creds, userId)
+                    .get(RESOLVE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // the shared fetch is left running for the other callers
+            throw new TimeoutException("LTP for " + segment + " " + secId
+                    + " not resolved within " + RESOLVE_TIMEOUT_MS + " ms");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception ex) throw ex;
+            throw e;
+        }
+    }
+
+    /**
+     * Fresh cache hit → completed future. Miss → future of the single in-flight
+     * fetch for that instrument, resolved by the next micro-batch.
+     */
+    public CompletableFuture<Double> getLtpAsync(String secId,
+                                                 String segment,
+                                                 BrokerUserDetails creds,
+                                                 Long userId) {
 
         // 1️⃣ Try fresh cache first
-        Double ltp = ltpCache.getFresh(segment,secId);
+        Double ltp = ltpCache.getFresh(segment, secId);
         if (ltp != null) {
-            return ltp;
+            return CompletableFuture.completedFuture(ltp);
         }
 
-        // 2️⃣ Ask batch engine to fetch it on next cycle
-        batchLtpService.request(segment, secId);
+        if ("NSE_IDX".equals(segment)) {
+            return CompletableFuture.failedFuture(new RuntimeException("Index LTP should not be fetched here"));
+        }
 
-        // 3️⃣ Wait 300ms for batch update
-        Thread.sleep(300);
-        ltp = ltpCache.getFresh(segment,secId);
-        if (ltp != null) {
-            return ltp;
+        if (replayMode) {
+            Double last = ltpCache.getLastKnown(segment, secId);
+            return last != null
+                    ? CompletableFuture.completedFuture(last)
+                    : CompletableFuture.failedFuture(new IllegalStateException(
+                            "No replayed LTP for " + segment + " " + secId));
+        }
+
+        long key = InstrumentKey.of(segment, secId);
+        if (key < 0) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Unknown segment: " + segment));
         }
 
-        // 4️⃣ LAST RESORT fallback — direct API call
-        log.warn("⚠ LTP cache empty for {} ({}). Using fallback API.", secId, segment);
+        // 2️⃣ Join the in-flight fetch, or start one
+        return inFlight.computeIfAbsent(key, k -> {
+            CompletableFuture<Double> f = new CompletableFuture<>();
+            pending.add(new PendingLtp(k, segment, secId, creds, userId, f));
+            if (flushScheduled.compareAndSet(false, true)) {
+                flusher.schedule(this::flush, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+            }
+            return f;
+        });
+    }
+
+    // ------------------------------------------------------------------------
+    // MICRO-BATCH
+    // ------------------------------------------------------------------------
+
+    private void flush() {
+        flushScheduled.set(false);
+
+        List<PendingLtp> batch = new ArrayList<>();
+        for (PendingLtp p; (p = pending.poll()) != null; ) batch.add(p);
+        if (batch.isEmpty()) return;
 
-        return switch (segment) {
-            case "NSE_FNO" -> dhanAllApis.fetchLtpOption(secId, creds, userId);
-            case "NSE_EQ"  -> dhanAllApis.fetchLtpEquity(secId, creds, userId);
-            case "NSE_IDX" -> throw new RuntimeException("Index LTP should not be fetched here");
-            default -> throw new IllegalArgumentException("Unknown segment: " + segment);
+        // 3️⃣ One batch call per broker account — each miss is fetched with its own caller's token
+        Map<Long, List<PendingLtp>> byAccount = new LinkedHashMap<>();
+        for (PendingLtp p : batch) {
+            byAccount.computeIfAbsent(p.creds().getUserId(), u -> new ArrayList<>()).add(p);
+        }
+
+        for (List<PendingLtp> group : byAccount.values()) {
+            try {
+                fetcher.execute(() -> resolve(group));
+            } catch (RejectedExecutionException e) {
+                group.forEach(p -> fail(p, e));
+            }
+        }
+    }
+
+    private void resolve(List<PendingLtp> group) {
+        Map<String, List<String>> segmentsMap = new HashMap<>();
+        for (PendingLtp p : group) {
+            segmentsMap.computeIfAbsent(p.segment(), s -> new ArrayList<>()).add(p.secId());
+        }
+
+        try {
+            batchLtpService.fetchBatchLtp(segmentsMap, group.get(0).creds());
+        } catch (Exception e) {
+            log.error("❌ LTP micro-batch failed: {}", e.getMessage());
+        }
+
+        for (PendingLtp p : group) {
+            Double ltp = ltpCache.getFresh(p.segment(), p.secId());
+            if (ltp != null) {
+                complete(p, ltp);
+                continue;
+            }
+
+            // 4️⃣ LAST RESORT fallback — direct API call, one task per miss
+            log.warn("⚠ LTP batch missed {} ({}). Using fallback API.", p.secId(), p.segment());
+            try {
+                fetcher.execute(() -> {
+                    try {
+                        double direct = fetchDirect(p);
+                        ltpCache.update(p.segment(), p.secId(), direct);
+                        complete(p, direct);
+                    } catch (Throwable e) {
+                        fail(p, e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                fail(p, e);
+            }
+        }
+
+        log.debug("LTP micro-batch fetched {} instruments", group.size());
+    }
+
+    private void complete(PendingLtp p, double ltp) {
+        inFlight.remove(p.key(), p.future());
+        p.future().complete(ltp);
+    }
+
+    private void fail(PendingLtp p, Throwable e) {
+        inFlight.remove(p.key(), p.future());
+        p.future().completeExceptionally(e);
+    }
+
+    private double fetchDirect(PendingLtp p) throws Exception {
+        return switch (p.segment()) {
+            case "NSE_FNO" -> dhanAllApis.fetchLtpOption(p.secId(), p.creds(), p.userId());
+            case "NSE_EQ"  -> dhanAllApis.fetchLtpEquity(p.secId(), p.creds(), p.userId());
+            default -> throw new IllegalArgumentException("Unknown segment: " + p.segment());
         };
     }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+        fetcher.shutdownNow();
+    }
 }
@@ -0,0 +1,212 @@
+package com.trading.manualorderservice.market;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single LTP store for every segment/instrument, keyed by (segment code, securityId).
+ *
+ * Layout: primitive open-addressing table (linear probing). Keys live in one
+ * long[], slot payloads in another long[] with a fixed stride:
+ *
+ *   [version | price bits | exchange time ms | receive time ms]
+ *
+ * Each slot is published with a seqlock: the writer CASes the version to an odd
+ * value, writes the payload and releases an even version. Readers retry until
+ * they observe the same even version before and after reading, so price and
+ * timestamps always belong to the same tick. Reads never allocate.
+ *
+ * The table does not resize; capacity is sized for the full F&O universe.
+ */
+@Slf4j
+@Component
+public class LtpStore {
+
+    private static final int DEFAULT_CAPACITY = 1 << 17;   // 131072 slots
+
+    private static final int STRIDE       = 4;
+    private static final int OFF_VERSION  = 0;
+    private static final int OFF_PRICE    = 1;
+    private static final int OFF_EXCH_TS  = 2;
+    private static final int OFF_RECV_TS  = 3;
+
+    private static final long EMPTY = 0L;
+
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final int mask;
+    private final int maxEntries;
+    private final long[] keys;
+    private final long[] slots;
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    public LtpStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    LtpStore(int capacity) {
+        int cap = Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1;
+        this.mask = cap - 1;
+        this.maxEntries = (int) (cap * 0.75);
+        this.keys = new long[cap];
+        this.slots = new long[cap * STRIDE];
+    }
+
+    /**
+     * Reusable holder for a consistent (price, exchange time, receive time) read.
+     */
+    public static final class Snapshot {
+        public double price;
+        public long exchangeTimeMs;
+        public long receiveTimeMs;
+    }
+
+    // ------------------------------------------------------------------------
+    // WRITE
+    // ------------------------------------------------------------------------
+
+    public void update(int segment, int securityId, double price, long exchangeTimeMs, long receiveTimeMs) {
+        int slot = slotFor(key(segment, securityId), true);
+        if (slot < 0) return;
+
+        int base = slot * STRIDE;
+
+        // acquire: even → odd (also serialises concurrent writers of the same slot)
+        long v;
+        do {
+            v = (long) LONGS.getVolatile(slots, base + OFF_VERSION);
+        } while ((v & 1L) != 0 || !LONGS.compareAndSet(slots, base + OFF_VERSION, v, v + 1));
+
+        LONGS.setOpaque(slots, base + OFF_PRICE, Double.doubleToRawLongBits(price));
+        LONGS.setOpaque(slots, base + OFF_EXCH_TS, exchangeTimeMs);
+        LONGS.setOpaque(slots, base + OFF_RECV_TS, receiveTimeMs);
+
+        // publish: odd → even
+        LONGS.setRelease(slots, base + OFF_VERSION, v + 2);
+    }
+
+    // ------------------------------------------------------------------------
+    // READ
+    // ------------------------------------------------------------------------
+
+    /**
+     * Consistent read into {@code out}. Returns false if the instrument has never ticked.
+     */
+    public boolean read(int segment, int securityId, Snapshot out) {
+        int slot = slotFor(key(segment, securityId), false);
+        if (slot < 0) return false;
+
+        int base = slot * STRIDE;
+
+        while (true) {
+            long v1 = (long) LONGS.getAcquire(slots, base + OFF_VERSION);
+            if ((v1 & 1L) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (v1 == 0) return false;   // key claimed, first write not yet published
+
+            long price = (long) LONGS.getOpaque(slots, base + OFF_PRICE);
+            long exch  = (long) LONGS.getOpaque(slots, base + OFF_EXCH_TS);
+            long recv  = (long) LONGS.getOpaque(slots, base + OFF_RECV_TS);
+
+            VarHandle.loadLoadFence();
+            long v2 = (long) LONGS.getVolatile(slots, base + OFF_VERSION);
+
+            if (v1 == v2) {
+                out.price = Double.longBitsToDouble(price);
+                out.exchangeTimeMs = exch;
+                out.receiveTimeMs = recv;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Last price if received at or after {@code minReceiveTimeMs}, otherwise NaN.
+     */
+    public double priceIfNewer(int segment, int securityId, long minReceiveTimeMs) {
+        int slot = slotFor(key(segment, securityId), false);
+        if (slot < 0) return Double.NaN;
+
+        int base = slot * STRIDE;
+
+        while (true) {
+            long v1 = (long) LONGS.getAcquire(slots, base + OFF_VERSION);
+            if ((v1 & 1L) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (v1 == 0) return Double.NaN;
+
+            long price = (long) LONGS.getOpaque(slots, base + OFF_PRICE);
+            long recv  = (long) LONGS.getOpaque(slots, base + OFF_RECV_TS);
+
+            VarHandle.loadLoadFence();
+            if (v1 == (long) LONGS.getVolatile(slots, base + OFF_VERSION)) {
+                return recv >= minReceiveTimeMs ? Double.longBitsToDouble(price) : Double.NaN;
+            }
+        }
+    }
+
+    /**
+     * Last price regardless of age, NaN if never received.
+     */
+    public double lastPrice(int segment, int securityId) {
+        return priceIfNewer(segment, securityId, Long.MIN_VALUE);
+    }
+
+    public boolean contains(int segment, int securityId) {
+        int slot = slotFor(key(segment, securityId), false);
+        return slot >= 0 && (long) LONGS.getAcquire(slots, slot * STRIDE + OFF_VERSION) != 0;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    // ------------------------------------------------------------------------
+    // TABLE
+    // ------------------------------------------------------------------------
+
+    private static long key(int segment, int securityId) {
+        return InstrumentKey.of(segment, securityId);
+    }
+
+    private int slotFor(long key, boolean insert) {
+        int i = mix(key) & mask;
+
+        for (int probes = 0; probes <= mask; probes++) {
+            long k = (long) LONGS.getAcquire(keys, i);
+
+            if (k == key) return i;
+
+            if (k == EMPTY) {
+                if (!insert) return -1;
+
+                if (size.get() >= maxEntries) {
+                    log.error("❌ LtpStore full ({} entries), dropping key {}", size.get(), key);
+                    return -1;
+                }
+                if (LONGS.compareAndSet(keys, i, EMPTY, key)) {
+                    size.incrementAndGet();
+                    return i;
+                }
+                // lost the race: re-check this slot, another writer may have inserted our key
+                if ((long) LONGS.getAcquire(keys, i) == key) return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,52 @@
+package com.trading.manualorderservice.market;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Time source for market-data freshness and engine timing.
+ *
+ * Live mode reads the system clock. During a replay the clock is virtual and
+ * only moves when the replay advances it to the receive time of the frame
+ * being fed, so staleness / debounce decisions are the same as in the
+ * recorded session regardless of replay speed.
+ */
+@Component
+public class MarketClock {
+
+    private volatile boolean virtual = false;
+    private volatile long virtualNanos;
+
+    public long millis() {
+        return virtual ? virtualNanos / 1_000_000L : System.currentTimeMillis();
+    }
+
+    /** Epoch nanos (virtual) or millisecond-resolution epoch nanos (system). */
+    public long epochNanos() {
+        return virtual ? virtualNanos : System.currentTimeMillis() * 1_000_000L;
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Switch to virtual time, starting at the given epoch nanos.
+     */
+    public void startVirtual(long startEpochNanos) {
+        virtualNanos = startEpochNanos;
+        virtual = true;
+    }
+
+    /**
+     * Move virtual time forward; never goes backwards.
+     */
+    public void advanceTo(long epochNanos) {
+        if (epochNanos > virtualNanos) {
+            virtualNanos = epochNanos;
+        }
+    }
+
+    public void useSystem() {
+        virtual = false;
+    }
+}
@@ -0,0 +1,158 @@
+package com.trading.manualorderservice.marketfeed;
+
+import com.trading.manualorderservice.market.InstrumentKey;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conflation stage for a {@link TickHandler.DeliveryMode#CONFLATED} handler.
+ *
+ * A pump keeps up with the ring and only overwrites the latest tick of each
+ * instrument, marking it dirty; a delivery thread hands the handler the
+ * latest snapshot of each dirty instrument when the handler is ready. The
+ * ring is never held back by the handler, and memory is one slot per
+ * instrument however bursty the feed gets.
+ */
+@Slf4j
+final class ConflatingConsumer {
+
+    /** Latest tick of one instrument. Guarded by its own monitor. */
+    private static final class Slot {
+        final TickEvent latest = new TickEvent();
+        boolean dirty;
+        long conflated;   // ticks overwritten before delivery
+    }
+
+    private final TickHandler handler;
+
+    /** Pump-thread only: instrument key → slot (open addressing, grows). */
+    private long[] keys = new long[1024];
+    private Slot[] slots = new Slot[1024];
+    private int size;
+
+    /** Dirty slots in arrival order; each slot queued at most once. */
+    private final BlockingQueue<Slot> dirty = new LinkedBlockingQueue<>();
+
+    private volatile boolean running = true;
+    private volatile long delivered;
+    private volatile long dropped;
+
+    ConflatingConsumer(TickHandler handler) {
+        this.handler = handler;
+    }
+
+    // ------------------------------------------------------------------------
+    // PUMP (ring consumer thread)
+    // ------------------------------------------------------------------------
+
+    /** Ring-facing side: filters with the handler, never calls onTick on it. */
+    TickHandler pump() {
+        return new TickHandler() {
+            @Override
+            public String name() {
+                return handler.name() + "-pump";
+            }
+
+            @Override
+            public boolean isInterested(int segment, int securityId) {
+                return handler.isInterested(segment, securityId);
+            }
+
+            @Override
+            public void onTick(TickEvent tick) {
+                offer(tick);
+            }
+        };
+    }
+
+    private void offer(TickEvent tick) {
+        Slot s = slotFor(InstrumentKey.of(tick.segment, tick.securityId));
+        boolean enqueue;
+        synchronized (s) {
+            if (s.dirty) s.conflated++;
+            s.latest.copyFrom(tick);
+            enqueue = !s.dirty;
+            s.dirty = true;
+        }
+        if (enqueue) dirty.add(s);
+    }
+
+    private Slot slotFor(long key) {
+        int mask = keys.length - 1;
+        int i = (int) (mix(key) & mask);
+        while (keys[i] != 0) {
+            if (keys[i] == key) return slots[i];
+            i = (i + 1) & mask;
+        }
+
+        Slot s = new Slot();
+        keys[i] = key;
+        slots[i] = s;
+        if (++size * 2 > keys.length) grow();
+        return s;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        Slot[] oldSlots = slots;
+        keys = new long[oldKeys.length << 1];
+        slots = new Slot[oldKeys.length << 1];
+        int mask = keys.length - 1;
+
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == 0) continue;
+            int i = (int) (mix(oldKeys[j]) & mask);
+            while (keys[i] != 0) i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            slots[i] = oldSlots[j];
+        }
+    }
+
+    private static long mix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        return k ^ (k >>> 33);
+    }
+
+    // ------------------------------------------------------------------------
+    // DELIVERY (handler thread)
+    // ------------------------------------------------------------------------
+
+    void deliverLoop() {
+        TickEvent snapshot = new TickEvent();
+
+        while (running) {
+            Slot s;
+            try {
+                s = dirty.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (s == null) continue;
+
+            synchronized (s) {
+                snapshot.copyFrom(s.latest);
+                dropped += s.conflated;
+                s.conflated = 0;
+                s.dirty = false;
+            }
+
+            try {
+                handler.onTick(snapshot);
+                delivered++;
+            } catch (Exception ex) {
+                log.error("❌ Tick handler {} failed: {}", handler.name(), ex.getMessage(), ex);
+            }
+        }
+        log.info("🛑 Conflated tick handler stopped: {} delivered={} conflated={}",
+                handler.name(), delivered, dropped);
+    }
+
+    void stop() {
+        running = false;
+    }
+}
@@ -0,0 +1,276 @@
+package com.trading.manualorderservice.marketfeed;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Zero-copy decoder for Dhan market feed binary frames.
+ *
+ * Main feed header (8 bytes, little-endian):
+ *  - [0]   : feed response code
+ *  - [1-2] : int16 message length
+ *  - [3]   : exchange segment
+ *  - [4-7] : int32 securityId
+ *
+ * A single frame may carry several packets back to back; every packet is
+ * decoded in place and handed to the handler through a reusable flyweight view.
+ * One decoder instance per reader thread — views are not thread-safe.
+ *
+ * 20-level depth comes from the separate depth feed with its own 12-byte header,
+ * see {@link #decodeDepth20(ByteBuffer, FeedPacketHandler)}.
+ */
+@Slf4j
+public class DhanFeedDecoder {
+
+    // Feed response codes
+    public static final int INDEX        = 1;
+    public static final int TICKER       = 2;
+    public static final int QUOTE        = 4;
+    public static final int OI           = 5;
+    public static final int PREV_CLOSE   = 6;
+    public static final int MARKET_STATUS = 7;
+    public static final int FULL         = 8;
+    public static final int DISCONNECT   = 50;
+
+    // 20-level depth response codes
+    public static final int DEPTH_BID    = 41;
+    public static final int DEPTH_ASK    = 51;
+
+    static final int HEADER_SIZE         = 8;
+    static final int DEPTH20_HEADER_SIZE = 12;
+    static final int DEPTH20_LEVELS      = 20;
+    static final int DEPTH20_LEVEL_SIZE  = 16;
+    static final int FULL_DEPTH_LEVELS   = 5;
+
+    private final TickerPacket ticker = new TickerPacket();
+    private final QuotePacket quote = new QuotePacket();
+    private final OiPacket oi = new OiPacket();
+    private final PrevClosePacket prevClose = new PrevClosePacket();
+    private final FullPacket full = new FullPacket();
+    private final DepthPacket depth = new DepthPacket();
+
+    /**
+     * Decode every packet of a main-feed frame. Returns the number of packets decoded.
+     */
+    public int decode(ByteBuffer frame, FeedPacketHandler handler) {
+        ByteBuffer buf = frame.order() == ByteOrder.LITTLE_ENDIAN
+                ? frame
+                : frame.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+
+        int pos = buf.position();
+        int end = buf.limit();
+        int packets = 0;
+
+        while (end - pos >= HEADER_SIZE) {
+            int code = buf.get(pos) & 0xFF;
+            int size = packetSize(code, buf.getShort(pos + 1) & 0xFFFF);
+
+            if (size < HEADER_SIZE || pos + size > end) {
+                log.debug("Truncated/unknown feed packet code={} size={} remaining={}", code, size, end - pos);
+                break;
+            }
+
+            switch (code) {
+                case INDEX, TICKER -> handler.onTicker(ticker.wrap(buf, pos, code));
+                case QUOTE         -> handler.onQuote(quote.wrap(buf, pos, code));
+                case OI            -> handler.onOi(oi.wrap(buf, pos, code));
+                case PREV_CLOSE    -> handler.onPrevClose(prevClose.wrap(buf, pos, code));
+                case FULL          -> handler.onFull(full.wrap(buf, pos, code));
+                case MARKET_STATUS -> handler.onMarketStatus(buf.get(pos + 3) & 0xFF, buf.getInt(pos + 4));
+                case DISCONNECT    -> handler.onDisconnect(buf.getShort(pos + HEADER_SIZE) & 0xFFFF);
+                default            -> { /* unknown packet: skip by declared length */ }
+            }
+
+            packets++;
+            pos += size;
+        }
+        return packets;
+    }
+
+    /**
+     * Decode a 20-level depth frame (one or more bid/ask side packets).
+     *
+     * Header (12 bytes): int16 length, byte code (41 bid / 51 ask), byte segment,
+     * int32 securityId, uint32 sequence. Body: 20 × (float64 price, uint32 qty, uint32 orders).
+     */
+    public int decodeDepth20(ByteBuffer frame, FeedPacketHandler handler) {
+        ByteBuffer buf = frame.order() == ByteOrder.LITTLE_ENDIAN
+                ? frame
+                : frame.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+
+        int pos = buf.position();
+        int end = buf.limit();
+        int packets = 0;
+        int fixedSize = DEPTH20_HEADER_SIZE + DEPTH20_LEVELS * DEPTH20_LEVEL_SIZE;
+
+        while (end - pos >= DEPTH20_HEADER_SIZE) {
+            int declared = buf.getShort(pos) & 0xFFFF;
+            int code = buf.get(pos + 2) & 0xFF;
+            int size = declared >= DEPTH20_HEADER_SIZE ? declared : fixedSize;
+
+            if (pos + size > end) break;
+
+            if (code == DEPTH_BID || code == DEPTH_ASK) {
+                handler.onDepth(depth.wrap(buf, pos, code, (size - DEPTH20_HEADER_SIZE) / DEPTH20_LEVEL_SIZE));
+            } else if (code == DISCONNECT) {
+                handler.onDisconnect(buf.getShort(pos + DEPTH20_HEADER_SIZE) & 0xFFFF);
+            }
+
+            packets++;
+            pos += size;
+        }
+        return packets;
+    }
+
+    /**
+     * Fixed packet sizes per response code; the header length is used only for unknown codes.
+     */
+    static int packetSize(int code, int declared) {
+        return switch (code) {
+            case INDEX, TICKER  -> 16;
+            case QUOTE          -> 50;
+            case OI             -> 12;
+            case PREV_CLOSE     -> 16;
+            case MARKET_STATUS  -> 8;
+            case FULL           -> 162;
+            case DISCONNECT     -> 10;
+            default             -> declared;
+        };
+    }
+
+    // ========================================================================
+    //                          FLYWEIGHT VIEWS
+    // ========================================================================
+
+    /**
+     * Common 8-byte header accessors.
+     */
+    public abstract static class FeedPacket {
+        ByteBuffer buf;
+        int offset;
+        int code;
+
+        public int responseCode() { return code; }
+        public int segment()      { return buf.get(offset + 3) & 0xFF; }
+        public int securityId()   { return buf.getInt(offset + 4); }
+
+        /** Last traded price — present in ticker, quote and full packets. */
+        public double ltp()       { return buf.getFloat(offset + 8); }
+
+        /** Exchange time of the last trade in epoch millis. */
+        public abstract long lastTradeTimeMs();
+
+        /** Raw access for journaling/diagnostics. */
+        public ByteBuffer buffer() { return buf; }
+        public int offset()        { return offset; }
+    }
+
+    /** Ticker / index packet: LTP + LTT (16 bytes). */
+    public static final class TickerPacket extends FeedPacket {
+        TickerPacket wrap(ByteBuffer b, int off, int c) { buf = b; offset = off; code = c; return this; }
+
+        @Override
+        public long lastTradeTimeMs() { return (buf.getInt(offset + 12) & 0xFFFF_FFFFL) * 1000L; }
+    }
+
+    /** Quote packet (50 bytes). */
+    public static final class QuotePacket extends FeedPacket {
+        QuotePacket wrap(ByteBuffer b, int off, int c) { buf = b; offset = off; code = c; return this; }
+
+        public int lastTradeQty()     { return buf.getShort(offset + 12) & 0xFFFF; }
+        @Override
+        public long lastTradeTimeMs() { return (buf.getInt(offset + 14) & 0xFFFF_FFFFL) * 1000L; }
+        public double avgTradePrice() { return buf.getFloat(offset + 18); }
+        public long volume()          { return buf.getInt(offset + 22) & 0xFFFF_FFFFL; }
+        public long totalSellQty()    { return buf.getInt(offset + 26) & 0xFFFF_FFFFL; }
+        public long totalBuyQty()     { return buf.getInt(offset + 30) & 0xFFFF_FFFFL; }
+        public double open()          { return buf.getFloat(offset + 34); }
+        public double close()         { return buf.getFloat(offset + 38); }
+        public double high()          { return buf.getFloat(offset + 42); }
+        public double low()           { return buf.getFloat(offset + 46); }
+    }
+
+    /** Open interest packet (12 bytes). */
+    public static final class OiPacket extends FeedPacket {
+        OiPacket wrap(ByteBuffer b, int off, int c) { buf = b; offset = off; code = c; return this; }
+
+        public long openInterest() { return buf.getInt(offset + 8) & 0xFFFF_FFFFL; }
+
+        @Override
+        public double ltp() { return Double.NaN; }
+
+        @Override
+        public long lastTradeTimeMs() { return 0L; }
+    }
+
+    /** Previous close packet (16 bytes). */
+    public static final class PrevClosePacket extends FeedPacket {
+        PrevClosePacket wrap(ByteBuffer b, int off, int c) { buf = b; offset = off; code = c; return this; }
+
+        public double prevClose() { return buf.getFloat(offset + 8); }
+        public long prevOi()      { return buf.getInt(offset + 12) & 0xFFFF_FFFFL; }
+
+        @Override
+        public double ltp() { return Double.NaN; }
+
+        @Override
+        public long lastTradeTimeMs() { return 0L; }
+    }
+
+    /** Full packet: quote + OI + 5-level depth (162 bytes). */
+    public static final class FullPacket extends FeedPacket {
+        FullPacket wrap(ByteBuffer b, int off, int c) { buf = b; offset = off; code = c; return this; }
+
+        public int lastTradeQty()     { return buf.getShort(offset + 12) & 0xFFFF; }
+        @Override
+        public long lastTradeTimeMs() { return (buf.getInt(offset + 14) & 0xFFFF_FFFFL) * 1000L; }
+        public double avgTradePrice() { return buf.getFloat(offset + 18); }
+        public long volume()          { return buf.getInt(offset + 22) & 0xFFFF_FFFFL; }
+        public long totalSellQty()    { return buf.getInt(offset + 26) & 0xFFFF_FFFFL; }
+        public long totalBuyQty()     { return buf.getInt(offset + 30) & 0xFFFF_FFFFL; }
+        public long openInterest()    { return buf.getInt(offset + 34) & 0xFFFF_FFFFL; }
+        public long highestOi()       { return buf.getInt(offset + 38) & 0xFFFF_FFFFL; }
+        public long lowestOi()        { return buf.getInt(offset + 42) & 0xFFFF_FFFFL; }
+        public double open()          { return buf.getFloat(offset + 46); }
+        public double close()         { return buf.getFloat(offset + 50); }
+        public double high()          { return buf.getFloat(offset + 54); }
+        public double low()           { return buf.getFloat(offset + 58); }
+
+        public int depthLevels()      { return FULL_DEPTH_LEVELS; }
+
+        // depth level i (0..4): bidQty, askQty, bidOrders, askOrders, bidPrice, askPrice
+        private int level(int i)      { return offset + 62 + i * 20; }
+        public long bidQty(int i)     { return buf.getInt(level(i)) & 0xFFFF_FFFFL; }
+        public long askQty(int i)     { return buf.getInt(level(i) + 4) & 0xFFFF_FFFFL; }
+        public int bidOrders(int i)   { return buf.getShort(level(i) + 8) & 0xFFFF; }
+        public int askOrders(int i)   { return buf.getShort(level(i) + 10) & 0xFFFF; }
+        public double bidPrice(int i) { return buf.getFloat(level(i) + 12); }
+        public double askPrice(int i) { return buf.getFloat(level(i) + 16); }
+    }
+
+    /** One side (bid or ask) of a 20-level depth update. */
+    public static final class DepthPacket {
+        private ByteBuffer buf;
+        private int offset;
+        private int code;
+        private int levels;
+
+        DepthPacket wrap(ByteBuffer b, int off, int c, int lv) {
+            buf = b; offset = off; code = c; levels = Math.min(lv, DEPTH20_LEVELS);
+            return this;
+        }
+
+        public boolean isBid()         { return code == DEPTH_BID; }
+        public int segment()           { return buf.get(offset + 3) & 0xFF; }
+        public int securityId()        { return buf.getInt(offset + 4); }
+        public long sequence()         { return buf.getInt(offset + 8) & 0xFFFF_FFFFL; }
+        public int levels()            { return levels; }
+
+        private int level(int i)       { return offset + DEPTH20_HEADER_SIZE + i * DEPTH20_LEVEL_SIZE; }
+        public double price(int i)     { return buf.getDouble(level(i)); }
+        public long qty(int i)         { return buf.getInt(level(i) + 8) & 0xFFFF_FFFFL; }
+        public long orders(int i)      { return buf.getInt(level(i) + 12) & 0xFFFF_FFFFL; }
+    }
+}
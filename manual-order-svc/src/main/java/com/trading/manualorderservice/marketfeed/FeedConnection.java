@@ -0,0 +1,295 @@
+package com.trading.manualorderservice.marketfeed;
+
+import com.trading.manualorderservice.service.DhanCredentialService;
+import com.trading.manualorderservice.util.SegmentMapper;
+import com.trading.shareddto.entity.BrokerUserDetails;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.*;
+import okio.ByteString;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One Dhan market feed WebSocket — a shard of {@link FeedConnectionPool}.
+ *
+ * Owns the subscription set of its shard and replays only that set on
+ * (re)connect. Reconnects use full-jitter exponential backoff so shards that
+ * drop together do not reconnect in lockstep.
+ */
+@Slf4j
+class FeedConnection {
+
+    private static final String FEED_URL = "wss://api-feed.dhan.co";
+
+    // Dhan feed request codes. Indices only publish ticker packets; everything
+    // else is streamed in FULL mode (LTP + quote + OI + 5-level depth).
+    private static final int SUBSCRIBE_TICKER   = 15;
+    private static final int UNSUBSCRIBE_TICKER = 16;
+    private static final int SUBSCRIBE_FULL     = 21;
+    private static final int UNSUBSCRIBE_FULL   = 22;
+
+    // Dhan accepts at most 100 instruments per subscribe message
+    private static final int MAX_INSTRUMENTS_PER_MESSAGE = 100;
+
+    private static final long BACKOFF_BASE_MS = 500;
+    private static final long BACKOFF_MAX_MS  = 30_000;
+
+    final int shard;
+
+    private final OkHttpClient client;
+    private final MarketFeedProcessor processor;
+    private final TickJournal journal;
+    private final DhanCredentialService credentialService;
+    private final ScheduledExecutorService scheduler;
+
+    /** Internal segment → subscribed security IDs of this shard. */
+    private final Map<String, Set<String>> subscriptions = new ConcurrentHashMap<>();
+
+    /** Set from the listener callbacks — OkHttp may call them before newWebSocket returns. */
+    private volatile WebSocket webSocket;
+    /** Listener of the latest connect attempt; callbacks of older ones are ignored. */
+    private volatile Listener current;
+    private volatile boolean open = false;
+    private volatile boolean running = false;
+    private volatile boolean reconnectPending = false;
+    private int attempt = 0;
+
+    FeedConnection(int shard,
+                   OkHttpClient client,
+                   MarketFeedProcessor processor,
+                   TickJournal journal,
+                   DhanCredentialService credentialService,
+                   ScheduledExecutorService scheduler) {
+        this.shard = shard;
+        this.client = client;
+        this.processor = processor;
+        this.journal = journal;
+        this.credentialService = credentialService;
+        this.scheduler = scheduler;
+    }
+
+    // ------------------------------------------------------------------------
+    // LIFECYCLE
+    // ------------------------------------------------------------------------
+
+    synchronized void start() {
+        if (running) return;
+        running = true;
+        connect();
+    }
+
+    synchronized void stop() {
+        running = false;
+        open = false;
+        WebSocket ws = webSocket;
+        if (ws != null) {
+            log.info("🛑 Closing feed shard {}", shard);
+            ws.close(1000, "Shutdown");
+        }
+    }
+
+    boolean isConnected() {
+        return open;
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    private void connect() {
+        if (!running) return;
+
+        try {
+            BrokerUserDetails creds = credentialService.getSystemUser();
+
+            // Build URL with query params as per docs
+            String url = FEED_URL +
+                    "?version=2" +
+                    "&token=" + URLEncoder.encode(creds.getAccessToken(), StandardCharsets.UTF_8) +
+                    "&clientId=" + URLEncoder.encode(creds.getClientId(), StandardCharsets.UTF_8) +
+                    "&authType=2";
+
+            Request request = new Request.Builder()
+                    .url(url)
+                    .build();
+
+            Listener listener = new Listener();
+            current = listener;
+            client.newWebSocket(request, listener);
+
+        } catch (Exception e) {
+            log.error("❌ Error creating feed shard {} WebSocket: {}", shard, e.getMessage(), e);
+            scheduleReconnect();
+        }
+    }
+
+    private final class Listener extends WebSocketListener {
+
+        private boolean superseded() {
+            return this != current;
+        }
+
+        @Override
+        public void onOpen(WebSocket ws, Response resp) {
+            synchronized (FeedConnection.this) {
+                if (superseded() || !running) {
+                    ws.close(1000, "Superseded");
+                    return;
+                }
+                webSocket = ws;
+                attempt = 0;
+                open = true;
+            }
+            log.info("✅ Feed shard {} connected. HTTP {}", shard, resp.code());
+
+            // Replay this shard's subscriptions only
+            int count = 0;
+            for (var e : subscriptions.entrySet()) {
+                sendRequest(ws, true, e.getKey(), e.getValue());
+                count += e.getValue().size();
+            }
+            log.info("📡 Shard {} subscribed {} instruments", shard, count);
+        }
+
+        @Override
+        public void onMessage(WebSocket ws, ByteString bytes) {
+            long receivedAt = TickJournal.epochNanos();
+            ByteBuffer frame = bytes.asByteBuffer();
+            journal.offer(frame, receivedAt);
+            try {
+                processor.processFrame(frame, System.nanoTime());
+            } catch (Exception e) {
+                log.error("❌ Failed to parse WS packet on shard {}: {}", shard, e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public void onMessage(WebSocket ws, String text) {
+            // Dhan docs say responses are binary; this is just for safety/logging
+            log.debug("⚠ Unexpected text frame from Dhan feed shard {}: {}", shard, text);
+        }
+
+        @Override
+        public void onFailure(WebSocket ws, Throwable t, Response resp) {
+            if (superseded()) return;
+            webSocket = ws;
+            open = false;
+            if (!running) {
+                log.info("Feed shard {} failure after shutdown: {}", shard, t.getMessage());
+                return;
+            }
+            String code = (resp != null) ? String.valueOf(resp.code()) : "no HTTP code";
+            log.error("❌ Feed shard {} failure: {} (HTTP {})", shard, t.getMessage(), code);
+            scheduleReconnect();
+        }
+
+        @Override
+        public void onClosing(WebSocket ws, int code, String reason) {
+            if (superseded()) return;
+            log.warn("⚠ Feed shard {} closing: code={} reason={}", shard, code, reason);
+            open = false;
+            ws.close(code, reason);
+            if (running) {
+                scheduleReconnect();
+            }
+        }
+    }
+
+    /**
+     * Full-jitter exponential backoff: uniform in [0, min(max, base · 2^attempt)].
+     */
+    private synchronized void scheduleReconnect() {
+        if (!running || reconnectPending) return;
+
+        long cap = Math.min(BACKOFF_MAX_MS, BACKOFF_BASE_MS << Math.min(attempt, 16));
+        long delay = ThreadLocalRandom.current().nextLong(cap + 1);
+        attempt++;
+        reconnectPending = true;
+
+        log.info("🔄 Reconnecting feed shard {} in {} ms (attempt {})", shard, delay, attempt);
+        scheduler.schedule(() -> {
+            synchronized (this) {
+                reconnectPending = false;
+            }
+            connect();
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    // ------------------------------------------------------------------------
+    // SUBSCRIPTIONS
+    // ------------------------------------------------------------------------
+
+    void subscribe(String segment, Collection<String> securityIds) {
+        Set<String> known = subscriptions.computeIfAbsent(segment, k -> ConcurrentHashMap.newKeySet());
+
+        List<String> added = new ArrayList<>();
+        for (String id : securityIds) {
+            if (known.add(id)) added.add(id);
+        }
+
+        WebSocket ws = webSocket;
+        if (!added.isEmpty() && open && ws != null) {
+            sendRequest(ws, true, segment, added);
+        }
+    }
+
+    void unsubscribe(String segment, Collection<String> securityIds) {
+        Set<String> known = subscriptions.get(segment);
+        if (known == null) return;
+
+        List<String> removed = new ArrayList<>();
+        for (String id : securityIds) {
+            if (known.remove(id)) removed.add(id);
+        }
+
+        WebSocket ws = webSocket;
+        if (!removed.isEmpty() && open && ws != null) {
+            sendRequest(ws, false, segment, removed);
+        }
+    }
+
+    int size() {
+        int n = 0;
+        for (Set<String> ids : subscriptions.values()) n += ids.size();
+        return n;
+    }
+
+    /**
+     * Send a subscribe/unsubscribe request, split into Dhan's 100-instrument limit.
+     */
+    private void sendRequest(WebSocket ws, boolean subscribe, String segment, Collection<String> ids) {
+        String apiSeg = SegmentMapper.toDhanApi(segment);
+        boolean index = "IDX_I".equals(apiSeg);
+        int requestCode = subscribe
+                ? (index ? SUBSCRIBE_TICKER : SUBSCRIBE_FULL)
+                : (index ? UNSUBSCRIBE_TICKER : UNSUBSCRIBE_FULL);
+        List<String> all = new ArrayList<>(ids);
+
+        for (int from = 0; from < all.size(); from += MAX_INSTRUMENTS_PER_MESSAGE) {
+            List<String> chunk = all.subList(from, Math.min(from + MAX_INSTRUMENTS_PER_MESSAGE, all.size()));
+
+            JSONArray list = new JSONArray();
+            for (String id : chunk) {
+                list.put(new JSONObject()
+                        .put("ExchangeSegment", apiSeg)
+                        .put("SecurityId", id));
+            }
+
+            JSONObject req = new JSONObject()
+                    .put("RequestCode", requestCode)
+                    .put("InstrumentCount", chunk.size())
+                    .put("InstrumentList", list);
+
+            ws.send(req.toString());
+        }
+    }
+}
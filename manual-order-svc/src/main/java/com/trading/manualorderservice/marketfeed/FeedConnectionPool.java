@@ -0,0 +1,237 @@
+package com.trading.manualorderservice.marketfeed;
+
+import com.trading.manualorderservice.service.DhanCredentialService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shards feed subscriptions across several Dhan WebSocket connections.
+ *
+ *  - Shards are opened on demand: one per {@code instruments-per-connection}
+ *    subscribed instruments, up to {@code max-connections} (Dhan allows 5
+ *    connections per user, 5000 instruments per connection).
+ *  - New instruments go to the least-loaded open shard; when another shard
+ *    is opened, instruments are moved over from the fullest shards until the
+ *    load is even.
+ *  - Each shard reconnects and resubscribes on its own, so a drop only
+ *    affects that shard's instruments.
+ */
+@Slf4j
+@Component
+public class FeedConnectionPool {
+
+    /** Broker limit per connection. */
+    private static final int HARD_LIMIT_PER_CONNECTION = 5000;
+
+    // Dhan index security IDs (per doc)
+    private static final String NIFTY50_ID   = "13";
+    private static final String BANKNIFTY_ID = "25";
+
+    private final FeedConnection[] shards;
+    private final int targetPerConnection;
+    private final boolean replayMode;
+
+    /** Instrument → shard index. Guarded by this. */
+    private final Map<MarketFeedManager.Instrument, Integer> assignment = new HashMap<>();
+    private int activeShards = 1;
+
+    /** Always-on instruments; never unsubscribed by a caller's unsubscribe. */
+    private final Set<MarketFeedManager.Instrument> pinned = new HashSet<>();
+
+    private final OkHttpClient client = new OkHttpClient.Builder()
+            .pingInterval(10, TimeUnit.SECONDS)
+            .connectTimeout(10, TimeUnit.SECONDS)
+            .readTimeout(0, TimeUnit.MILLISECONDS) // keep streaming
+            .build();
+
+    private final ScheduledExecutorService reconnectScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "feed-reconnect");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public FeedConnectionPool(MarketFeedProcessor processor,
+                              DhanCredentialService credentialService,
+                              TickJournal journal,
+                              @Value("${market.feed.max-connections:5}") int maxConnections,
+                              @Value("${market.feed.instruments-per-connection:1000}") int targetPerConnection,
+                              @Value("${market.replay.enabled:false}") boolean replayMode) {
+        this.targetPerConnection = Math.min(Math.max(targetPerConnection, 1), HARD_LIMIT_PER_CONNECTION);
+        this.replayMode = replayMode;
+
+        this.shards = new FeedConnection[Math.max(maxConnections, 1)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new FeedConnection(i, client, processor, journal, credentialService, reconnectScheduler);
+        }
+
+        // Indices are always streamed (spot for option strike selection)
+        pinned.add(new MarketFeedManager.Instrument("NSE_IDX", NIFTY50_ID));
+        pinned.add(new MarketFeedManager.Instrument("NSE_IDX", BANKNIFTY_ID));
+        subscribe("NSE_IDX", List.of(NIFTY50_ID, BANKNIFTY_ID));
+
+        if (replayMode) {
+            // Ticks come from TickReplayEngine; subscriptions are only recorded
+            log.info("⚪ Replay mode — Dhan feed WebSockets not connected");
+            return;
+        }
+        shards[0].start();
+    }
+
+    // ------------------------------------------------------------------------
+    // SUBSCRIPTION MANAGEMENT
+    // ------------------------------------------------------------------------
+
+    /**
+     * Subscribe instruments of one internal segment (NSE_EQ / NSE_FNO / NSE_IDX).
+     */
+    public synchronized void subscribe(String segment, Collection<String> securityIds) {
+        List<MarketFeedManager.Instrument> added = new ArrayList<>();
+        for (String id : securityIds) {
+            var i = new MarketFeedManager.Instrument(segment, id);
+            if (!assignment.containsKey(i)) added.add(i);
+        }
+        if (added.isEmpty()) return;
+
+        int needed = Math.min(shards.length,
+                Math.max(1, (assignment.size() + added.size() + targetPerConnection - 1) / targetPerConnection));
+        if (needed > activeShards) {
+            growTo(needed);
+        }
+
+        Map<Integer, List<MarketFeedManager.Instrument>> byShard = new HashMap<>();
+        int[] load = loads();
+        for (var i : added) {
+            int s = leastLoaded(load);
+            if (load[s] >= HARD_LIMIT_PER_CONNECTION) {
+                log.error("❌ Feed pool full ({} × {}), cannot stream {} {}",
+                        activeShards, HARD_LIMIT_PER_CONNECTION, i.segment(), i.securityId());
+                continue;
+            }
+            load[s]++;
+            assignment.put(i, s);
+            byShard.computeIfAbsent(s, k -> new ArrayList<>()).add(i);
+        }
+
+        byShard.forEach((s, list) -> send(s, true, list));
+    }
+
+    /**
+     * Unsubscribe instruments of one internal segment. Always-on instruments
+     * (the NIFTY / BANKNIFTY spot) stay subscribed.
+     */
+    public synchronized void unsubscribe(String segment, Collection<String> securityIds) {
+        Map<Integer, List<MarketFeedManager.Instrument>> byShard = new HashMap<>();
+        for (String id : securityIds) {
+            var i = new MarketFeedManager.Instrument(segment, id);
+            if (pinned.contains(i)) continue;
+            Integer s = assignment.remove(i);
+            if (s != null) byShard.computeIfAbsent(s, k -> new ArrayList<>()).add(i);
+        }
+
+        byShard.forEach((s, list) -> send(s, false, list));
+    }
+
+    /** True if any shard is connected. */
+    public boolean isConnected() {
+        for (FeedConnection c : shards) {
+            if (c.isConnected()) return true;
+        }
+        return false;
+    }
+
+    /** True if the shard carrying this instrument is connected. */
+    public boolean isConnected(String segment, String securityId) {
+        Integer s;
+        synchronized (this) {
+            s = assignment.get(new MarketFeedManager.Instrument(segment, securityId));
+        }
+        return s != null && shards[s].isConnected();
+    }
+
+    /** Instruments per shard, -1 for shards not opened. */
+    public synchronized int[] shardLoads() {
+        int[] out = loads();
+        for (int i = activeShards; i < out.length; i++) out[i] = -1;
+        return out;
+    }
+
+    // ------------------------------------------------------------------------
+    // BALANCING
+    // ------------------------------------------------------------------------
+
+    /**
+     * Open shards up to {@code count} and move instruments from the fullest
+     * shards onto them so every open shard carries about the same load.
+     */
+    private void growTo(int count) {
+        int from = activeShards;
+        activeShards = count;
+        for (int i = from; i < count; i++) {
+            if (!replayMode) shards[i].start();
+        }
+
+        int[] load = loads();
+        int target = (assignment.size() + count - 1) / count;
+
+        Map<Integer, List<MarketFeedManager.Instrument>> moveOut = new HashMap<>();
+        Map<Integer, List<MarketFeedManager.Instrument>> moveIn = new HashMap<>();
+
+        for (var e : assignment.entrySet()) {
+            int s = e.getValue();
+            if (load[s] <= target) continue;
+
+            int dest = leastLoaded(load);
+            if (dest == s || load[dest] >= target) continue;
+
+            load[s]--;
+            load[dest]++;
+            e.setValue(dest);
+            moveOut.computeIfAbsent(s, k -> new ArrayList<>()).add(e.getKey());
+            moveIn.computeIfAbsent(dest, k -> new ArrayList<>()).add(e.getKey());
+        }
+
+        moveOut.forEach((s, list) -> send(s, false, list));
+        moveIn.forEach((s, list) -> send(s, true, list));
+
+        log.info("📡 [FEED] pool grown to {} shards, loads={}", count, Arrays.toString(loads()));
+    }
+
+    private int[] loads() {
+        int[] load = new int[shards.length];
+        for (int s : assignment.values()) load[s]++;
+        return load;
+    }
+
+    private int leastLoaded(int[] load) {
+        int best = 0;
+        for (int i = 1; i < activeShards; i++) {
+            if (load[i] < load[best]) best = i;
+        }
+        return best;
+    }
+
+    private void send(int shard, boolean subscribe, List<MarketFeedManager.Instrument> instruments) {
+        Map<String, List<String>> bySegment = new HashMap<>();
+        for (var i : instruments) {
+            bySegment.computeIfAbsent(i.segment(), k -> new ArrayList<>()).add(i.securityId());
+        }
+        bySegment.forEach((seg, ids) -> {
+            if (subscribe) shards[shard].subscribe(seg, ids);
+            else shards[shard].unsubscribe(seg, ids);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (FeedConnection c : shards) c.stop();
+        reconnectScheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,67 @@
+package com.trading.manualorderservice.marketfeed;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-segment HdrHistogram recorders for the live feed path:
+ *
+ *  - exchange → receive : last trade time (exchange) to frame read, millis
+ *  - receive → publish  : frame read to LTP store + tick ring publish, micros
+ *
+ * plus round-trips of the REST index backup poll (millis) for comparison.
+ * Recording is wait-free; {@link FeedMetrics} swaps interval histograms out.
+ */
+@Component
+public class FeedLatencyRecorder {
+
+    /** Feed segment codes are 0..8 (see SegmentMapper.toFeedCode). */
+    static final int SEGMENTS = 9;
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Recorder[] exchangeToReceiveMs = new Recorder[SEGMENTS];
+    private final Recorder[] receiveToPublishUs = new Recorder[SEGMENTS];
+    private final Recorder restIndexPollMs = new Recorder(SIGNIFICANT_DIGITS);
+
+    public FeedLatencyRecorder() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            exchangeToReceiveMs[i] = new Recorder(SIGNIFICANT_DIGITS);
+            receiveToPublishUs[i] = new Recorder(SIGNIFICANT_DIGITS);
+        }
+    }
+
+    /**
+     * Called by the feed thread once a tick is in the store and on the ring.
+     */
+    public void recordTick(int segment, long exchangeTimeMs, long receiveEpochMs,
+                           long receiveNanos, long publishedNanos) {
+        if (segment < 0 || segment >= SEGMENTS) return;
+
+        if (exchangeTimeMs > 0) {
+            exchangeToReceiveMs[segment].recordValue(Math.max(0, receiveEpochMs - exchangeTimeMs));
+        }
+        receiveToPublishUs[segment].recordValue(Math.max(0, (publishedNanos - receiveNanos) / 1_000));
+    }
+
+    public void recordRestIndexPoll(long durationMs) {
+        restIndexPollMs.recordValue(Math.max(0, durationMs));
+    }
+
+    // ------------------------------------------------------------------------
+    // INTERVAL SWAP (metrics thread)
+    // ------------------------------------------------------------------------
+
+    Histogram intervalExchangeToReceive(int segment) {
+        return exchangeToReceiveMs[segment].getIntervalHistogram();
+    }
+
+    Histogram intervalReceiveToPublish(int segment) {
+        return receiveToPublishUs[segment].getIntervalHistogram();
+    }
+
+    Histogram intervalRestIndexPoll() {
+        return restIndexPollMs.getIntervalHistogram();
+    }
+}
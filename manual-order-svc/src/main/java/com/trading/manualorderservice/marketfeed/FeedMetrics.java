@@ -0,0 +1,248 @@
+package com.trading.manualorderservice.marketfeed;
+
+import com.trading.manualorderservice.market.LtpStore;
+import com.trading.manualorderservice.market.MarketClock;
+import com.trading.manualorderservice.util.SegmentMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Feed latency + staleness, exported two ways:
+ *
+ *  - Micrometer gauges (last 10s interval percentiles, per-instrument staleness)
+ *  - actuator endpoint {@code /actuator/feedlatency} (interval + since-start percentiles)
+ *
+ * An instrument that is subscribed but has not updated for {@link #STALE_AFTER_MS}
+ * during market hours is logged once when it goes stale, and counted in
+ * {@code feed.stale.instruments}.
+ */
+@Slf4j
+@Component
+@Endpoint(id = "feedlatency")
+public class FeedMetrics {
+
+    private static final long STALE_AFTER_MS = 30_000;
+    private static final double[] QUANTILES = {50.0, 90.0, 99.0, 99.9};
+
+    private static final ZoneId IST = ZoneId.of("Asia/Kolkata");
+    private static final LocalTime MARKET_OPEN = LocalTime.of(9, 15);
+    private static final LocalTime MARKET_CLOSE = LocalTime.of(15, 30);
+
+    /** Indices streamed regardless of orders (see FeedConnectionPool). */
+    private static final List<MarketFeedManager.Instrument> ALWAYS_STREAMED = List.of(
+            new MarketFeedManager.Instrument("NSE_IDX", "13"),
+            new MarketFeedManager.Instrument("NSE_IDX", "25"));
+
+    private final FeedLatencyRecorder recorder;
+    private final MarketFeedManager feedManager;
+    private final LtpStore store;
+    private final MarketClock clock;
+
+    private final MultiGauge exchangeToReceiveGauge;
+    private final MultiGauge receiveToPublishGauge;
+    private final MultiGauge restIndexPollGauge;
+    private final MultiGauge stalenessGauge;
+
+    // Guarded by this
+    private final Histogram[] lastExchangeToReceive = new Histogram[FeedLatencyRecorder.SEGMENTS];
+    private final Histogram[] lastReceiveToPublish = new Histogram[FeedLatencyRecorder.SEGMENTS];
+    private final Histogram[] totalExchangeToReceive = new Histogram[FeedLatencyRecorder.SEGMENTS];
+    private final Histogram[] totalReceiveToPublish = new Histogram[FeedLatencyRecorder.SEGMENTS];
+    private Histogram lastRestIndexPoll = new Histogram(3);
+    private final Histogram totalRestIndexPoll = new Histogram(3);
+
+    private final Map<MarketFeedManager.Instrument, Long> stalenessMs = new HashMap<>();
+    private final Set<MarketFeedManager.Instrument> stale = new HashSet<>();
+    private volatile int staleCount;
+
+    private final LtpStore.Snapshot snap = new LtpStore.Snapshot();
+
+    public FeedMetrics(FeedLatencyRecorder recorder,
+                       MarketFeedManager feedManager,
+                       LtpStore store,
+                       MarketClock clock,
+                       MeterRegistry registry) {
+        this.recorder = recorder;
+        this.feedManager = feedManager;
+        this.store = store;
+        this.clock = clock;
+
+        for (int i = 0; i < FeedLatencyRecorder.SEGMENTS; i++) {
+            lastExchangeToReceive[i] = new Histogram(3);
+            lastReceiveToPublish[i] = new Histogram(3);
+            totalExchangeToReceive[i] = new Histogram(3);
+            totalReceiveToPublish[i] = new Histogram(3);
+        }
+
+        this.exchangeToReceiveGauge = MultiGauge.builder("feed.latency.exchange.receive")
+                .description("Exchange last-trade time to frame receive, last interval")
+                .baseUnit("milliseconds")
+                .register(registry);
+        this.receiveToPublishGauge = MultiGauge.builder("feed.latency.receive.publish")
+                .description("Frame receive to LTP store / tick ring publish, last interval")
+                .baseUnit("microseconds")
+                .register(registry);
+        this.restIndexPollGauge = MultiGauge.builder("feed.rest.index.poll")
+                .description("REST index backup poll round-trip, last interval")
+                .baseUnit("milliseconds")
+                .register(registry);
+        this.stalenessGauge = MultiGauge.builder("feed.staleness")
+                .description("Time since the last price update of a streamed instrument")
+                .baseUnit("milliseconds")
+                .register(registry);
+
+        Gauge.builder("feed.stale.instruments", this, m -> m.staleCount)
+                .description("Streamed instruments without an update for " + STALE_AFTER_MS + " ms")
+                .register(registry);
+    }
+
+    // ------------------------------------------------------------------------
+    // INTERVAL ROLL (every 10 s)
+    // ------------------------------------------------------------------------
+
+    @Scheduled(fixedDelay = 10_000)
+    public synchronized void roll() {
+        List<MultiGauge.Row<?>> e2r = new ArrayList<>();
+        List<MultiGauge.Row<?>> r2p = new ArrayList<>();
+
+        for (int seg = 0; seg < FeedLatencyRecorder.SEGMENTS; seg++) {
+            Histogram a = recorder.intervalExchangeToReceive(seg);
+            Histogram b = recorder.intervalReceiveToPublish(seg);
+            lastExchangeToReceive[seg] = a;
+            lastReceiveToPublish[seg] = b;
+            totalExchangeToReceive[seg].add(a);
+            totalReceiveToPublish[seg].add(b);
+
+            if (totalReceiveToPublish[seg].getTotalCount() == 0) continue;
+            String segment = SegmentMapper.fromFeedCode(seg);
+            addRows(e2r, a, Tags.of("segment", segment));
+            addRows(r2p, b, Tags.of("segment", segment));
+        }
+
+        lastRestIndexPoll = recorder.intervalRestIndexPoll();
+        totalRestIndexPoll.add(lastRestIndexPoll);
+        List<MultiGauge.Row<?>> rest = new ArrayList<>();
+        addRows(rest, lastRestIndexPoll, Tags.empty());
+
+        exchangeToReceiveGauge.register(e2r, true);
+        receiveToPublishGauge.register(r2p, true);
+        restIndexPollGauge.register(rest, true);
+
+        updateStaleness();
+    }
+
+    private static void addRows(List<MultiGauge.Row<?>> rows, Histogram h, Tags tags) {
+        for (double q : QUANTILES) {
+            long v = h.getValueAtPercentile(q);
+            rows.add(MultiGauge.Row.of(tags.and("quantile", String.valueOf(q / 100.0)), v));
+        }
+        rows.add(MultiGauge.Row.of(tags.and("quantile", "max"), h.getMaxValue()));
+    }
+
+    private void updateStaleness() {
+        long now = clock.millis();
+        boolean marketHours = isMarketHours();
+
+        List<MarketFeedManager.Instrument> tracked = new ArrayList<>(ALWAYS_STREAMED);
+        tracked.addAll(feedManager.getStreamed());
+
+        stalenessMs.clear();
+        List<MultiGauge.Row<?>> rows = new ArrayList<>(tracked.size());
+        int staleNow = 0;
+
+        for (MarketFeedManager.Instrument i : tracked) {
+            int seg = SegmentMapper.toFeedCode(i.segment());
+            int id;
+            try {
+                id = Integer.parseInt(i.securityId());
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            if (seg < 0) continue;
+
+            long age = store.read(seg, id, snap) ? now - snap.receiveTimeMs : -1;
+            stalenessMs.put(i, age);
+            rows.add(MultiGauge.Row.of(Tags.of("segment", i.segment(), "securityId", i.securityId()),
+                    age < 0 ? Double.NaN : age));
+
+            boolean isStale = marketHours && (age < 0 || age > STALE_AFTER_MS);
+            if (isStale) {
+                staleNow++;
+                if (stale.add(i)) {
+                    log.warn("⚠ [FEED] {} {} stopped updating (last update {} ms ago)",
+                            i.segment(), i.securityId(), age < 0 ? "never" : age);
+                }
+            } else if (stale.remove(i)) {
+                log.info("✅ [FEED] {} {} updating again", i.segment(), i.securityId());
+            }
+        }
+
+        stale.retainAll(new HashSet<>(tracked));
+        staleCount = staleNow;
+        stalenessGauge.register(rows, true);
+    }
+
+    private boolean isMarketHours() {
+        if (clock.isVirtual()) return true;
+        LocalTime now = LocalTime.now(IST);
+        return !now.isBefore(MARKET_OPEN) && !now.isAfter(MARKET_CLOSE);
+    }
+
+    // ------------------------------------------------------------------------
+    // ACTUATOR ENDPOINT
+    // ------------------------------------------------------------------------
+
+    @ReadOperation
+    public synchronized Map<String, Object> report() {
+        Map<String, Object> segments = new LinkedHashMap<>();
+        for (int seg = 0; seg < FeedLatencyRecorder.SEGMENTS; seg++) {
+            if (totalReceiveToPublish[seg].getTotalCount() == 0) continue;
+
+            Map<String, Object> s = new LinkedHashMap<>();
+            s.put("exchangeToReceiveMs", Map.of(
+                    "interval", summary(lastExchangeToReceive[seg]),
+                    "sinceStart", summary(totalExchangeToReceive[seg])));
+            s.put("receiveToPublishUs", Map.of(
+                    "interval", summary(lastReceiveToPublish[seg]),
+                    "sinceStart", summary(totalReceiveToPublish[seg])));
+            segments.put(SegmentMapper.fromFeedCode(seg), s);
+        }
+
+        Map<String, Object> staleness = new LinkedHashMap<>();
+        stalenessMs.forEach((i, age) -> staleness.put(i.segment() + ":" + i.securityId(), age));
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("websocket", segments);
+        out.put("restIndexPollMs", Map.of(
+                "interval", summary(lastRestIndexPoll),
+                "sinceStart", summary(totalRestIndexPoll)));
+        out.put("staleAfterMs", STALE_AFTER_MS);
+        out.put("staleInstruments", stale.stream().map(i -> i.segment() + ":" + i.securityId()).toList());
+        out.put("stalenessMs", staleness);
+        return out;
+    }
+
+    private static Map<String, Object> summary(Histogram h) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("count", h.getTotalCount());
+        if (h.getTotalCount() == 0) return m;
+        m.put("p50", h.getValueAtPercentile(50.0));
+        m.put("p90", h.getValueAtPercentile(90.0));
+        m.put("p99", h.getValueAtPercentile(99.0));
+        m.put("p999", h.getValueAtPercentile(99.9));
+        m.put("max", h.getMaxValue());
+        return m;
+    }
+}
@@ -0,0 +1,24 @@
+package com.trading.manualorderservice.marketfeed;
+
+/**
+ * Callback for {@link DhanFeedDecoder}. Views passed in are flyweights owned by
+ * the decoder: valid only for the duration of the call, never retain them.
+ */
+public interface FeedPacketHandler {
+
+    default void onTicker(DhanFeedDecoder.TickerPacket p) {}
+
+    default void onQuote(DhanFeedDecoder.QuotePacket p) {}
+
+    default void onOi(DhanFeedDecoder.OiPacket p) {}
+
+    default void onPrevClose(DhanFeedDecoder.PrevClosePacket p) {}
+
+    default void onFull(DhanFeedDecoder.FullPacket p) {}
+
+    default void onDepth(DhanFeedDecoder.DepthPacket p) {}
+
+    default void onMarketStatus(int segment, int securityId) {}
+
+    default void onDisconnect(int reasonCode) {}
+}
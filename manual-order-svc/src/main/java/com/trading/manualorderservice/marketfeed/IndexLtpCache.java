@@ -1,24 +1,123 @@
 package com.trading.manualorderservice.marketfeed;
 
+import com.trading.manualorderservice.instrument.InstrumentMaster;
+import com.trading.manualorderservice.instrument.InstrumentMasterReloadedEvent;
+import com.trading.manualorderservice.instrument.InstrumentMasterService;
+import com.trading.manualorderservice.market.LtpStore;
+import com.trading.manualorderservice.market.MarketClock;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Name-keyed index view over {@link LtpStore}, stored under the IDX_I segment
+ * and Dhan index security IDs.
+ *
+ * Names resolve through the instrument master's INDEX rows (trading and
+ * custom symbol, case, spaces and underscores ignored), rebuilt on every
+ * master reload. The well-known aliases below are always present, so
+ * NIFTY50 / BANKNIFTY / NIFTY100 resolve before the master is loaded.
+ */
 @Component
 @Slf4j
+@RequiredArgsConstructor
 public class IndexLtpCache {
 
-    private final Map<String, Double> indexPriceMap = new ConcurrentHashMap<>();
+    private static final int IDX_SEGMENT = 0;
+
+    private static final Map<String, Integer> ALIASES = Map.of(
+            "NIFTY", 13,
+            "NIFTY50", 13,
+            "BANKNIFTY", 25,
+            "NIFTYBANK", 25,
+            "NIFTY100", 17
+    );
+
+    private final LtpStore store;
+    private final MarketClock clock;
+    private final InstrumentMasterService masterService;
+
+    private volatile Map<String, Integer> indexIds = ALIASES;
+    private final Set<String> warnedUnknown = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void initialLoad() { load(masterService.master()); }
+
+    @EventListener
+    public void onMasterReloaded(InstrumentMasterReloadedEvent event) { load(event.master()); }
+
+    /** Build the full name map first, then swap it in; lookups never miss mid-reload. */
+    private void load(InstrumentMaster master) {
+        Map<String, Integer> ids = new HashMap<>(ALIASES);
+
+        // NSE first, so a name listed on both exchanges maps to the NSE index
+        for (String exchange : new String[] {"NSE", "BSE"}) {
+            for (int row = 0; row < master.size(); row++) {
+                if (master.kind(row) != InstrumentMaster.INDEX) continue;
+                if (!exchange.equalsIgnoreCase(master.exchange(row))) continue;
+
+                int secId = master.securityId(row);
+                putName(ids, master.tradingSymbol(row), secId);
+                putName(ids, master.customSymbol(row), secId);
+            }
+        }
+
+        indexIds = ids;
+        warnedUnknown.clear();
+        log.info("✅ Index names loaded: {} ({} from instrument master)", ids.size(), ids.size() - ALIASES.size());
+    }
+
+    private static void putName(Map<String, Integer> ids, String name, int secId) {
+        String key = normalize(name);
+        if (key != null && !key.isEmpty()) ids.putIfAbsent(key, secId);
+    }
 
     public void update(String indexName, double ltp) {
-        indexPriceMap.put(indexName, ltp);
+        int secId = resolve(indexName);
+        if (secId < 0) return;
+
+        long now = clock.millis();
+        store.update(IDX_SEGMENT, secId, ltp, now, now);
     }
 
     public Optional<Double> get(String indexName) {
-        return Optional.ofNullable(indexPriceMap.get(indexName));
+        int secId = resolve(indexName);
+        if (secId < 0) return Optional.empty();
+
+        double ltp = store.lastPrice(IDX_SEGMENT, secId);
+        return Double.isNaN(ltp) ? Optional.empty() : Optional.of(ltp);
     }
-}
 
+    /**
+     * Index name → Dhan IDX_I security ID, -1 if it is not an index.
+     */
+    public int securityIdOf(String indexName) {
+        String key = normalize(indexName);
+        if (key == null) return -1;
+
+        Integer id = indexIds.get(key);
+        return id != null ? id : -1;
+    }
+
+    /** As {@link #securityIdOf}, but an unknown name is reported (once per name). */
+    private int resolve(String indexName) {
+        int secId = securityIdOf(indexName);
+        if (secId < 0 && indexName != null && warnedUnknown.add(indexName)) {
+            log.warn("⚠ Unknown index {}, its LTP is not cached", indexName);
+        }
+        return secId;
+    }
+
+    static String normalize(String name) {
+        if (name == null) return null;
+        return name.replace(" ", "").replace("_", "").toUpperCase();
+    }
+}
@@ -5,6 +5,7 @@ import com.trading.manualorderservice.service.DhanCredentialService;
 import com.trading.shareddto.entity.BrokerUserDetails;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
@@ -19,6 +20,7 @@ public class IndexPollingService {
     private final DhanAllApis dhanAllApis;
     private final DhanCredentialService credentialService;
     private final IndexLtpCache indexCache;
+    private final FeedLatencyRecorder latencyRecorder;
 
     // REST fallback values
     private volatile Double restNifty50 = null;
@@ -30,12 +32,17 @@ public class IndexPollingService {
 
     private static final ZoneId IST = ZoneId.of("Asia/Kolkata");
 
+    /** Replay: index spot comes from the journal only. */
+    @Value("${market.replay.enabled:false}")
+    private boolean replayMode;
+
     /**
      * Poll every 20 sec as BACKUP only.
      * WS is the primary source.
      */
     @Scheduled(fixedRate = 20_000)
     public void pollIndexBackup() {
+        if (replayMode) return;
 
         // ================================
         // 1️⃣ Block polling outside market hours
@@ -60,7 +67,9 @@ public class IndexPollingService {
                 return;
             }
 
+            long started = System.nanoTime();
             var all = dhanAllApis.fetchAllIndexLtp(creds, creds.getUserId());
+            latencyRecorder.recordRestIndexPoll((System.nanoTime() - started) / 1_000_000);
 
             restNifty50   = all.get("NIFTY50");
             restBankNifty = all.get("BANKNIFTY");
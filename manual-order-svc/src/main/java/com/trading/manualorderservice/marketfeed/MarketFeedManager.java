@@ -0,0 +1,138 @@
+package com.trading.manualorderservice.marketfeed;
+
+import com.trading.manualorderservice.entity.OrderEntity;
+import com.trading.manualorderservice.repo.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the WebSocket subscription set in line with what the platform
+ * actually needs live prices for:
+ *
+ *   - every instrument of the active order set (OrderRepository.findOrdersForLtpRefresh)
+ *   - every instrument with an explicit watch request
+ *
+ * Instruments are subscribed as positions open and unsubscribed once they
+ * close and nobody watches them, so trailing SL / OCO run on streaming ticks
+ * instead of the 20s REST batch.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MarketFeedManager {
+
+    private final FeedConnectionPool feedPool;
+    private final OrderRepository orderRepository;
+
+    public record Instrument(String segment, String securityId) {}
+
+    /** Instruments required by open orders (refreshed from DB). */
+    private Set<Instrument> orderDriven = Set.of();
+
+    /** Explicit watch requests → reference count. */
+    private final Map<Instrument, Integer> watched = new ConcurrentHashMap<>();
+
+    /** Instruments this manager has subscribed on the socket. */
+    private final Set<Instrument> streamed = ConcurrentHashMap.newKeySet();
+
+    // ------------------------------------------------------------------------
+    // ORDER-DRIVEN SUBSCRIPTIONS
+    // ------------------------------------------------------------------------
+
+    @Scheduled(fixedDelay = 3000)
+    public void syncWithActiveOrders() {
+        Set<Instrument> fromOrders = new HashSet<>();
+
+        for (OrderEntity o : orderRepository.findOrdersForLtpRefresh()) {
+            if (o.getExchangeSegment() == null || o.getSecurityId() == null) continue;
+            fromOrders.add(new Instrument(o.getExchangeSegment(), o.getSecurityId()));
+        }
+
+        synchronized (this) {
+            orderDriven = fromOrders;
+            reconcile();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // EXPLICIT WATCH REQUESTS
+    // ------------------------------------------------------------------------
+
+    public synchronized void watch(String segment, String securityId) {
+        watched.merge(new Instrument(segment, securityId), 1, Integer::sum);
+        reconcile();
+    }
+
+    public synchronized void unwatch(String segment, String securityId) {
+        watched.computeIfPresent(new Instrument(segment, securityId),
+                (k, n) -> n > 1 ? n - 1 : null);
+        reconcile();
+    }
+
+    /** Watch a batch of instruments of one segment with a single resubscribe. */
+    public synchronized void watchAll(String segment, Collection<String> securityIds) {
+        for (String id : securityIds) {
+            watched.merge(new Instrument(segment, id), 1, Integer::sum);
+        }
+        reconcile();
+    }
+
+    public synchronized void unwatchAll(String segment, Collection<String> securityIds) {
+        for (String id : securityIds) {
+            watched.computeIfPresent(new Instrument(segment, id), (k, n) -> n > 1 ? n - 1 : null);
+        }
+        reconcile();
+    }
+
+    public boolean isStreaming(String segment, String securityId) {
+        return streamed.contains(new Instrument(segment, securityId))
+                && feedPool.isConnected(segment, securityId);
+    }
+
+    public Set<Instrument> getStreamed() {
+        return Collections.unmodifiableSet(streamed);
+    }
+
+    // ------------------------------------------------------------------------
+    // DIFF → SUBSCRIBE / UNSUBSCRIBE
+    // ------------------------------------------------------------------------
+
+    private void reconcile() {
+        Set<Instrument> desired = new HashSet<>(orderDriven);
+        desired.addAll(watched.keySet());
+
+        Map<String, List<String>> toAdd = new HashMap<>();
+        Map<String, List<String>> toRemove = new HashMap<>();
+
+        for (Instrument i : desired) {
+            if (!streamed.contains(i)) {
+                toAdd.computeIfAbsent(i.segment(), k -> new ArrayList<>()).add(i.securityId());
+            }
+        }
+        for (Instrument i : streamed) {
+            if (!desired.contains(i)) {
+                toRemove.computeIfAbsent(i.segment(), k -> new ArrayList<>()).add(i.securityId());
+            }
+        }
+
+        if (toAdd.isEmpty() && toRemove.isEmpty()) return;
+
+        toAdd.forEach(feedPool::subscribe);
+        toRemove.forEach(feedPool::unsubscribe);
+
+        streamed.retainAll(desired);
+        streamed.addAll(desired);
+
+        log.info("📡 [FEED] subscriptions updated → +{} -{} (total {})",
+                count(toAdd), count(toRemove), streamed.size());
+    }
+
+    private int count(Map<String, List<String>> m) {
+        return m.values().stream().mapToInt(List::size).sum();
+    }
+}
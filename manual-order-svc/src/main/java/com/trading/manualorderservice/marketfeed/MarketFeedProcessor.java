@@ -0,0 +1,123 @@
+package com.trading.manualorderservice.marketfeed;
+
+import com.trading.manualorderservice.market.LtpCacheService;
+import com.trading.manualorderservice.market.MarketClock;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Entry point of the live pipeline for decoded feed packets:
+ * LTP store first, then the tick ring for push-based consumers (skipped when
+ * the ring is full — the price is already in the store).
+ *
+ * Frames from all feed shards (or the replay thread) are decoded one at a
+ * time under this processor's lock, which keeps the tick ring single-producer.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MarketFeedProcessor implements FeedPacketHandler {
+
+    private final LtpCacheService ltpCacheService;
+    private final TickDispatcher dispatcher;
+    private final FeedLatencyRecorder latency;
+    private final MarketClock clock;
+
+    private final DhanFeedDecoder decoder = new DhanFeedDecoder();
+
+    /** System.nanoTime() / epoch millis at which the frame being decoded was read. */
+    private long frameNanos;
+    private long frameEpochMs;
+
+    /**
+     * Decode one raw feed frame into the LTP store and the tick ring.
+     */
+    public synchronized void processFrame(ByteBuffer frame, long receiveNanos) {
+        this.frameNanos = receiveNanos;
+        this.frameEpochMs = clock.millis();
+        decoder.decode(frame, this);
+    }
+
+    @Override
+    public void onTicker(DhanFeedDecoder.TickerPacket p) {
+        ltpCacheService.update(p.segment(), p.securityId(), p.ltp(), p.lastTradeTimeMs());
+
+        long seq = dispatcher.claim();
+        if (seq < 0) return;
+        header(dispatcher.slot(seq), p);
+        dispatcher.publish(seq);
+        recordLatency(p);
+    }
+
+    @Override
+    public void onQuote(DhanFeedDecoder.QuotePacket p) {
+        ltpCacheService.update(p.segment(), p.securityId(), p.ltp(), p.lastTradeTimeMs());
+
+        long seq = dispatcher.claim();
+        if (seq < 0) return;
+        TickEvent e = header(dispatcher.slot(seq), p);
+        e.lastTradeQty = p.lastTradeQty();
+        e.avgTradePrice = p.avgTradePrice();
+        e.volume = p.volume();
+        e.open = p.open();
+        e.high = p.high();
+        e.low = p.low();
+        e.close = p.close();
+        dispatcher.publish(seq);
+        recordLatency(p);
+    }
+
+    @Override
+    public void onFull(DhanFeedDecoder.FullPacket p) {
+        ltpCacheService.update(p.segment(), p.securityId(), p.ltp(), p.lastTradeTimeMs());
+
+        long seq = dispatcher.claim();
+        if (seq < 0) return;
+        TickEvent e = header(dispatcher.slot(seq), p);
+        e.lastTradeQty = p.lastTradeQty();
+        e.avgTradePrice = p.avgTradePrice();
+        e.volume = p.volume();
+        e.openInterest = p.openInterest();
+        e.open = p.open();
+        e.high = p.high();
+        e.low = p.low();
+        e.close = p.close();
+        e.bidPrice = p.bidPrice(0);
+        e.bidQty = p.bidQty(0);
+        e.askPrice = p.askPrice(0);
+        e.askQty = p.askQty(0);
+        dispatcher.publish(seq);
+        recordLatency(p);
+    }
+
+    @Override
+    public void onOi(DhanFeedDecoder.OiPacket p) {
+        long seq = dispatcher.claim();
+        if (seq < 0) return;
+        TickEvent e = header(dispatcher.slot(seq), p);
+        e.openInterest = p.openInterest();
+        dispatcher.publish(seq);
+    }
+
+    @Override
+    public void onDisconnect(int reasonCode) {
+        log.warn("⚠ Dhan feed sent disconnect packet, reason={}", reasonCode);
+    }
+
+    private TickEvent header(TickEvent e, DhanFeedDecoder.FeedPacket p) {
+        e.packetType = p.responseCode();
+        e.segment = p.segment();
+        e.securityId = p.securityId();
+        e.ltp = p.ltp();
+        e.exchangeTimeMs = p.lastTradeTimeMs();
+        e.receiveNanos = frameNanos;
+        return e;
+    }
+
+    private void recordLatency(DhanFeedDecoder.FeedPacket p) {
+        latency.recordTick(p.segment(), p.lastTradeTimeMs(), frameEpochMs, frameNanos, System.nanoTime());
+    }
+}
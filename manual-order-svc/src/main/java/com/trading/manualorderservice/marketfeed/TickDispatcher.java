@@ -0,0 +1,175 @@
+package com.trading.manualorderservice.marketfeed;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Push-based tick fan-out. The market feed is the single producer; every
+ * registered {@link TickHandler} gets its own consumer thread that walks the
+ * ring and receives only ticks for instruments it is interested in.
+ *
+ * Busy consumers react within microseconds; idle consumers back off to parking.
+ *
+ * The producer never waits: when the slowest ring consumer is a full ring
+ * behind, new ticks are dropped (counted in {@code feed.ticks.dropped}) until it
+ * catches up. Slow handlers therefore declare
+ * {@link TickHandler.DeliveryMode#CONFLATED}: a pump consumes the ring on their
+ * behalf and they receive only the latest tick per instrument.
+ */
+@Slf4j
+@Component
+public class TickDispatcher {
+
+    private static final int RING_SIZE = 1 << 16;
+    private static final long DROP_LOG_INTERVAL_NANOS = 10_000_000_000L;
+
+    private final TickRingBuffer ring = new TickRingBuffer(RING_SIZE);
+    private final List<Worker> workers = new CopyOnWriteArrayList<>();
+    private final List<ConflatingConsumer> conflaters = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong dropped = new AtomicLong();
+    private long lastDropLogNanos = System.nanoTime() - DROP_LOG_INTERVAL_NANOS;   // producer only
+
+    public TickDispatcher(MeterRegistry registry) {
+        Gauge.builder("feed.ticks.dropped", dropped, AtomicLong::get)
+                .description("Ticks not published because the slowest ring consumer was a full ring behind")
+                .register(registry);
+    }
+
+    // ------------------------------------------------------------------------
+    // PRODUCER SIDE (feed reader thread)
+    // ------------------------------------------------------------------------
+
+    /**
+     * Claim and clear the next slot; -1 (tick dropped) when the ring is full.
+     * A claimed slot must be followed by {@link #publish(long)}.
+     */
+    public long claim() {
+        long seq = ring.tryNext();
+        if (seq < 0) {
+            long n = dropped.incrementAndGet();
+            long now = System.nanoTime();
+            if (now - lastDropLogNanos > DROP_LOG_INTERVAL_NANOS) {
+                lastDropLogNanos = now;
+                log.warn("⚠ Tick ring full — slowest consumer is {} behind, dropping ticks ({} so far)",
+                        ring.capacity(), n);
+            }
+            return -1;
+        }
+        ring.get(seq).clear();
+        return seq;
+    }
+
+    public long droppedTicks() {
+        return dropped.get();
+    }
+
+    public TickEvent slot(long sequence) {
+        return ring.get(sequence);
+    }
+
+    public void publish(long sequence) {
+        ring.publish(sequence);
+    }
+
+    // ------------------------------------------------------------------------
+    // CONSUMER REGISTRATION
+    // ------------------------------------------------------------------------
+
+    public void register(TickHandler handler) {
+        if (handler.deliveryMode() == TickHandler.DeliveryMode.CONFLATED) {
+            ConflatingConsumer c = new ConflatingConsumer(handler);
+            conflaters.add(c);
+            startWorker(c.pump());
+            startThread(c::deliverLoop, "tick-" + handler.name());
+        } else {
+            startWorker(handler);
+        }
+
+        log.info("✅ Tick handler registered: {} ({})", handler.name(), handler.deliveryMode());
+    }
+
+    private void startWorker(TickHandler handler) {
+        Worker w = new Worker(handler, ring.addConsumer());
+        workers.add(w);
+        startThread(w, "tick-" + handler.name());
+    }
+
+    private static void startThread(Runnable r, String name) {
+        Thread t = new Thread(r, name);
+        t.setDaemon(true);
+        t.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.forEach(w -> w.running = false);
+        conflaters.forEach(ConflatingConsumer::stop);
+    }
+
+    // ------------------------------------------------------------------------
+    // CONSUMER LOOP
+    // ------------------------------------------------------------------------
+
+    private final class Worker implements Runnable {
+
+        private final TickHandler handler;
+        private final TickRingBuffer.Sequence sequence;
+        private volatile boolean running = true;
+
+        Worker(TickHandler handler, TickRingBuffer.Sequence sequence) {
+            this.handler = handler;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            long next = sequence.getAcquire() + 1;
+            int idle = 0;
+
+            while (running) {
+                long available = ring.cursor();
+
+                if (available < next) {
+                    idle = backoff(idle);
+                    continue;
+                }
+                idle = 0;
+
+                for (; next <= available; next++) {
+                    TickEvent e = ring.get(next);
+                    if (!handler.isInterested(e.segment, e.securityId)) continue;
+                    try {
+                        handler.onTick(e);
+                    } catch (Exception ex) {
+                        log.error("❌ Tick handler {} failed: {}", handler.name(), ex.getMessage(), ex);
+                    }
+                }
+                sequence.setRelease(available);
+            }
+
+            ring.removeConsumer(sequence);
+            log.info("🛑 Tick handler stopped: {}", handler.name());
+        }
+
+        /** spin → yield → park (up to 1ms) */
+        private int backoff(int idle) {
+            if (idle < 100) {
+                Thread.onSpinWait();
+            } else if (idle < 200) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(Math.min(1_000_000L, 10_000L * (idle - 199)));
+            }
+            return Math.min(idle + 1, 1_000);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.trading.manualorderservice.marketfeed;
+
+/**
+ * Preallocated ring buffer slot. Overwritten in place by the producer; handlers
+ * must copy whatever they need to keep beyond {@link TickHandler#onTick}.
+ *
+ * Fields not carried by the source packet are left as NaN / 0.
+ */
+public final class TickEvent {
+
+    public int packetType;          // DhanFeedDecoder response code
+    public int segment;             // feed segment code (0 = IDX_I, 1 = NSE_EQ, 2 = NSE_FNO ...)
+    public int securityId;
+
+    public double ltp;
+    public int lastTradeQty;
+    public long exchangeTimeMs;
+    public long receiveNanos;       // System.nanoTime() when the frame was read
+
+    public double avgTradePrice;
+    public long volume;
+    public long openInterest;
+
+    public double open;
+    public double high;
+    public double low;
+    public double close;
+
+    public double bidPrice;
+    public long bidQty;
+    public double askPrice;
+    public long askQty;
+
+    void copyFrom(TickEvent o) {
+        packetType = o.packetType;
+        segment = o.segment;
+        securityId = o.securityId;
+        ltp = o.ltp;
+        lastTradeQty = o.lastTradeQty;
+        exchangeTimeMs = o.exchangeTimeMs;
+        receiveNanos = o.receiveNanos;
+        avgTradePrice = o.avgTradePrice;
+        volume = o.volume;
+        openInterest = o.openInterest;
+        open = o.open;
+        high = o.high;
+        low = o.low;
+        close = o.close;
+        bidPrice = o.bidPrice;
+        bidQty = o.bidQty;
+        askPrice = o.askPrice;
+        askQty = o.askQty;
+    }
+
+    void clear() {
+        packetType = 0;
+        ltp = Double.NaN;
+        lastTradeQty = 0;
+        exchangeTimeMs = 0L;
+        avgTradePrice = Double.NaN;
+        volume = 0L;
+        openInterest = 0L;
+        open = high = low = close = Double.NaN;
+        bidPrice = askPrice = Double.NaN;
+        bidQty = askQty = 0L;
+    }
+
+    public boolean hasPrice() {
+        return ltp > 0;
+    }
+}
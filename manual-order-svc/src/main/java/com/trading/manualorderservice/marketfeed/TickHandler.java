@@ -0,0 +1,28 @@
+package com.trading.manualorderservice.marketfeed;
+
+/**
+ * Consumer of live ticks registered with {@link TickDispatcher}. Each handler
+ * runs on its own consumer thread, so onTick is never called concurrently.
+ */
+public interface TickHandler {
+
+    enum DeliveryMode {
+        /** Every tick, in order. The handler must keep up with the feed. */
+        EVERY_TICK,
+        /** Latest tick per instrument when the handler is ready; intermediate ticks are skipped. */
+        CONFLATED
+    }
+
+    String name();
+
+    default DeliveryMode deliveryMode() {
+        return DeliveryMode.EVERY_TICK;
+    }
+
+    /**
+     * Cheap, allocation-free instrument filter evaluated for every tick.
+     */
+    boolean isInterested(int segment, int securityId);
+
+    void onTick(TickEvent tick);
+}
@@ -0,0 +1,287 @@
+package com.trading.manualorderservice.marketfeed;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Append-only journal of raw Dhan feed frames.
+ *
+ * Segment file layout (little-endian):
+ *  - header : int32 magic "DTJ1", int32 version
+ *  - record : int32 length, int64 receive time (epoch nanos), length bytes of frame
+ *  - a record length of 0 marks the end of written data
+ *
+ * One segment per trading day, rolled over early when it fills up. Closed
+ * segments are gzipped in the background. The feed reader thread only does a
+ * non-blocking {@link #offer}; when the writer falls behind frames are dropped
+ * and counted instead of stalling the socket.
+ */
+@Slf4j
+@Component
+public class TickJournal {
+
+    public static final int MAGIC   = 0x314A5444; // "DTJ1"
+    public static final int VERSION = 1;
+    public static final int FILE_HEADER_SIZE   = 8;
+    public static final int RECORD_HEADER_SIZE = 12;
+
+    public static final String SEGMENT_SUFFIX = ".jnl";
+
+    private static final ZoneId IST = ZoneId.of("Asia/Kolkata");
+    private static final DateTimeFormatter DAY = DateTimeFormatter.BASIC_ISO_DATE;
+
+    @Value("${market.journal.enabled:true}")
+    private boolean enabled;
+
+    @Value("${market.journal.dir:./data/tick-journal}")
+    private String dir;
+
+    @Value("${market.journal.segment-size-mb:256}")
+    private int segmentSizeMb;
+
+    @Value("${market.journal.queue-capacity:65536}")
+    private int queueCapacity;
+
+    /** Frame as handed over by the reader thread; the buffer is never mutated. */
+    private record Frame(long epochNanos, ByteBuffer data) {}
+
+    private BlockingQueue<Frame> queue;
+    private Thread writer;
+    private volatile boolean running;
+
+    private final ExecutorService compressor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "tick-journal-gzip");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    // Writer-thread state
+    private RandomAccessFile file;
+    private MappedByteBuffer mapped;
+    private Path segmentPath;
+    private LocalDate segmentDay;
+    private int segmentIndex;
+
+    // Epoch anchor so receive stamps have nanosecond resolution
+    private static final long EPOCH_NANOS_BASE;
+    private static final long NANO_TIME_BASE;
+
+    static {
+        Instant now = Instant.now();
+        NANO_TIME_BASE = System.nanoTime();
+        EPOCH_NANOS_BASE = now.getEpochSecond() * 1_000_000_000L + now.getNano();
+    }
+
+    /** Wall-clock receive time in epoch nanos (monotonic within one JVM run). */
+    public static long epochNanos() {
+        return EPOCH_NANOS_BASE + (System.nanoTime() - NANO_TIME_BASE);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("⚪ Tick journal disabled");
+            return;
+        }
+
+        try {
+            Files.createDirectories(Paths.get(dir));
+        } catch (IOException e) {
+            log.error("❌ Tick journal dir {} not usable, journal disabled: {}", dir, e.getMessage());
+            enabled = false;
+            return;
+        }
+
+        // Segments left uncompressed by a previous run (before the writer opens a new one)
+        try (var files = Files.list(Paths.get(dir))) {
+            files.filter(p -> p.toString().endsWith(SEGMENT_SUFFIX))
+                    .forEach(p -> compressor.execute(() -> gzip(p)));
+        } catch (IOException e) {
+            log.warn("⚠ Could not scan tick journal dir: {}", e.getMessage());
+        }
+
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+
+        writer = new Thread(this::writeLoop, "tick-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+
+        log.info("✅ Tick journal writing to {}", Paths.get(dir).toAbsolutePath());
+    }
+
+    // ------------------------------------------------------------------------
+    // PRODUCER SIDE (feed reader thread) — never blocks
+    // ------------------------------------------------------------------------
+
+    /**
+     * Hand a raw frame to the journal. The buffer must not be modified afterwards.
+     */
+    public void offer(ByteBuffer frame, long epochNanos) {
+        if (!running) return;
+        if (!queue.offer(new Frame(epochNanos, frame))) {
+            long n = dropped.incrementAndGet();
+            if ((n & (n - 1)) == 0) {
+                log.warn("⚠ Tick journal queue full, dropped {} frames so far", n);
+            }
+        }
+    }
+
+    public long getWritten() {
+        return written.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public Path getDirectory() {
+        return Paths.get(dir);
+    }
+
+    // ------------------------------------------------------------------------
+    // WRITER THREAD
+    // ------------------------------------------------------------------------
+
+    private void writeLoop() {
+        while (running || !queue.isEmpty()) {
+            try {
+                Frame f = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (f == null) {
+                    rollIfDayChanged();
+                    continue;
+                }
+                append(f);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("❌ Tick journal write failed: {}", e.getMessage(), e);
+            }
+        }
+        closeSegment();
+    }
+
+    private void append(Frame f) throws IOException {
+        int len = f.data().remaining();
+        int needed = RECORD_HEADER_SIZE + len + 4; // + end marker
+
+        LocalDate today = LocalDate.now(IST);
+        if (mapped == null || !today.equals(segmentDay) || mapped.remaining() < needed) {
+            openSegment(today, needed);
+        }
+
+        mapped.putInt(len);
+        mapped.putLong(f.epochNanos());
+        mapped.put(f.data().duplicate());
+        mapped.putInt(mapped.position(), 0);   // end marker, overwritten by the next record
+
+        written.incrementAndGet();
+    }
+
+    private void rollIfDayChanged() {
+        if (mapped != null && !LocalDate.now(IST).equals(segmentDay)) {
+            closeSegment();
+        }
+    }
+
+    private void openSegment(LocalDate day, int minBytes) throws IOException {
+        closeSegment();
+
+        if (!day.equals(segmentDay)) {
+            segmentDay = day;
+            segmentIndex = 0;
+        }
+
+        long size = Math.max((long) segmentSizeMb << 20, FILE_HEADER_SIZE + minBytes);
+        do {
+            segmentPath = Paths.get(dir, "ticks-" + DAY.format(day) + "-" + String.format("%03d", segmentIndex++) + SEGMENT_SUFFIX);
+        } while (Files.exists(segmentPath) || Files.exists(Paths.get(segmentPath + ".gz")));
+
+        file = new RandomAccessFile(segmentPath.toFile(), "rw");
+        mapped = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+        mapped.putInt(MAGIC);
+        mapped.putInt(VERSION);
+        mapped.putInt(mapped.position(), 0);
+
+        log.info("📼 Tick journal segment opened: {}", segmentPath.getFileName());
+    }
+
+    private void closeSegment() {
+        if (mapped == null) return;
+
+        Path closed = segmentPath;
+        try {
+            int end = mapped.position();
+            mapped.force();
+            mapped = null;
+            file.setLength(end);
+        } catch (IOException e) {
+            log.warn("⚠ Could not trim tick journal segment {}: {}", closed, e.getMessage());
+        } finally {
+            try {
+                file.close();
+            } catch (IOException ignored) {}
+            file = null;
+        }
+
+        log.info("📼 Tick journal segment closed: {}", closed.getFileName());
+        compressor.execute(() -> gzip(closed));
+    }
+
+    private void gzip(Path source) {
+        Path target = Paths.get(source + ".gz");
+        try (InputStream in = Files.newInputStream(source);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(target), 1 << 16)) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            log.error("❌ Failed to compress tick journal {}: {}", source, e.getMessage());
+            return;
+        }
+
+        try {
+            Files.delete(source);
+        } catch (IOException e) {
+            log.warn("⚠ Compressed {} but could not delete it: {}", source, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!running) return;
+        running = false;
+        try {
+            writer.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        compressor.shutdown();
+        log.info("🛑 Tick journal stopped. written={} dropped={}", written.get(), dropped.get());
+    }
+}
@@ -0,0 +1,127 @@
+package com.trading.manualorderservice.marketfeed;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Sequential reader for {@link TickJournal} segments, plain ({@code .jnl},
+ * memory-mapped) or compressed ({@code .jnl.gz}, streamed).
+ *
+ * Frames are handed out as buffers positioned on the frame bytes; a buffer is
+ * only valid until the callback returns.
+ */
+public final class TickJournalReader {
+
+    @FunctionalInterface
+    public interface FrameConsumer {
+        /** @return false to stop reading */
+        boolean onFrame(long epochNanos, ByteBuffer frame);
+    }
+
+    private TickJournalReader() {}
+
+    /**
+     * All segments of one trading day in write order.
+     */
+    public static List<Path> segmentsFor(Path dir, LocalDate day) throws IOException {
+        String prefix = "ticks-" + DateTimeFormatter.BASIC_ISO_DATE.format(day) + "-";
+        try (var files = Files.list(dir)) {
+            return files.filter(p -> {
+                        String n = p.getFileName().toString();
+                        return n.startsWith(prefix)
+                                && (n.endsWith(TickJournal.SEGMENT_SUFFIX) || n.endsWith(TickJournal.SEGMENT_SUFFIX + ".gz"));
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Read every frame of a segment. Returns false if the consumer stopped early.
+     */
+    public static boolean read(Path segment, FrameConsumer consumer) throws IOException {
+        return segment.toString().endsWith(".gz")
+                ? readCompressed(segment, consumer)
+                : readMapped(segment, consumer);
+    }
+
+    private static boolean readMapped(Path segment, FrameConsumer consumer) throws IOException {
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            buf.order(ByteOrder.LITTLE_ENDIAN);
+            checkHeader(buf.getInt(), buf.getInt(), segment);
+
+            while (buf.remaining() >= TickJournal.RECORD_HEADER_SIZE) {
+                int len = buf.getInt();
+                if (len <= 0 || len > buf.remaining() - 8) break;   // end marker / torn record
+                long nanos = buf.getLong();
+
+                ByteBuffer frame = buf.slice(buf.position(), len).order(ByteOrder.LITTLE_ENDIAN);
+                buf.position(buf.position() + len);
+
+                if (!consumer.onFrame(nanos, frame)) return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean readCompressed(Path segment, FrameConsumer consumer) throws IOException {
+        try (InputStream in = new BufferedInputStream(new GZIPInputStream(Files.newInputStream(segment), 1 << 16), 1 << 16)) {
+            ByteBuffer header = ByteBuffer.allocate(TickJournal.RECORD_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+            if (!readFully(in, header.array(), TickJournal.FILE_HEADER_SIZE)) return true;
+            checkHeader(header.getInt(0), header.getInt(4), segment);
+
+            byte[] body = new byte[4096];
+            while (readFully(in, header.array(), 4)) {
+                int len = header.getInt(0);
+                if (len <= 0) break;
+                if (!readFully(in, header.array(), 4, 8)) break;
+                long nanos = header.getLong(4);
+
+                if (body.length < len) body = new byte[Integer.highestOneBit(len) << 1];
+                if (!readFully(in, body, len)) break;
+
+                if (!consumer.onFrame(nanos, ByteBuffer.wrap(body, 0, len).order(ByteOrder.LITTLE_ENDIAN))) return false;
+            }
+        }
+        return true;
+    }
+
+    private static void checkHeader(int magic, int version, Path segment) throws IOException {
+        if (magic != TickJournal.MAGIC || version != TickJournal.VERSION) {
+            throw new IOException("Not a tick journal segment (v" + TickJournal.VERSION + "): " + segment);
+        }
+    }
+
+    private static boolean readFully(InputStream in, byte[] dst, int len) throws IOException {
+        return readFully(in, dst, 0, len);
+    }
+
+    /** false on clean EOF before the first byte, EOFException on a torn read. */
+    private static boolean readFully(InputStream in, byte[] dst, int off, int len) throws IOException {
+        int read = 0;
+        while (read < len) {
+            int n = in.read(dst, off + read, len - read);
+            if (n < 0) {
+                if (read == 0) return false;
+                throw new EOFException("Truncated tick journal record");
+            }
+            read += n;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,163 @@
+package com.trading.manualorderservice.marketfeed;
+
+import com.trading.manualorderservice.market.MarketClock;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a recorded {@link TickJournal} day through the live pipeline:
+ * journal frame → {@link DhanFeedDecoder} → {@link MarketFeedProcessor}
+ * (LTP store + tick ring → trailing SL / OCO / ...).
+ *
+ * The {@link MarketClock} is switched to virtual time and advanced to each
+ * frame's receive timestamp before it is decoded. Speed 1 replays in real
+ * time, N replays N× faster, 0 replays as fast as the pipeline accepts.
+ *
+ * Only available with {@code market.replay.enabled=true}, in which case the
+ * live feed socket does not connect — the replay thread is the ring's only producer.
+ */
+@Slf4j
+@Component
+public class TickReplayEngine {
+
+    private final MarketFeedProcessor processor;
+    private final MarketClock clock;
+    private final TickJournal journal;
+    private final boolean replayEnabled;
+
+    private volatile Thread replayThread;
+    private volatile boolean stopRequested;
+
+    private volatile LocalDate day;
+    private volatile double speed;
+    private final AtomicLong frames = new AtomicLong();
+    private volatile long startedAtMs;
+    private volatile long finishedAtMs;
+
+    public record Status(boolean running, LocalDate day, double speed,
+                         long frames, long virtualTimeMs, long elapsedMs) {}
+
+    public TickReplayEngine(MarketFeedProcessor processor,
+                            MarketClock clock,
+                            TickJournal journal,
+                            @Value("${market.replay.enabled:false}") boolean replayEnabled) {
+        this.processor = processor;
+        this.clock = clock;
+        this.journal = journal;
+        this.replayEnabled = replayEnabled;
+    }
+
+    /**
+     * Start replaying one trading day from the journal directory.
+     */
+    public synchronized void start(LocalDate day, double speed) throws Exception {
+        if (!replayEnabled) {
+            throw new IllegalStateException("Replay disabled (market.replay.enabled=false)");
+        }
+        if (isRunning()) {
+            throw new IllegalStateException("Replay already running for " + this.day);
+        }
+
+        List<Path> segments = TickJournalReader.segmentsFor(journal.getDirectory(), day);
+        if (segments.isEmpty()) {
+            throw new IllegalArgumentException("No tick journal segments for " + day);
+        }
+
+        this.day = day;
+        this.speed = speed;
+        this.frames.set(0);
+        this.stopRequested = false;
+        this.startedAtMs = System.currentTimeMillis();
+        this.finishedAtMs = 0;
+
+        Thread t = new Thread(() -> run(segments, speed), "tick-replay");
+        t.setDaemon(true);
+        replayThread = t;
+        t.start();
+
+        log.info("▶ Replay started: day={} segments={} speed={}", day, segments.size(),
+                speed > 0 ? speed + "x" : "max");
+    }
+
+    public void stop() {
+        stopRequested = true;
+    }
+
+    public boolean isRunning() {
+        Thread t = replayThread;
+        return t != null && t.isAlive();
+    }
+
+    public Status status() {
+        long end = finishedAtMs > 0 ? finishedAtMs : System.currentTimeMillis();
+        return new Status(isRunning(), day, speed, frames.get(),
+                clock.isVirtual() ? clock.millis() : 0,
+                startedAtMs > 0 ? end - startedAtMs : 0);
+    }
+
+    // ------------------------------------------------------------------------
+    // REPLAY THREAD
+    // ------------------------------------------------------------------------
+
+    private void run(List<Path> segments, double speed) {
+        long[] anchor = {0, 0};   // first frame epoch nanos, wall nanoTime at first frame
+
+        try {
+            for (Path segment : segments) {
+                boolean completed = TickJournalReader.read(segment, (epochNanos, frame) -> {
+                    if (stopRequested) return false;
+
+                    if (anchor[0] == 0) {
+                        anchor[0] = epochNanos;
+                        anchor[1] = System.nanoTime();
+                        clock.startVirtual(epochNanos);
+                    } else if (speed > 0) {
+                        pace(anchor, epochNanos, speed);
+                    }
+
+                    clock.advanceTo(epochNanos);
+                    try {
+                        processor.processFrame(frame, System.nanoTime());
+                    } catch (Exception e) {
+                        log.error("❌ Replay frame decode failed: {}", e.getMessage());
+                    }
+                    frames.incrementAndGet();
+                    return true;
+                });
+                if (!completed) break;
+            }
+        } catch (Exception e) {
+            log.error("❌ Replay failed: {}", e.getMessage(), e);
+        } finally {
+            finishedAtMs = System.currentTimeMillis();
+            log.info("⏹ Replay {}: day={} frames={} in {} ms",
+                    stopRequested ? "stopped" : "finished", day, frames.get(), finishedAtMs - startedAtMs);
+        }
+    }
+
+    /** Wait until the wall clock has caught up with the scaled journal time. */
+    private static void pace(long[] anchor, long epochNanos, double speed) {
+        long due = anchor[1] + (long) ((epochNanos - anchor[0]) / speed);
+        long wait;
+        while ((wait = due - System.nanoTime()) > 0) {
+            if (wait > 50_000) {
+                LockSupport.parkNanos(wait - 20_000);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopRequested = true;
+    }
+}
@@ -0,0 +1,143 @@
+package com.trading.manualorderservice.marketfeed;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Single-producer / multi-consumer ring of preallocated {@link TickEvent}s
+ * (LMAX Disruptor style).
+ *
+ * The producer claims a sequence with {@link #tryNext()}, fills the slot and
+ * {@link #publish(long)}es it. Every consumer owns a {@link Sequence}; the
+ * producer never laps the slowest consumer, consumers never read past the cursor.
+ * The producer never waits either: while the slowest consumer still holds the
+ * slot it would claim, the claim fails and the caller drops that tick.
+ */
+public final class TickRingBuffer {
+
+    private final TickEvent[] entries;
+    private final int mask;
+    private final int capacity;
+
+    private final Sequence cursor = new Sequence(-1);
+    private volatile Sequence[] gating = new Sequence[0];
+
+    // producer-local state (single writer)
+    private long nextSequence = -1;
+    private long cachedGate = -1;
+    private Sequence[] cachedGating = gating;   // gating array cachedGate was computed from
+
+    public TickRingBuffer(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.entries = new TickEvent[capacity];
+        for (int i = 0; i < capacity; i++) {
+            entries[i] = new TickEvent();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // PRODUCER
+    // ------------------------------------------------------------------------
+
+    /**
+     * Claim the next slot, or -1 if it is still held by the slowest consumer.
+     * Never blocks.
+     */
+    public long tryNext() {
+        long next = nextSequence + 1;
+        long wrapPoint = next - capacity;
+
+        // A consumer added or removed since the last check → the cached gate is stale
+        Sequence[] current = gating;
+        if (wrapPoint > cachedGate || current != cachedGating) {
+            long min = minimumGatingSequence(current, nextSequence);
+            cachedGating = current;
+            cachedGate = min;
+            if (wrapPoint > min) return -1;
+        }
+
+        nextSequence = next;
+        return next;
+    }
+
+    public TickEvent get(long sequence) {
+        return entries[(int) sequence & mask];
+    }
+
+    public void publish(long sequence) {
+        cursor.setRelease(sequence);
+    }
+
+    // ------------------------------------------------------------------------
+    // CONSUMERS
+    // ------------------------------------------------------------------------
+
+    public long cursor() {
+        return cursor.getAcquire();
+    }
+
+    /**
+     * New consumer sequence starting at the current cursor (sees only future ticks).
+     * The producer re-reads the gates on its next claim.
+     */
+    public synchronized Sequence addConsumer() {
+        Sequence s = new Sequence(cursor.getAcquire());
+        Sequence[] next = Arrays.copyOf(gating, gating.length + 1);
+        next[next.length - 1] = s;
+        gating = next;
+        return s;
+    }
+
+    public synchronized void removeConsumer(Sequence s) {
+        gating = Arrays.stream(gating).filter(g -> g != s).toArray(Sequence[]::new);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private static long minimumGatingSequence(Sequence[] gating, long defaultValue) {
+        long min = defaultValue;
+        for (Sequence s : gating) {
+            min = Math.min(min, s.getAcquire());
+        }
+        return min;
+    }
+
+    // ------------------------------------------------------------------------
+    // SEQUENCE (padded against false sharing)
+    // ------------------------------------------------------------------------
+
+    @SuppressWarnings("unused")
+    public static final class Sequence {
+        private long p1, p2, p3, p4, p5, p6, p7;
+        private volatile long value;
+        private long p9, p10, p11, p12, p13, p14, p15;
+
+        private static final VarHandle VALUE;
+        static {
+            try {
+                VALUE = MethodHandles.lookup().findVarHandle(Sequence.class, "value", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        Sequence(long initial) {
+            this.value = initial;
+        }
+
+        public long getAcquire() {
+            return (long) VALUE.getAcquire(this);
+        }
+
+        public void setRelease(long v) {
+            VALUE.setRelease(this, v);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.trading.manualorderservice.optionfilter;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+/**
+ * Option expiry dates per underlying, built once per master load.
+ *
+ * WEEKLY is every listed expiry (the monthly one is also that week's
+ * expiry); MONTHLY only the expiries whose contracts are flagged M. Each
+ * series keeps a day → next-expiry table over its date range, so "nearest",
+ * "next" and "is this an expiry" are array reads.
+ */
+public final class ExpiryCalendar {
+
+    static final ExpiryCalendar EMPTY = new ExpiryCalendar(Map.of());
+
+    public enum Type {
+        WEEKLY, MONTHLY;
+
+        /** WEEKLY / MONTHLY, MONTHLY when blank. */
+        public static Type parse(String s) {
+            return (s == null || s.isBlank()) ? MONTHLY : valueOf(s.trim().toUpperCase());
+        }
+    }
+
+    /** Sorted expiry days with an O(1) "first expiry on or after day" table. */
+    private static final class Series {
+        final int[] days;          // epoch days, ascending
+        final int[] nextIndex;     // [day - days[0]] → index of first expiry >= day
+
+        Series(int[] days) {
+            this.days = days;
+            if (days.length == 0) {
+                this.nextIndex = new int[0];
+                return;
+            }
+            int span = days[days.length - 1] - days[0] + 1;
+            this.nextIndex = new int[span];
+            int j = 0;
+            for (int d = 0; d < span; d++) {
+                while (days[j] < days[0] + d) j++;
+                nextIndex[d] = j;
+            }
+        }
+
+        /** Index of the first expiry on or after {@code day}, -1 if none. */
+        int onOrAfter(int day) {
+            if (days.length == 0 || day > days[days.length - 1]) return -1;
+            if (day <= days[0]) return 0;
+            return nextIndex[day - days[0]];
+        }
+
+        List<LocalDate> toDates() {
+            List<LocalDate> out = new ArrayList<>(days.length);
+            for (int d : days) out.add(LocalDate.ofEpochDay(d));
+            return out;
+        }
+    }
+
+    private record Entry(Series weekly, Series monthly, Map<YearMonth, LocalDate> monthlyByMonth) {
+
+        Series series(Type type) {
+            return type == Type.WEEKLY ? weekly : monthly;
+        }
+    }
+
+    private final Map<String, Entry> byUnderlying;
+
+    private ExpiryCalendar(Map<String, Entry> byUnderlying) {
+        this.byUnderlying = byUnderlying;
+    }
+
+    // ------------------------------------------------------------------------
+    // BUILD
+    // ------------------------------------------------------------------------
+
+    static ExpiryCalendar build(Map<String, List<OptionRow>> optionsByUnderlying) {
+        Map<String, Entry> out = new HashMap<>(optionsByUnderlying.size() * 2);
+
+        for (Map.Entry<String, List<OptionRow>> e : optionsByUnderlying.entrySet()) {
+            TreeSet<Integer> all = new TreeSet<>();
+            TreeSet<Integer> monthly = new TreeSet<>();
+
+            for (OptionRow r : e.getValue()) {
+                if (!r.hasExpiry()) continue;
+                int day = r.expiryDay();
+                all.add(day);
+                if (r.isMonthly()) monthly.add(day);
+            }
+
+            // Latest monthly expiry of each month
+            Map<YearMonth, LocalDate> byMonth = new HashMap<>();
+            for (int d : monthly) {
+                LocalDate date = LocalDate.ofEpochDay(d);
+                byMonth.merge(YearMonth.from(date), date, (a, b) -> a.isAfter(b) ? a : b);
+            }
+
+            out.put(e.getKey(), new Entry(
+                    new Series(all.stream().mapToInt(Integer::intValue).toArray()),
+                    new Series(monthly.stream().mapToInt(Integer::intValue).toArray()),
+                    Map.copyOf(byMonth)));
+        }
+        return new ExpiryCalendar(Map.copyOf(out));
+    }
+
+    // ------------------------------------------------------------------------
+    // LOOKUP
+    // ------------------------------------------------------------------------
+
+    /** First expiry on or after {@code today}. */
+    public Optional<LocalDate> nearest(String underlying, Type type, LocalDate today) {
+        return at(underlying, type, today, 0);
+    }
+
+    /** The expiry after {@link #nearest}. */
+    public Optional<LocalDate> next(String underlying, Type type, LocalDate today) {
+        return at(underlying, type, today, 1);
+    }
+
+    private Optional<LocalDate> at(String underlying, Type type, LocalDate today, int offset) {
+        Entry e = byUnderlying.get(underlying.toUpperCase());
+        if (e == null) return Optional.empty();
+
+        Series s = e.series(type);
+        int i = s.onOrAfter((int) today.toEpochDay());
+        if (i < 0 || i + offset >= s.days.length) return Optional.empty();
+        return Optional.of(LocalDate.ofEpochDay(s.days[i + offset]));
+    }
+
+    /** Latest monthly expiry in {@code month}. */
+    public Optional<LocalDate> monthly(String underlying, YearMonth month) {
+        Entry e = byUnderlying.get(underlying.toUpperCase());
+        return e == null ? Optional.empty() : Optional.ofNullable(e.monthlyByMonth().get(month));
+    }
+
+    public boolean isExpiry(String underlying, LocalDate date) {
+        Entry e = byUnderlying.get(underlying.toUpperCase());
+        if (e == null) return false;
+
+        int day = (int) date.toEpochDay();
+        int i = e.weekly().onOrAfter(day);
+        return i >= 0 && e.weekly().days[i] == day;
+    }
+
+    public List<LocalDate> expiries(String underlying, Type type) {
+        Entry e = byUnderlying.get(underlying.toUpperCase());
+        return e == null ? List.of() : e.series(type).toDates();
+    }
+}
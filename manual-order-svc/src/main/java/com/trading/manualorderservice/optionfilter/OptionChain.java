@@ -0,0 +1,163 @@
+package com.trading.manualorderservice.optionfilter;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Live option chain of one (underlying, expiry), column-wise:
+ * one primitive array per field, indexed by strike position.
+ *
+ * Single writer (the chain tick thread); readers take a consistent copy with
+ * {@link #snapshot()} under a seqlock — no reader ever blocks the writer.
+ */
+public final class OptionChain {
+
+    private static final VarHandle VERSION;
+
+    static {
+        try {
+            VERSION = MethodHandles.lookup().findVarHandle(OptionChain.class, "version", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public final String underlying;
+    public final LocalDate expiry;
+
+    // Static columns (contract metadata)
+    final double[] strikes;       // ascending
+    final int[] ceSecurityId;     // 0 = no contract
+    final int[] peSecurityId;
+
+    // Live columns
+    private final double[] ceLtp;
+    private final double[] peLtp;
+    private final long[] ceOi;
+    private final long[] peOi;
+    private final long[] ceVolume;
+    private final long[] peVolume;
+    private final double[] ceIv;
+    private final double[] peIv;
+
+    @SuppressWarnings("unused")   // accessed through VERSION
+    private volatile long version;
+    private long lastUpdateMs;
+
+    OptionChain(String underlying, LocalDate expiry, double[] strikes, int[] ceSecurityId, int[] peSecurityId) {
+        this.underlying = underlying;
+        this.expiry = expiry;
+        this.strikes = strikes;
+        this.ceSecurityId = ceSecurityId;
+        this.peSecurityId = peSecurityId;
+
+        int n = strikes.length;
+        this.ceLtp = nan(n);
+        this.peLtp = nan(n);
+        this.ceOi = new long[n];
+        this.peOi = new long[n];
+        this.ceVolume = new long[n];
+        this.peVolume = new long[n];
+        this.ceIv = nan(n);
+        this.peIv = nan(n);
+    }
+
+    private static double[] nan(int n) {
+        double[] a = new double[n];
+        Arrays.fill(a, Double.NaN);
+        return a;
+    }
+
+    public int size() {
+        return strikes.length;
+    }
+
+    /** Position of a strike, or -(insertion point) - 1 like Arrays.binarySearch. */
+    public int indexOf(double strike) {
+        return Arrays.binarySearch(strikes, strike);
+    }
+
+    // ------------------------------------------------------------------------
+    // WRITER (chain tick thread only)
+    // ------------------------------------------------------------------------
+
+    /**
+     * Apply one contract update. NaN price / IV and zero OI / volume leave the
+     * previous value in place.
+     */
+    void update(int index, boolean call, double ltp, long oi, long volume, double iv, long nowMs) {
+        long v = (long) VERSION.getOpaque(this);
+        VERSION.setOpaque(this, v + 1);
+        VarHandle.storeStoreFence();
+
+        if (call) {
+            if (!Double.isNaN(ltp)) ceLtp[index] = ltp;
+            if (oi > 0) ceOi[index] = oi;
+            if (volume > 0) ceVolume[index] = volume;
+            if (!Double.isNaN(iv)) ceIv[index] = iv;
+        } else {
+            if (!Double.isNaN(ltp)) peLtp[index] = ltp;
+            if (oi > 0) peOi[index] = oi;
+            if (volume > 0) peVolume[index] = volume;
+            if (!Double.isNaN(iv)) peIv[index] = iv;
+        }
+        lastUpdateMs = nowMs;
+
+        VERSION.setRelease(this, v + 2);
+    }
+
+    // ------------------------------------------------------------------------
+    // READERS
+    // ------------------------------------------------------------------------
+
+    /** Immutable copy of the whole chain at one instant. */
+    public record Snapshot(String underlying, LocalDate expiry, long updatedAtMs,
+                           double[] strikes,
+                           double[] ceLtp, double[] peLtp,
+                           long[] ceOi, long[] peOi,
+                           long[] ceVolume, long[] peVolume,
+                           double[] ceIv, double[] peIv) {}
+
+    public Snapshot snapshot() {
+        int n = strikes.length;
+        double[] cl = new double[n], pl = new double[n], ci = new double[n], pi = new double[n];
+        long[] co = new long[n], po = new long[n], cv = new long[n], pv = new long[n];
+        long updated;
+
+        while (true) {
+            long v1 = (long) VERSION.getAcquire(this);
+            if ((v1 & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            System.arraycopy(ceLtp, 0, cl, 0, n);
+            System.arraycopy(peLtp, 0, pl, 0, n);
+            System.arraycopy(ceOi, 0, co, 0, n);
+            System.arraycopy(peOi, 0, po, 0, n);
+            System.arraycopy(ceVolume, 0, cv, 0, n);
+            System.arraycopy(peVolume, 0, pv, 0, n);
+            System.arraycopy(ceIv, 0, ci, 0, n);
+            System.arraycopy(peIv, 0, pi, 0, n);
+            updated = lastUpdateMs;
+
+            VarHandle.loadLoadFence();
+            if ((long) VERSION.getOpaque(this) == v1) break;
+        }
+
+        return new Snapshot(underlying, expiry, updated, strikes.clone(), cl, pl, co, po, cv, pv, ci, pi);
+    }
+
+    /** IV of one contract, NaN if not yet known. */
+    public double iv(int index, boolean call) {
+        while (true) {
+            long v1 = (long) VERSION.getAcquire(this);
+            double iv = call ? ceIv[index] : peIv[index];
+            VarHandle.loadLoadFence();
+            if ((v1 & 1) == 0 && (long) VERSION.getOpaque(this) == v1) return iv;
+            Thread.onSpinWait();
+        }
+    }
+}
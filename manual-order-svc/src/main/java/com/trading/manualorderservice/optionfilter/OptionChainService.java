@@ -0,0 +1,221 @@
+package com.trading.manualorderservice.optionfilter;
+
+import com.trading.manualorderservice.market.InstrumentKey;
+import com.trading.manualorderservice.market.InstrumentMap;
+import com.trading.manualorderservice.market.LtpStore;
+import com.trading.manualorderservice.market.MarketClock;
+import com.trading.manualorderservice.marketfeed.IndexLtpCache;
+import com.trading.manualorderservice.marketfeed.MarketFeedManager;
+import com.trading.manualorderservice.marketfeed.TickDispatcher;
+import com.trading.manualorderservice.marketfeed.TickEvent;
+import com.trading.manualorderservice.marketfeed.TickHandler;
+import com.trading.manualorderservice.util.BlackScholesUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Live option chains, one per (underlying, expiry).
+ *
+ * A chain is opened on first use: its contracts are taken from the option
+ * master, streamed through {@link MarketFeedManager} and updated from the tick
+ * feed (LTP, OI, volume, and IV from Black–Scholes against the streamed spot).
+ * Queries after that are memory reads. Chains are closed once they expire.
+ *
+ * Ticks arrive CONFLATED — the chain only needs the latest state of each
+ * contract, and the IV solve must not hold the ring back.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OptionChainService implements TickHandler {
+
+    private static final int FNO_SEGMENT = 2;      // NSE_FNO feed code
+    private static final int INDEX_SEGMENT = 0;    // IDX_I
+    private static final int EQUITY_SEGMENT = 1;   // NSE_EQ
+
+    private static final ZoneId IST = ZoneId.of("Asia/Kolkata");
+    private static final LocalTime EXPIRY_CLOSE = LocalTime.of(15, 30);
+    private static final double YEAR_MS = 365.0 * 24 * 3600 * 1000;
+    private static final double MIN_T_YEARS = 1.0 / (365 * 24);   // 1 hour
+
+    private final OptionOrderHelper optionHelper;
+    private final MarketFeedManager feedManager;
+    private final IndexLtpCache indexCache;
+    private final TickDispatcher tickDispatcher;
+    private final LtpStore store;
+    private final MarketClock clock;
+
+    public record ChainKey(String underlying, LocalDate expiry) {}
+
+    /** One contract's position in its chain, plus what the IV solve needs. */
+    private record Leg(OptionChain chain, int index, boolean call,
+                       int spotSegment, int spotSecurityId, long expiryMs) {}
+
+    private final Map<ChainKey, OptionChain> chains = new ConcurrentHashMap<>();
+
+    /** Contract key → leg. Rebuilt when a chain opens or closes. */
+    private volatile InstrumentMap<Leg> legs = InstrumentMap.empty();
+    private final Map<Long, Leg> legSource = new HashMap<>();   // guarded by this
+
+    @PostConstruct
+    public void registerForTicks() {
+        tickDispatcher.register(this);
+    }
+
+    // ------------------------------------------------------------------------
+    // CHAIN LIFECYCLE
+    // ------------------------------------------------------------------------
+
+    /**
+     * Live chain of one expiry, opened (and subscribed) on first use.
+     */
+    public OptionChain chain(String underlying, LocalDate expiry) {
+        ChainKey key = new ChainKey(underlying.toUpperCase(), expiry);
+        OptionChain c = chains.get(key);
+        return c != null ? c : open(key);
+    }
+
+    public Optional<OptionChain> find(String underlying, LocalDate expiry) {
+        return Optional.ofNullable(chains.get(new ChainKey(underlying.toUpperCase(), expiry)));
+    }
+
+    public Set<ChainKey> openChains() {
+        return Collections.unmodifiableSet(chains.keySet());
+    }
+
+    private synchronized OptionChain open(ChainKey key) {
+        OptionChain existing = chains.get(key);
+        if (existing != null) return existing;
+
+        int expiryDay = (int) key.expiry().toEpochDay();
+        List<OptionRow> rows = optionHelper.getOptions(key.underlying()).stream()
+                .filter(r -> r.expiryDay() == expiryDay)
+                .toList();
+        if (rows.isEmpty()) {
+            throw new RuntimeException("No option contracts for " + key.underlying() + " " + key.expiry());
+        }
+
+        double[] strikes = rows.stream().mapToDouble(OptionRow::strike).distinct().sorted().toArray();
+        int[] ce = new int[strikes.length];
+        int[] pe = new int[strikes.length];
+        List<String> contractIds = new ArrayList<>(rows.size());
+
+        for (OptionRow r : rows) {
+            int secId = r.numericSecurityId();
+            int i = Arrays.binarySearch(strikes, r.strike());
+            if (r.isCall()) ce[i] = secId;
+            else if (r.isPut()) pe[i] = secId;
+            else continue;
+            contractIds.add(r.securityId());
+        }
+
+        OptionChain chain = new OptionChain(key.underlying(), key.expiry(), strikes, ce, pe);
+
+        // Underlying spot for the IV solve: index on IDX_I, otherwise the equity
+        int spotSeg = INDEX_SEGMENT;
+        int spotId = indexCache.securityIdOf(key.underlying());
+        if (spotId < 0) {
+            spotSeg = EQUITY_SEGMENT;
+            spotId = optionHelper.getUnderlyingSpotSecurityId(key.underlying())
+                    .map(Integer::parseInt)
+                    .orElse(-1);
+            if (spotId > 0) feedManager.watch("NSE_EQ", String.valueOf(spotId));
+        }
+        long expiryMs = key.expiry().atTime(EXPIRY_CLOSE).atZone(IST).toInstant().toEpochMilli();
+
+        for (int i = 0; i < strikes.length; i++) {
+            if (ce[i] != 0) legSource.put(InstrumentKey.of(FNO_SEGMENT, ce[i]),
+                    new Leg(chain, i, true, spotSeg, spotId, expiryMs));
+            if (pe[i] != 0) legSource.put(InstrumentKey.of(FNO_SEGMENT, pe[i]),
+                    new Leg(chain, i, false, spotSeg, spotId, expiryMs));
+        }
+        legs = InstrumentMap.copyOf(legSource);
+        chains.put(key, chain);
+
+        feedManager.watchAll("NSE_FNO", contractIds);
+
+        log.info("📈 Option chain opened: {} {} ({} strikes, {} contracts)",
+                key.underlying(), key.expiry(), strikes.length, contractIds.size());
+        return chain;
+    }
+
+    /**
+     * Close chains whose expiry has passed and release their subscriptions.
+     */
+    @Scheduled(cron = "0 45 15 * * MON-FRI", zone = "Asia/Kolkata")
+    public synchronized void closeExpired() {
+        LocalDate today = LocalDate.now(IST);
+
+        for (Iterator<Map.Entry<ChainKey, OptionChain>> it = chains.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<ChainKey, OptionChain> e = it.next();
+            if (e.getKey().expiry().isAfter(today)) continue;
+
+            OptionChain chain = e.getValue();
+            List<String> contractIds = new ArrayList<>();
+            for (int i = 0; i < chain.size(); i++) {
+                if (chain.ceSecurityId[i] != 0) contractIds.add(String.valueOf(chain.ceSecurityId[i]));
+                if (chain.peSecurityId[i] != 0) contractIds.add(String.valueOf(chain.peSecurityId[i]));
+            }
+            legSource.values().removeIf(l -> l.chain() == chain);
+            feedManager.unwatchAll("NSE_FNO", contractIds);
+
+            optionHelper.getUnderlyingSpotSecurityId(chain.underlying)
+                    .filter(id -> indexCache.securityIdOf(chain.underlying) < 0)
+                    .ifPresent(id -> feedManager.unwatch("NSE_EQ", id));
+
+            it.remove();
+            log.info("📉 Option chain closed: {} {}", chain.underlying, chain.expiry);
+        }
+        legs = InstrumentMap.copyOf(legSource);
+    }
+
+    // ------------------------------------------------------------------------
+    // TICK HANDLER
+    // ------------------------------------------------------------------------
+
+    @Override
+    public String name() {
+        return "option-chain";
+    }
+
+    @Override
+    public DeliveryMode deliveryMode() {
+        return DeliveryMode.CONFLATED;
+    }
+
+    @Override
+    public boolean isInterested(int segment, int securityId) {
+        return segment == FNO_SEGMENT && legs.containsKey(InstrumentKey.of(segment, securityId));
+    }
+
+    @Override
+    public void onTick(TickEvent tick) {
+        Leg leg = legs.get(InstrumentKey.of(tick.segment, tick.securityId));
+        if (leg == null) return;
+
+        long now = clock.millis();
+        double ltp = tick.hasPrice() ? tick.ltp : Double.NaN;
+        double iv = Double.NaN;
+
+        if (!Double.isNaN(ltp) && leg.spotSecurityId() > 0) {
+            double spot = store.lastPrice(leg.spotSegment(), leg.spotSecurityId());
+            if (spot > 0) {
+                double t = Math.max((leg.expiryMs() - now) / YEAR_MS, MIN_T_YEARS);
+                double strike = leg.chain().strikes[leg.index()];
+                // percent, same unit as the broker's option details API
+                iv = BlackScholesUtil.computeIV(leg.call(), spot, strike, ltp, t) * 100.0;
+            }
+        }
+
+        leg.chain().update(leg.index(), leg.call(), ltp, tick.openInterest, tick.volume, iv, now);
+    }
+}
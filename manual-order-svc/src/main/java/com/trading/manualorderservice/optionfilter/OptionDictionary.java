@@ -0,0 +1,42 @@
+package com.trading.manualorderservice.optionfilter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * String table for the low-cardinality attributes of option contracts
+ * (underlying, exchange, instrument name / type). Each distinct value is
+ * stored once and rows keep its short code.
+ *
+ * Filled while an option universe is built, read-only once that universe is
+ * published.
+ */
+final class OptionDictionary {
+
+    private final Map<String, Short> codes = new HashMap<>();
+    private String[] values = new String[64];
+    private int size;
+
+    /** Code of {@code value}, adding it on first sight; -1 for null. */
+    short code(String value) {
+        if (value == null) return -1;
+
+        Short c = codes.get(value);
+        if (c != null) return c;
+
+        if (size == Short.MAX_VALUE) throw new IllegalStateException("Option dictionary full");
+        if (size == values.length) values = Arrays.copyOf(values, size * 2);
+        values[size] = value;
+        codes.put(value, (short) size);
+        return (short) size++;
+    }
+
+    String value(short code) {
+        return code < 0 ? null : values[code];
+    }
+
+    int size() {
+        return size;
+    }
+}
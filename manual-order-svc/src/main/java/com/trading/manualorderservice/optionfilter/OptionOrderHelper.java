@@ -1,5 +1,8 @@
 package com.trading.manualorderservice.optionfilter;
 
+import com.trading.manualorderservice.instrument.InstrumentMaster;
+import com.trading.manualorderservice.instrument.InstrumentMasterReloadedEvent;
+import com.trading.manualorderservice.instrument.InstrumentMasterService;
 import com.trading.manualorderservice.market.LtpServiceHolder;
 import com.trading.manualorderservice.marketfeed.IndexPollingService;
 import com.trading.manualorderservice.service.DhanAllApis;
@@ -10,14 +13,15 @@ import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor
@@ -27,12 +31,21 @@ public class OptionOrderHelper {
 
 	/** Helpers */
 	private final DhanStockHelper dhanStockHelper;
+	private final InstrumentMasterService masterService;
 
-	/** Loaded option master grouped by underlying */
-	private final Map<String, List<OptionRow>> optionsByUnderlying = new HashMap<>();
+	/**
+	 * Option contracts grouped by underlying, and underlying → spot security ID
+	 * (equities and indices). Immutable; a reload publishes a new one.
+	 */
+	private record Universe(Map<String, List<OptionRow>> optionsByUnderlying,
+							Map<String, String> spotSecurityIds,
+							OptionStrikeIndex strikeIndex,
+							ExpiryCalendar expiryCalendar) {}
+
+	private volatile Universe universe =
+			new Universe(Map.of(), Map.of(), OptionStrikeIndex.EMPTY, ExpiryCalendar.EMPTY);
 
-	/** Underlying → Security ID (for equities and index spot) */
-	private final Map<String, String> spotSecurityIds = new HashMap<>();
+	private static final ZoneId IST = ZoneId.of("Asia/Kolkata");
 
 	private static final DateTimeFormatter MONTH_FMT =
 			new DateTimeFormatterBuilder()
@@ -41,59 +54,52 @@ public class OptionOrderHelper {
 					.toFormatter(Locale.ENGLISH);
 
 	// ============================================================
-	//                 LOAD OPTION MASTER CSV
+	//                 LOAD OPTION MASTER
 	// ============================================================
 
 	@PostConstruct
-	public void init() throws Exception {
-		LOGGER.info("Loading Option Master CSV...");
-
-		List<Map<String, String>> rows = DhanOptionHelper.loadMasterCsv();
-		int skipped = 0;
+	public void init() {
+		LOGGER.info("Loading Option Master from instrument master...");
+		load(masterService.master());
+	}
 
-		for (Map<String, String> row : rows) {
-			try {
-				String instrType = row.getOrDefault("SEM_EXCH_INSTRUMENT_TYPE", "").trim().toUpperCase();
-				String tradingSymbol = row.getOrDefault("SEM_TRADING_SYMBOL", "").trim();
+	@EventListener
+	public void onMasterReloaded(InstrumentMasterReloadedEvent event) {
+		load(event.master());
+	}
 
-				if (tradingSymbol.isEmpty()) {
-					skipped++;
-					continue;
-				}
+	private void load(InstrumentMaster master) {
+		Map<String, List<OptionRow>> optionsByUnderlying = new HashMap<>();
+		Map<String, String> spotSecurityIds = new HashMap<>();
+		OptionDictionary dict = new OptionDictionary();
 
-				// Options
-				if (instrType.startsWith("OP")) {
-					String underlying = extractUnderlying(tradingSymbol);
-					OptionRow or = new OptionRow(row, underlying);
-					optionsByUnderlying.computeIfAbsent(underlying, k -> new ArrayList<>()).add(or);
-				}
-				// Equity Spot / Index Spot
-				else if (instrType.equals("ES") || instrType.equals("INDEX")) {
-					String underlyingKey = tradingSymbol.toUpperCase();
-					String secId = row.getOrDefault("SEM_SMST_SECURITY_ID", "").trim();
-					if (!secId.isEmpty()) {
-						spotSecurityIds.putIfAbsent(underlyingKey, secId);
-					}
-				} else {
-					skipped++;
-				}
+		for (int row = 0; row < master.size(); row++) {
+			byte kind = master.kind(row);
 
-			} catch (Exception ex) {
-				skipped++;
+			// Options
+			if (kind == InstrumentMaster.OPTION) {
+				OptionRow or = new OptionRow(master, row, dict);
+				optionsByUnderlying.computeIfAbsent(or.underlying(), k -> new ArrayList<>()).add(or);
+			}
+			// Equity Spot / Index Spot
+			else {
+				spotSecurityIds.putIfAbsent(master.tradingSymbol(row).toUpperCase(),
+						String.valueOf(master.securityId(row)));
 			}
 		}
 
-		// Sort options inside each underlying by expiry date
-		optionsByUnderlying.values().forEach(list ->
-				list.sort(Comparator.comparing(o -> o.expiry, Comparator.nullsLast(LocalDate::compareTo))));
+		// Sort options inside each underlying by expiry date (undated last), then freeze
+		optionsByUnderlying.replaceAll((u, list) -> {
+			list.sort(Comparator.comparingInt(o -> o.hasExpiry() ? o.expiryDay() : Integer.MAX_VALUE));
+			return List.copyOf(list);
+		});
 
-		LOGGER.info("Option Master Loaded: {} underlyings, {} skipped rows",
-				optionsByUnderlying.size(), skipped);
-	}
+		// One swap; readers keep whichever version they already hold
+		this.universe = new Universe(Map.copyOf(optionsByUnderlying), Map.copyOf(spotSecurityIds),
+				OptionStrikeIndex.build(optionsByUnderlying), ExpiryCalendar.build(optionsByUnderlying));
 
-	private String extractUnderlying(String symbol) {
-		int dash = symbol.indexOf('-');
-		return (dash > 0 ? symbol.substring(0, dash) : symbol).toUpperCase();
+		LOGGER.info("Option Master Loaded: {} underlyings, {} strike ladders, {} spot instruments, {} dictionary values",
+				optionsByUnderlying.size(), universe.strikeIndex().size(), spotSecurityIds.size(), dict.size());
 	}
 
 	// ============================================================
@@ -109,71 +115,34 @@ public class OptionOrderHelper {
 			String placeOrderType,
 			int numberOfLots,
 			double spotPrice,
-			String expiryMonthYear
+			LocalDate expiry
 	) {
 
 		String u = underlying.toUpperCase();
-		List<OptionRow> all = optionsByUnderlying.getOrDefault(u, Collections.emptyList());
-
-		if (all.isEmpty()) {
-			throw new RuntimeException("No options found for underlying: " + u);
-		}
-
 		String type = optionType.toUpperCase();
-		String money = moneyness.toUpperCase();
 
-		// Filter CE / PE
-		List<OptionRow> filtered = all.stream()
-				.filter(r -> r.optionType.equalsIgnoreCase(type))
-				.collect(Collectors.toList());
-
-		if (filtered.isEmpty()) {
-			throw new RuntimeException("No " + type + " options for " + u);
-		}
-
-		// Filter only rows of target expiry month
-		YearMonth targetMonth = YearMonth.parse(expiryMonthYear.trim(), MONTH_FMT);
-
-		List<OptionRow> monthly = filtered.stream()
-				.filter(r -> r.expiry != null && YearMonth.from(r.expiry).equals(targetMonth))
-				.filter(r -> r.expiryFlag == null || r.expiryFlag.isBlank() || r.expiryFlag.equalsIgnoreCase("M"))
-				.toList();
-
-		if (monthly.isEmpty()) {
-			throw new RuntimeException("No monthly expiry rows for " + u);
+		if (!isValidUnderlying(u)) {
+			throw new RuntimeException("No options found for underlying: " + u);
 		}
 
-		// Find latest expiry of that month
-		LocalDate lastExpiry = monthly.stream()
-				.map(r -> r.expiry)
-				.max(LocalDate::compareTo)
-				.orElseThrow();
+		OptionStrikeIndex.Ladder ladder = universe.strikeIndex().ladder(u, type, expiry)
+				.orElseThrow(() -> new RuntimeException("No " + type + " options for " + u + " expiring " + expiry));
 
-		List<OptionRow> expiryRows = monthly.stream()
-				.filter(r -> r.expiry.equals(lastExpiry))
-				.toList();
-
-		// Strike selection
-		double step = getStrikeStep(expiryRows);
-		double base = Math.round(spotPrice / step) * step;
-		double targetStrike = adjustStrike(base, step, type, money);
-
-		OptionRow chosen = expiryRows.stream()
-				.min(Comparator.comparingDouble(r -> Math.abs(r.strike - targetStrike)))
-				.orElseThrow();
+		// Strike selection (binary search on the ladder)
+		OptionRow chosen = ladder.select(spotPrice, moneyness);
 
 		Map<String, Object> out = new LinkedHashMap<>();
-		out.put("security_id", chosen.securityId);
+		out.put("security_id", chosen.securityId());
 		out.put("exchange_segment", "NSE_FNO");
 		out.put("transaction_type", transactionType);
-		out.put("quantity", chosen.lotSize * numberOfLots);
+		out.put("quantity", chosen.lotSize() * numberOfLots);
 		out.put("order_type", "MARKET");
 		out.put("product_type", tradeType);
 		out.put("price", 0.0);
 		out.put("trigger_price", 0.0);
-		out.put("trading_symbol", chosen.tradingSymbol);
+		out.put("trading_symbol", chosen.tradingSymbol());
 		out.put("stock_name", u);
-		out.put("custom_Symbol", chosen.customSymbol);
+		out.put("custom_Symbol", chosen.customSymbol());
 		out.put("place_order_type", placeOrderType);
 		out.put("job_status", "NEW");
 
@@ -249,26 +218,55 @@ public class OptionOrderHelper {
 	//                    Utility Functions
 	// ============================================================
 
-	private double getStrikeStep(List<OptionRow> rows) {
-		List<Double> strikes = rows.stream().map(r -> r.strike).distinct().sorted().toList();
-		return strikes.size() > 1 ? strikes.get(1) - strikes.get(0) : 50;
+	/**
+	 * Expiry an order / IV request targets:
+	 *   - {@code expiry} NEAREST / NEXT → nearest / following expiry of {@code expiryType}
+	 *   - {@code expiry} yyyy-MM-dd    → that date, if it is a listed expiry
+	 *   - otherwise                    → latest monthly expiry of {@code expiryMonthYear} (MMM-yyyy)
+	 */
+	public LocalDate resolveExpiry(String underlying, String expiryType, String expiry, String expiryMonthYear) {
+		String u = underlying.toUpperCase();
+		ExpiryCalendar calendar = universe.expiryCalendar();
+		ExpiryCalendar.Type type = ExpiryCalendar.Type.parse(expiryType);
+		LocalDate today = LocalDate.now(IST);
+
+		if (expiry != null && !expiry.isBlank()) {
+			String e = expiry.trim().toUpperCase();
+			Optional<LocalDate> resolved = switch (e) {
+				case "NEAREST" -> calendar.nearest(u, type, today);
+				case "NEXT"    -> calendar.next(u, type, today);
+				default -> {
+					LocalDate d = LocalDate.parse(e);
+					yield calendar.isExpiry(u, d) ? Optional.of(d) : Optional.empty();
+				}
+			};
+			return resolved.orElseThrow(() -> new RuntimeException("No " + type + " expiry " + e + " for " + u));
+		}
+
+		if (expiryMonthYear == null || expiryMonthYear.isBlank()) {
+			return calendar.nearest(u, type, today)
+					.orElseThrow(() -> new RuntimeException("No upcoming " + type + " expiry for " + u));
+		}
+
+		YearMonth month = YearMonth.parse(expiryMonthYear.trim(), MONTH_FMT);
+		return calendar.monthly(u, month)
+				.orElseThrow(() -> new RuntimeException("No monthly expiry rows for " + u));
+	}
+
+	public ExpiryCalendar getExpiryCalendar() {
+		return universe.expiryCalendar();
 	}
 
-	private double adjustStrike(double base, double step, String type, String money) {
-		boolean ce = type.equalsIgnoreCase("CE");
-		return switch (money) {
-			case "OTM" -> ce ? base + step : base - step;
-			case "ITM" -> ce ? base - step : base + step;
-			default -> base;
-		};
+	public OptionStrikeIndex getStrikeIndex() {
+		return universe.strikeIndex();
 	}
 
 	public boolean isValidUnderlying(String u) {
-		return optionsByUnderlying.containsKey(u.toUpperCase());
+		return universe.optionsByUnderlying().containsKey(u.toUpperCase());
 	}
 
 	public Optional<String> getUnderlyingSpotSecurityId(String u) {
-		return Optional.ofNullable(spotSecurityIds.get(u.toUpperCase()));
+		return Optional.ofNullable(universe.spotSecurityIds().get(u.toUpperCase()));
 	}
 
 	public double computeIvForOption(
@@ -276,18 +274,17 @@ public class OptionOrderHelper {
 			double spotPrice,
 			double optionLtp
 	) {
-		boolean isCall = row.optionType.equalsIgnoreCase("CE");
-		double strike = row.strike;
+		boolean isCall = row.isCall();
+		double strike = row.strike();
 
-		long days = java.time.temporal.ChronoUnit.DAYS.between(
-				LocalDate.now(), row.expiry);
+		long days = row.expiryDay() - LocalDate.now().toEpochDay();
 		double T = Math.max(days / 365.0, 1.0 / 365.0); // maturity in years
 
 		return BlackScholesUtil.computeIV(isCall, spotPrice, strike, optionLtp, T);
 	}
 
 	public List<OptionRow> getOptions(String underlying) {
-		return optionsByUnderlying.getOrDefault(underlying.toUpperCase(), List.of());
+		return universe.optionsByUnderlying().getOrDefault(underlying.toUpperCase(), List.of());
 	}
 
 	public static DateTimeFormatter getMonthFormatter() {
@@ -1,80 +1,121 @@
 package com.trading.manualorderservice.optionfilter;
 
+import com.trading.manualorderservice.instrument.InstrumentMaster;
+
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-import java.util.Map;
-
-public class OptionRow {
-
-    public final String underlying;      // NIFTY, BANKNIFTY, SBIN...
-    public final String tradingSymbol;   // NIFTY-Jan2026-23700-PE
-    public final String customSymbol;    // NIFTY 27 JAN 23700 PUT
-    public final LocalDate expiry;
-    public final double strike;
-    public final String optionType;      // CE / PE
-    public final int lotSize;
-    public final String securityId;      // SEM_SMST_SECURITY_ID
-    public final String expiryFlag;      // M / W / etc.
-    public final double tickSize;        // in rupees (0.05 etc.)
-    public final String exchangeId;      // NSE
-    public final String segment;         // D
-    public final String instrumentName;  // OPTIDX / OPTSTK
-    public final String instrumentType;  // OP
-
-    public OptionRow(Map<String, String> row, String underlyingKey) {
-        this.underlying     = underlyingKey;
-        this.tradingSymbol  = row.getOrDefault("SEM_TRADING_SYMBOL", "").trim();
-        this.customSymbol   = row.getOrDefault("SEM_CUSTOM_SYMBOL", "").trim();
-        this.optionType     = row.getOrDefault("SEM_OPTION_TYPE", "").trim();
-        this.securityId     = row.getOrDefault("SEM_SMST_SECURITY_ID", "").trim();
-        this.expiryFlag     = row.getOrDefault("SEM_EXPIRY_FLAG", "").trim();
-        this.exchangeId     = row.getOrDefault("SEM_EXM_EXCH_ID", "").trim();
-        this.segment        = row.getOrDefault("SEM_SEGMENT", "").trim();
-        this.instrumentName = row.getOrDefault("SEM_INSTRUMENT_NAME", "").trim();
-        this.instrumentType = row.getOrDefault("SEM_EXCH_INSTRUMENT_TYPE", "").trim();
-
-        // expiry date: "30-12-2025 14:30" or "2024-08-28 14:30"
-        String rawDate = row.getOrDefault("SEM_EXPIRY_DATE", "").trim();
-        if (!rawDate.isEmpty()) {
-            String datePart = rawDate.split(" ")[0];
-            this.expiry = parseDate(datePart);
-        } else {
-            this.expiry = null;
-        }
 
-        String strikeStr   = row.getOrDefault("SEM_STRIKE_PRICE", "0").trim();
-        this.strike        = strikeStr.isEmpty() ? 0.0 : Double.parseDouble(strikeStr);
+/**
+ * One option contract of the option master.
+ *
+ * Repeating attributes are kept as codes: underlying, exchange and
+ * instrument name / type index the universe's {@link OptionDictionary};
+ * segment, option type and expiry flag are single bytes; expiry is an epoch
+ * day and the security ID an int. String / LocalDate forms are built by the
+ * accessors on demand. Trading and custom symbols are the master's own
+ * strings, not copies.
+ */
+public final class OptionRow {
 
-        String lotStr      = row.getOrDefault("SEM_LOT_UNITS", "1").trim();
-        this.lotSize       = (int) Double.parseDouble(lotStr);
+    private final OptionDictionary dict;
 
-        String tickStr     = row.getOrDefault("SEM_TICK_SIZE", "0.05").trim();
-        this.tickSize      = parseTick(tickStr);
-    }
+    private final String tradingSymbol;  // NIFTY-Jan2026-23700-PE
+    private final String customSymbol;   // NIFTY 27 JAN 23700 PUT
+    private final int securityId;        // SEM_SMST_SECURITY_ID
+    private final int expiryDay;         // epoch day, InstrumentMaster.NO_EXPIRY if none
+    private final double strike;
+    private final double tickSize;       // in rupees (0.05 etc.)
+    private final int lotSize;
+
+    private final short underlying;      // NIFTY, BANKNIFTY, SBIN...
+    private final short exchangeId;      // NSE
+    private final short instrumentName;  // OPTIDX / OPTSTK
+    private final short instrumentType;  // OP
+    private final byte segment;          // D
+    private final byte optionType;       // InstrumentMaster.CE / PE
+    private final byte expiryFlag;       // M / W / etc., 0 if blank
 
-    private static LocalDate parseDate(String s) {
-        // try yyyy-MM-dd
-        try {
-            DateTimeFormatter f1 = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-            return LocalDate.parse(s, f1);
-        } catch (DateTimeParseException ignored) {}
+    OptionRow(InstrumentMaster master, int row, OptionDictionary dict) {
+        this.dict           = dict;
+        this.tradingSymbol  = master.tradingSymbol(row);
+        this.customSymbol   = master.customSymbol(row);
+        this.securityId     = master.securityId(row);
+        this.expiryDay      = master.expiryDay(row);
+        this.strike         = master.strike(row);
+        this.lotSize        = (int) master.lotUnits(row);
 
-        // try dd-MM-yyyy
-        try {
-            DateTimeFormatter f2 = DateTimeFormatter.ofPattern("dd-MM-yyyy");
-            return LocalDate.parse(s, f2);
-        } catch (DateTimeParseException ignored) {}
+        this.underlying     = dict.code(master.underlying(row));
+        this.exchangeId     = dict.code(master.exchange(row));
+        this.instrumentName = dict.code(master.instrumentName(row));
+        this.instrumentType = dict.code(master.instrumentType(row));
+        this.segment        = (byte) master.segment(row);
+        this.optionType     = master.optionType(row);
 
-        return null;
+        String flag         = master.expiryFlag(row);
+        this.expiryFlag     = flag.isEmpty() ? 0 : (byte) flag.charAt(0);
+
+        double tick         = master.tickSize(row);
+        this.tickSize       = Double.isNaN(tick) ? 0.05 : normalizeTick(tick);
     }
 
     // Dhan CSV uses tick "5" for 5 paise → 0.05 rupees
-    private static double parseTick(String s) {
-        double raw = Double.parseDouble(s);
+    private static double normalizeTick(double raw) {
         if (raw > 1.0) {
             return raw / 100.0;
         }
         return raw;
     }
+
+    // ------------------------------------------------------------------------
+    // ACCESSORS
+    // ------------------------------------------------------------------------
+
+    public String underlying()      { return dict.value(underlying); }
+    public String tradingSymbol()   { return tradingSymbol; }
+    public String customSymbol()    { return customSymbol; }
+    public String exchangeId()      { return dict.value(exchangeId); }
+    public String instrumentName()  { return dict.value(instrumentName); }
+    public String instrumentType()  { return dict.value(instrumentType); }
+    public double strike()          { return strike; }
+    public double tickSize()        { return tickSize; }
+    public int lotSize()            { return lotSize; }
+    public int expiryDay()          { return expiryDay; }
+    public int numericSecurityId()  { return securityId; }
+
+    public String securityId() {
+        return String.valueOf(securityId);
+    }
+
+    public String segment() {
+        return String.valueOf((char) segment);
+    }
+
+    public boolean hasExpiry() {
+        return expiryDay != InstrumentMaster.NO_EXPIRY;
+    }
+
+    public LocalDate expiry() {
+        return hasExpiry() ? LocalDate.ofEpochDay(expiryDay) : null;
+    }
+
+    public boolean isCall() {
+        return optionType == InstrumentMaster.CE;
+    }
+
+    public boolean isPut() {
+        return optionType == InstrumentMaster.PE;
+    }
+
+    /** CE / PE, empty if the master had neither. */
+    public String optionType() {
+        return isCall() ? "CE" : isPut() ? "PE" : "";
+    }
+
+    public String expiryFlag() {
+        return expiryFlag == 0 ? "" : String.valueOf((char) expiryFlag);
+    }
+
+    /** Monthly series: flagged M, or no flag at all. */
+    public boolean isMonthly() {
+        return expiryFlag == 0 || expiryFlag == 'M' || expiryFlag == 'm';
+    }
 }
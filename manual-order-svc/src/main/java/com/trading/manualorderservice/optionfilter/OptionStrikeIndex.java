@@ -0,0 +1,171 @@
+package com.trading.manualorderservice.optionfilter;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Option contracts indexed by (underlying, CE/PE, expiry) → strike ladder.
+ *
+ * Each ladder keeps its strikes as a sorted {@code double[]} with the
+ * contracts in a parallel array and the strike step precomputed, so strike
+ * resolution is a binary search instead of a scan over every contract of the
+ * underlying. Built once per master load, immutable afterwards.
+ */
+public final class OptionStrikeIndex {
+
+    static final OptionStrikeIndex EMPTY = new OptionStrikeIndex(Map.of(), Map.of());
+
+    /** All strikes of one (underlying, type, expiry). */
+    public static final class Ladder {
+
+        public final String underlying;
+        public final boolean call;
+        public final LocalDate expiry;
+        /** Smallest gap between neighbouring strikes (50 when only one strike). */
+        public final double step;
+
+        private final double[] strikes;
+        private final OptionRow[] contracts;
+
+        Ladder(String underlying, boolean call, LocalDate expiry, double[] strikes, OptionRow[] contracts) {
+            this.underlying = underlying;
+            this.call = call;
+            this.expiry = expiry;
+            this.strikes = strikes;
+            this.contracts = contracts;
+
+            double s = Double.MAX_VALUE;
+            for (int i = 1; i < strikes.length; i++) s = Math.min(s, strikes[i] - strikes[i - 1]);
+            this.step = strikes.length > 1 ? s : 50;
+        }
+
+        public int size() {
+            return strikes.length;
+        }
+
+        public double strike(int i) {
+            return strikes[i];
+        }
+
+        public OptionRow contract(int i) {
+            return contracts[i];
+        }
+
+        /** Position of the strike closest to {@code price} (lower strike on a tie). */
+        public int nearestIndex(double price) {
+            int i = Arrays.binarySearch(strikes, price);
+            if (i >= 0) return i;
+
+            int hi = -i - 1;
+            if (hi == 0) return 0;
+            if (hi == strikes.length) return strikes.length - 1;
+            return (price - strikes[hi - 1]) <= (strikes[hi] - price) ? hi - 1 : hi;
+        }
+
+        public OptionRow nearest(double price) {
+            return contracts[nearestIndex(price)];
+        }
+
+        /** Contract at exactly this strike, or null. */
+        public OptionRow at(double strike) {
+            int i = Arrays.binarySearch(strikes, strike);
+            return i >= 0 ? contracts[i] : null;
+        }
+
+        /**
+         * ATM / ITM / OTM contract for a spot: the ATM strike is the spot rounded
+         * to the step, ITM / OTM one step in the money / out of the money.
+         */
+        public OptionRow select(double spot, String moneyness) {
+            double atm = Math.round(spot / step) * step;
+            double target = switch (moneyness.toUpperCase()) {
+                case "OTM" -> call ? atm + step : atm - step;
+                case "ITM" -> call ? atm - step : atm + step;
+                default -> atm;
+            };
+            return nearest(target);
+        }
+    }
+
+    private record Key(String underlying, boolean call, int expiryDay) {}
+
+    private final Map<Key, Ladder> byKey;
+    /** "UNDERLYING:CE" → ladders ordered by expiry. */
+    private final Map<String, List<Ladder>> byUnderlyingType;
+
+    private OptionStrikeIndex(Map<Key, Ladder> byKey, Map<String, List<Ladder>> byUnderlyingType) {
+        this.byKey = byKey;
+        this.byUnderlyingType = byUnderlyingType;
+    }
+
+    // ------------------------------------------------------------------------
+    // BUILD
+    // ------------------------------------------------------------------------
+
+    static OptionStrikeIndex build(Map<String, List<OptionRow>> optionsByUnderlying) {
+        Map<Key, List<OptionRow>> groups = new HashMap<>();
+
+        for (List<OptionRow> rows : optionsByUnderlying.values()) {
+            for (OptionRow r : rows) {
+                if (!r.hasExpiry() || !(r.isCall() || r.isPut())) continue;
+                groups.computeIfAbsent(new Key(r.underlying(), r.isCall(), r.expiryDay()), k -> new ArrayList<>()).add(r);
+            }
+        }
+
+        Map<Key, Ladder> byKey = new HashMap<>(groups.size() * 2);
+        Map<String, List<Ladder>> byUnderlyingType = new HashMap<>();
+
+        for (Map.Entry<Key, List<OptionRow>> e : groups.entrySet()) {
+            Key k = e.getKey();
+            List<OptionRow> rows = e.getValue();
+            rows.sort(Comparator.comparingDouble(OptionRow::strike));
+
+            double[] strikes = new double[rows.size()];
+            OptionRow[] contracts = new OptionRow[rows.size()];
+            int n = 0;
+            for (OptionRow r : rows) {
+                if (n > 0 && strikes[n - 1] == r.strike()) continue;   // duplicate listing
+                strikes[n] = r.strike();
+                contracts[n] = r;
+                n++;
+            }
+
+            Ladder ladder = new Ladder(k.underlying(), k.call(), LocalDate.ofEpochDay(k.expiryDay()),
+                    Arrays.copyOf(strikes, n), Arrays.copyOf(contracts, n));
+            byKey.put(k, ladder);
+            byUnderlyingType.computeIfAbsent(typeKey(k.underlying(), k.call()), x -> new ArrayList<>()).add(ladder);
+        }
+
+        byUnderlyingType.replaceAll((x, list) -> {
+            list.sort(Comparator.comparing(l -> l.expiry));
+            return List.copyOf(list);
+        });
+        return new OptionStrikeIndex(Map.copyOf(byKey), Map.copyOf(byUnderlyingType));
+    }
+
+    private static String typeKey(String underlying, boolean call) {
+        return underlying + (call ? ":CE" : ":PE");
+    }
+
+    // ------------------------------------------------------------------------
+    // LOOKUP
+    // ------------------------------------------------------------------------
+
+    public Optional<Ladder> ladder(String underlying, String optionType, LocalDate expiry) {
+        if (expiry == null) return Optional.empty();
+        return Optional.ofNullable(byKey.get(new Key(underlying.toUpperCase(), isCall(optionType), (int) expiry.toEpochDay())));
+    }
+
+    /** Every ladder of one underlying and type, ordered by expiry. */
+    public List<Ladder> ladders(String underlying, String optionType) {
+        return byUnderlyingType.getOrDefault(typeKey(underlying.toUpperCase(), isCall(optionType)), List.of());
+    }
+
+    public int size() {
+        return byKey.size();
+    }
+
+    private static boolean isCall(String optionType) {
+        return "CE".equalsIgnoreCase(optionType);
+    }
+}
@@ -0,0 +1,269 @@
+package com.trading.manualorderservice.orderupdate;
+
+import com.trading.manualorderservice.dto.DhanOrderBookResponse;
+import com.trading.shareddto.entity.BrokerUserDetails;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.*;
+import org.json.JSONObject;
+
+import java.util.Locale;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Dhan live order-update WebSocket of one trading account.
+ *
+ * Logs in with the account's token (MsgCode 42) and turns every
+ * {@code order_alert} into a {@link DhanOrderBookResponse}, the same shape the
+ * REST order book returns. The stream only counts as connected once the
+ * server has answered the login with a valid message; a login error closes
+ * it. Reconnects with full-jitter exponential backoff, like the market feed
+ * shards.
+ */
+@Slf4j
+class OrderUpdateConnection {
+
+    private static final String ORDER_UPDATE_URL = "wss://api-order-update.dhan.co";
+    private static final int LOGIN_MSG_CODE = 42;
+
+    private static final long BACKOFF_BASE_MS = 500;
+    private static final long BACKOFF_MAX_MS  = 30_000;
+
+    final Long userId;
+
+    private final OkHttpClient client;
+    private final ScheduledExecutorService scheduler;
+    private final Consumer<DhanOrderBookResponse> sink;
+
+    private volatile BrokerUserDetails creds;
+    /** Set from the listener callbacks — OkHttp may call them before newWebSocket returns. */
+    private volatile WebSocket webSocket;
+    /** Listener of the latest connect attempt; callbacks of older ones are ignored. */
+    private volatile Listener current;
+    private volatile boolean open = false;
+    private volatile boolean running = false;
+    private volatile boolean reconnectPending = false;
+    private volatile long lastUsedMs = System.currentTimeMillis();
+    private int attempt = 0;
+
+    OrderUpdateConnection(BrokerUserDetails creds,
+                          OkHttpClient client,
+                          ScheduledExecutorService scheduler,
+                          Consumer<DhanOrderBookResponse> sink) {
+        this.userId = creds.getUserId();
+        this.creds = creds;
+        this.client = client;
+        this.scheduler = scheduler;
+        this.sink = sink;
+    }
+
+    // ------------------------------------------------------------------------
+    // LIFECYCLE
+    // ------------------------------------------------------------------------
+
+    synchronized void start() {
+        if (running) return;
+        running = true;
+        connect();
+    }
+
+    synchronized void stop() {
+        running = false;
+        open = false;
+        WebSocket ws = webSocket;
+        if (ws != null) {
+            log.info("🛑 Closing order-update stream of user {}", userId);
+            ws.close(1000, "Shutdown");
+        }
+    }
+
+    /** Newer credentials are used from the next (re)connect on. */
+    void touch(BrokerUserDetails latest) {
+        if (latest != null) creds = latest;
+        lastUsedMs = System.currentTimeMillis();
+    }
+
+    long lastUsedMs() {
+        return lastUsedMs;
+    }
+
+    boolean isConnected() {
+        return open;
+    }
+
+    private void connect() {
+        if (!running) return;
+
+        try {
+            Request request = new Request.Builder()
+                    .url(ORDER_UPDATE_URL)
+                    .build();
+
+            Listener listener = new Listener();
+            current = listener;
+            client.newWebSocket(request, listener);
+
+        } catch (Exception e) {
+            log.error("❌ Error creating order-update WebSocket for user {}: {}", userId, e.getMessage(), e);
+            scheduleReconnect();
+        }
+    }
+
+    private final class Listener extends WebSocketListener {
+
+        private boolean superseded() {
+            return this != current;
+        }
+
+        @Override
+        public void onOpen(WebSocket ws, Response resp) {
+            synchronized (OrderUpdateConnection.this) {
+                if (superseded() || !running) {
+                    ws.close(1000, "Superseded");
+                    return;
+                }
+                webSocket = ws;
+            }
+
+            BrokerUserDetails c = creds;
+            JSONObject login = new JSONObject()
+                    .put("LoginReq", new JSONObject()
+                            .put("MsgCode", LOGIN_MSG_CODE)
+                            .put("ClientId", c.getClientId())
+                            .put("Token", c.getAccessToken()))
+                    .put("UserType", "SELF");
+            ws.send(login.toString());
+
+            // open only once the server answers the login (see onMessage)
+            log.info("🔐 Order-update stream of user {} connected, login sent. HTTP {}", userId, resp.code());
+        }
+
+        @Override
+        public void onMessage(WebSocket ws, String text) {
+            if (superseded()) return;
+            try {
+                JSONObject msg = new JSONObject(text);
+
+                if (isError(msg)) {
+                    log.error("❌ Order-update login of user {} refused: {}", userId, text);
+                    open = false;
+                    ws.close(1000, "Login failed");
+                    scheduleReconnect();
+                    return;
+                }
+
+                if (!open) {
+                    synchronized (OrderUpdateConnection.this) {
+                        attempt = 0;
+                        open = true;
+                    }
+                    log.info("✅ Order-update stream of user {} logged in", userId);
+                }
+
+                if (!"order_alert".equalsIgnoreCase(msg.optString("Type"))) {
+                    log.debug("Order-update stream of user {}: {}", userId, text);
+                    return;
+                }
+                JSONObject data = msg.optJSONObject("Data");
+                if (data != null) sink.accept(parse(data));
+            } catch (Exception e) {
+                log.error("❌ Failed to handle order update for user {}: {}", userId, e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public void onFailure(WebSocket ws, Throwable t, Response resp) {
+            if (superseded()) return;
+            webSocket = ws;
+            open = false;
+            if (!running) return;
+            String code = (resp != null) ? String.valueOf(resp.code()) : "no HTTP code";
+            log.error("❌ Order-update stream of user {} failure: {} (HTTP {})", userId, t.getMessage(), code);
+            scheduleReconnect();
+        }
+
+        @Override
+        public void onClosing(WebSocket ws, int code, String reason) {
+            if (superseded()) return;
+            log.warn("⚠ Order-update stream of user {} closing: code={} reason={}", userId, code, reason);
+            open = false;
+            ws.close(code, reason);
+            if (running) {
+                scheduleReconnect();
+            }
+        }
+    }
+
+    /** Login / auth error frame (the stream never sends these for a healthy session). */
+    static boolean isError(JSONObject msg) {
+        String type = msg.optString("Type", "").toUpperCase(Locale.ROOT);
+        return type.contains("ERROR") || type.contains("FAIL")
+                || msg.has("ErrorCode") || msg.has("errorCode");
+    }
+
+    /**
+     * Full-jitter exponential backoff: uniform in [0, min(max, base · 2^attempt)].
+     */
+    private synchronized void scheduleReconnect() {
+        if (!running || reconnectPending) return;
+
+        long cap = Math.min(BACKOFF_MAX_MS, BACKOFF_BASE_MS << Math.min(attempt, 16));
+        long delay = ThreadLocalRandom.current().nextLong(cap + 1);
+        attempt++;
+        reconnectPending = true;
+
+        log.info("🔄 Reconnecting order-update stream of user {} in {} ms (attempt {})", userId, delay, attempt);
+        scheduler.schedule(() -> {
+            synchronized (this) {
+                reconnectPending = false;
+            }
+            connect();
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    // ------------------------------------------------------------------------
+    // PARSE
+    // ------------------------------------------------------------------------
+
+    /**
+     * order_alert Data → order-book shape; status as the REST API spells it
+     * (TRADED, PART_TRADED ...). Missing or blank numeric fields stay null,
+     * never 0, so they cannot overwrite real values on our rows.
+     */
+    static DhanOrderBookResponse parse(JSONObject d) {
+        DhanOrderBookResponse o = new DhanOrderBookResponse();
+        o.setOrderId(d.optString("OrderNo", null));
+        o.setDhanClientId(d.optString("ClientId", null));
+        o.setCorrelationId(d.optString("CorrelationId", null));
+        o.setOrderStatus(normalizeStatus(d.optString("Status", null)));
+        o.setTransactionType("S".equalsIgnoreCase(d.optString("TxnType")) ? "SELL" : "BUY");
+        o.setSecurityId(d.optString("SecurityId", null));
+        o.setTradingSymbol(d.optString("DisplayName", d.optString("Symbol", null)));
+        o.setQuantity(optInteger(d, "Quantity"));
+        o.setRemainingQuantity(optInteger(d, "RemainingQuantity"));
+        o.setFilledQty(optInteger(d, "TradedQty"));
+        o.setPrice(optDouble(d, "Price"));
+        o.setTriggerPrice(optDouble(d, "TriggerPrice"));
+        o.setAverageTradedPrice(optDouble(d, "AvgTradedPrice"));
+        o.setOmsErrorDescription(d.optString("ReasonDescription", null));
+        o.setUpdateTime(d.optString("LastUpdatedTime", null));
+        return o;
+    }
+
+    private static Double optDouble(JSONObject d, String key) {
+        if (d.isNull(key) || d.optString(key).isBlank()) return null;
+        double v = d.optDouble(key, Double.NaN);
+        return Double.isNaN(v) ? null : v;
+    }
+
+    private static Integer optInteger(JSONObject d, String key) {
+        Double v = optDouble(d, key);
+        return v == null ? null : v.intValue();
+    }
+
+    private static String normalizeStatus(String s) {
+        return s == null ? null : s.trim().toUpperCase(Locale.ROOT).replace(' ', '_');
+    }
+}
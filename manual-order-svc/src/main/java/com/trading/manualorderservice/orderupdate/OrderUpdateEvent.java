@@ -0,0 +1,15 @@
+package com.trading.manualorderservice.orderupdate;
+
+import com.trading.manualorderservice.dto.DhanOrderBookResponse;
+
+/**
+ * Published for every order update pushed by the broker.
+ *
+ * Listeners run on the account's WebSocket thread, in the order the broker
+ * sent the updates — keep them short.
+ */
+public record OrderUpdateEvent(
+        Long userId,
+        DhanOrderBookResponse order,   // order-book shape, status upper-cased
+        long receivedAtMs
+) {}
@@ -0,0 +1,103 @@
+package com.trading.manualorderservice.orderupdate;
+
+import com.trading.shareddto.entity.BrokerUserDetails;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Live order updates, one Dhan order-update WebSocket per trading account.
+ *
+ *  - An account is connected on first {@link #watch} (an order is about to
+ *    be placed, or the sync pass found working orders) and stays connected
+ *    while it has working orders.
+ *  - Every update is published as an {@link OrderUpdateEvent}; OrderSyncEngine
+ *    writes it to the order rows and OrderFillTracker completes entry fills.
+ *  - Accounts without working orders are disconnected after an idle period.
+ */
+@Slf4j
+@Component
+public class OrderUpdateStream {
+
+    private final ApplicationEventPublisher events;
+    private final boolean enabled;
+    private final long idleMs;
+
+    private final Map<Long, OrderUpdateConnection> connections = new ConcurrentHashMap<>();
+
+    private final OkHttpClient client = new OkHttpClient.Builder()
+            .pingInterval(10, TimeUnit.SECONDS)
+            .connectTimeout(10, TimeUnit.SECONDS)
+            .readTimeout(0, TimeUnit.MILLISECONDS) // keep streaming
+            .build();
+
+    private final ScheduledExecutorService reconnectScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "order-update-reconnect");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public OrderUpdateStream(ApplicationEventPublisher events,
+                             @Value("${orders.update-stream.enabled:true}") boolean enabled,
+                             @Value("${orders.update-stream.idle-minutes:30}") long idleMinutes) {
+        this.events = events;
+        this.enabled = enabled;
+        this.idleMs = TimeUnit.MINUTES.toMillis(idleMinutes);
+
+        if (!enabled) {
+            log.info("⚪ Order-update stream disabled — order status comes from REST sync only");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        connections.values().forEach(OrderUpdateConnection::stop);
+        connections.clear();
+        reconnectScheduler.shutdownNow();
+    }
+
+    /** Make sure the account's stream is up (no-op if it already is). */
+    public void watch(BrokerUserDetails creds) {
+        if (!enabled || creds == null) return;
+
+        OrderUpdateConnection c = connections.computeIfAbsent(creds.getUserId(), id -> {
+            OrderUpdateConnection conn = new OrderUpdateConnection(creds, client, reconnectScheduler,
+                    order -> events.publishEvent(new OrderUpdateEvent(id, order, System.currentTimeMillis())));
+            conn.start();
+            return conn;
+        });
+        c.touch(creds);
+    }
+
+    public boolean isConnected(Long userId) {
+        OrderUpdateConnection c = userId != null ? connections.get(userId) : null;
+        return c != null && c.isConnected();
+    }
+
+    /**
+     * Close streams of accounts that have no working orders and were not
+     * watched within the idle period.
+     */
+    public void closeIdle(Set<Long> activeUserIds) {
+        long now = System.currentTimeMillis();
+        connections.values().removeIf(c -> {
+            if (activeUserIds.contains(c.userId) || now - c.lastUsedMs() < idleMs) return false;
+            c.stop();
+            return true;
+        });
+    }
+
+    public int connectionCount() {
+        return connections.size();
+    }
+}
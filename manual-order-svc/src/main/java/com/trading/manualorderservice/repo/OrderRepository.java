@@ -3,15 +3,21 @@ package com.trading.manualorderservice.repo;
 import com.trading.manualorderservice.entity.OrderEntity;
 import com.trading.manualorderservice.entity.OrderRole;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<OrderEntity, Long> {
 
     List<OrderEntity> findByParentOrderIdAndRole(Long parentId, OrderRole role);
 
+    Optional<OrderEntity> findFirstByBrokerOrderId(String brokerOrderId);
+
     /**
      * All entries where SL or TGT monitoring is needed (OCO).
      * Not restricted by trailing mode.
@@ -75,6 +81,19 @@ ORDER BY e.createdAt DESC
     OrderEntity findActiveTargetOrder(@Param("entryId") Long entryId);
 
 
+    /**
+     * All working SL / TARGET legs (used to derive OCO price levels).
+     */
+    @Query("""
+       SELECT o FROM OrderEntity o
+       WHERE o.role IN (com.trading.manualorderservice.entity.OrderRole.STOPLOSS,
+                        com.trading.manualorderservice.entity.OrderRole.TARGET)
+         AND o.parentOrderId IS NOT NULL
+         AND o.orderStatus IN ('OPEN','PENDING','TRIGGER_PENDING','RECEIVED')
+       """)
+    List<OrderEntity> findActiveExitOrders();
+
+
     /**
      * Check if SL is filled.
      */
@@ -82,7 +101,7 @@ ORDER BY e.createdAt DESC
        SELECT o FROM OrderEntity o
        WHERE o.parentOrderId = :entryId
          AND o.role = com.trading.manualorderservice.entity.OrderRole.STOPLOSS
-         AND o.orderStatus IN ('FILLED','COMPLETED','EXECUTED')
+         AND o.orderStatus IN ('TRADED','FILLED','COMPLETED','EXECUTED')
        """)
     OrderEntity findFilledSlOrder(@Param("entryId") Long entryId);
 
@@ -94,7 +113,7 @@ ORDER BY e.createdAt DESC
        SELECT o FROM OrderEntity o
        WHERE o.parentOrderId = :entryId
          AND o.role = com.trading.manualorderservice.entity.OrderRole.TARGET
-         AND o.orderStatus IN ('FILLED','COMPLETED','EXECUTED')
+         AND o.orderStatus IN ('TRADED','FILLED','COMPLETED','EXECUTED')
        """)
     OrderEntity findFilledTargetOrder(@Param("entryId") Long entryId);
 
@@ -134,4 +153,165 @@ WHERE e.role = com.trading.manualorderservice.entity.OrderRole.ENTRY
 """)
     List<OrderEntity> findActiveEntriesWithTrailingRaw();
 
+
+
+    // ------------------------------------------------------------------------
+    // Partial updates: one UPDATE of the changed columns, no load + merge.
+    // Join the caller's transaction when there is one.
+    // ------------------------------------------------------------------------
+
+    @Transactional
+    @Modifying
+    @Query("""
+       UPDATE OrderEntity o
+          SET o.orderStatus = :status, o.remark = :remark, o.updatedAt = :now
+        WHERE o.id = :id
+       """)
+    int updateStatus(@Param("id") Long id,
+                     @Param("status") String status,
+                     @Param("remark") String remark,
+                     @Param("now") Instant now);
+
+    /**
+     * Status of all SL / TARGET legs of an entry.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+       UPDATE OrderEntity o
+          SET o.orderStatus = :status, o.updatedAt = :now
+        WHERE o.parentOrderId = :entryId
+       """)
+    int updateLegStatus(@Param("entryId") Long entryId,
+                        @Param("status") String status,
+                        @Param("now") Instant now);
+
+    /**
+     * Quantity of all SL / TARGET legs of an entry (sized to its fill).
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+       UPDATE OrderEntity o
+          SET o.quantity = :quantity, o.updatedAt = :now
+        WHERE o.parentOrderId = :entryId
+       """)
+    int updateLegQuantity(@Param("entryId") Long entryId,
+                          @Param("quantity") Integer quantity,
+                          @Param("now") Instant now);
+
+    /**
+     * Order accepted (or refused) by the broker.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+       UPDATE OrderEntity o
+          SET o.brokerOrderId = :brokerOrderId, o.orderStatus = :status,
+              o.remark = :remark, o.updatedAt = :now
+        WHERE o.id = :id
+       """)
+    int markSent(@Param("id") Long id,
+                 @Param("brokerOrderId") String brokerOrderId,
+                 @Param("status") String status,
+                 @Param("remark") String remark,
+                 @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("""
+       UPDATE OrderEntity o
+          SET o.filledQuantity = :filledQuantity, o.averageTradedPrice = :averageTradedPrice,
+              o.updatedAt = :now
+        WHERE o.id = :id
+       """)
+    int updateFill(@Param("id") Long id,
+                   @Param("filledQuantity") Integer filledQuantity,
+                   @Param("averageTradedPrice") Double averageTradedPrice,
+                   @Param("now") Instant now);
+
+    /**
+     * Entry filled: status plus the broker's fill in one statement.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+       UPDATE OrderEntity o
+          SET o.orderStatus = :status, o.filledQuantity = :filledQuantity,
+              o.averageTradedPrice = :averageTradedPrice, o.updatedAt = :now
+        WHERE o.id = :id
+       """)
+    int markFilled(@Param("id") Long id,
+                   @Param("status") String status,
+                   @Param("filledQuantity") Integer filledQuantity,
+                   @Param("averageTradedPrice") Double averageTradedPrice,
+                   @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("""
+       UPDATE OrderEntity o
+          SET o.slPrice = :slPrice, o.triggerPrice = :triggerPrice,
+              o.remark = :remark, o.updatedAt = :now
+        WHERE o.id = :id
+       """)
+    int updateSlPrices(@Param("id") Long id,
+                       @Param("slPrice") Double slPrice,
+                       @Param("triggerPrice") Double triggerPrice,
+                       @Param("remark") String remark,
+                       @Param("now") Instant now);
+
+    /**
+     * Switch trailing off (and forget the swing watermarks); status is kept
+     * when {@code status} is null.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+       UPDATE OrderEntity o
+          SET o.orderStatus = COALESCE(:status, o.orderStatus),
+              o.trailingPercent = 0.0, o.highestLtp = NULL, o.lowestLtp = NULL,
+              o.remark = :remark, o.updatedAt = :now
+        WHERE o.id = :id
+       """)
+    int stopTrailing(@Param("id") Long id,
+                     @Param("status") String status,
+                     @Param("remark") String remark,
+                     @Param("now") Instant now);
+
+    /**
+     * Swing watermarks of a trailing ENTRY. Entries whose trailing was
+     * switched off in the meantime are left alone.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+       UPDATE OrderEntity o
+          SET o.highestLtp = :highestLtp, o.lowestLtp = :lowestLtp, o.updatedAt = :now
+        WHERE o.id = :id
+          AND o.trailingPercent > 0
+       """)
+    int updateWatermarks(@Param("id") Long id,
+                         @Param("highestLtp") Double highestLtp,
+                         @Param("lowestLtp") Double lowestLtp,
+                         @Param("now") Instant now);
+
+    /**
+     * Trailed SL level plus watermarks of a trailing ENTRY; same guard as
+     * {@link #updateWatermarks}.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+       UPDATE OrderEntity o
+          SET o.slPrice = :slPrice, o.highestLtp = :highestLtp, o.lowestLtp = :lowestLtp,
+              o.updatedAt = :now
+        WHERE o.id = :id
+          AND o.trailingPercent > 0
+       """)
+    int updateTrailedSl(@Param("id") Long id,
+                        @Param("slPrice") Double slPrice,
+                        @Param("highestLtp") Double highestLtp,
+                        @Param("lowestLtp") Double lowestLtp,
+                        @Param("now") Instant now);
 }
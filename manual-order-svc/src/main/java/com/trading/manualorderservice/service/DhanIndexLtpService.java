@@ -4,6 +4,7 @@ import com.trading.manualorderservice.marketfeed.IndexLtpCache;
 import com.trading.shareddto.entity.BrokerUserDetails;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.json.JSONObject;
 import org.json.JSONArray;
@@ -21,6 +22,9 @@ public class DhanIndexLtpService {
 
     private static final String LTP_URL = "https://api.dhan.co/v2/marketfeed/ltp";
 
+    @Value("${market.replay.enabled:false}")
+    private boolean replayMode;
+
     public double getIndexLtp(String index) throws Exception {
         String key = index.toUpperCase();
 
@@ -29,19 +33,21 @@ public class DhanIndexLtpService {
             return cache.get(key).get();
         }
 
-        // 2️⃣ REST fallback
+        // 2️⃣ REST fallback (never during a replay)
+        if (replayMode) {
+            throw new IllegalStateException("No replayed LTP for index " + key);
+        }
         log.warn("⚠ Index LTP not available from WS. Fetching via REST… {}", key);
 
         BrokerUserDetails creds = credentialProvider.getSystemUser();
 
-        String secId = switch (key) {
-            case "NIFTY" -> "7";
-            case "BANKNIFTY" -> "25";
-            default -> throw new IllegalArgumentException("Unknown index: " + index);
-        };
+        // Same IDX_I id the WebSocket cache stores the index under
+        int idxId = cache.securityIdOf(key);
+        if (idxId < 0) throw new IllegalArgumentException("Unknown index: " + index);
+        String secId = String.valueOf(idxId);
 
         JSONObject body = new JSONObject()
-                .put("IDX_I", new JSONArray().put(Integer.parseInt(secId)));
+                .put("IDX_I", new JSONArray().put(idxId));
 
         HttpClient http = HttpClient.newHttpClient();
 
@@ -2,6 +2,8 @@ package com.trading.manualorderservice.service;
 
 import com.trading.manualorderservice.dto.IvRequestDto;
 import com.trading.manualorderservice.dto.IvResponseDto;
+import com.trading.manualorderservice.optionfilter.OptionChain;
+import com.trading.manualorderservice.optionfilter.OptionChainService;
 import com.trading.manualorderservice.optionfilter.OptionOrderHelper;
 import com.trading.manualorderservice.optionfilter.OptionRow;
 import com.trading.shareddto.entity.BrokerUserDetails;
@@ -9,8 +11,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.time.YearMonth;
-import java.util.*;
+import java.time.LocalDate;
 
 @Service
 @RequiredArgsConstructor
@@ -20,6 +21,7 @@ public class IvService {
     private final OptionOrderHelper optionHelper;
     private final DhanCredentialService credentialService;
     private final DhanAllApis dhanApis;
+    private final OptionChainService chainService;
 
     /**
      * Main entry point
@@ -37,17 +39,37 @@ public class IvService {
         double spot = determineSpot(underlying, system);
 
         // Step 3 → find matching option contract (CE/PE + ATM)
-        OptionRow row = findOptionContract(underlying, optionType, moneyness, req.getDateInMonthYear(), spot);
+        LocalDate expiry = optionHelper.resolveExpiry(
+                underlying, req.getExpiryType(), req.getExpiry(), req.getDateInMonthYear());
+        OptionRow row = findOptionContract(underlying, optionType, moneyness, expiry, spot);
 
-        // Step 4 → call Dhan IV API
-        double iv = dhanApis.fetchIv(row.securityId, system);
+        // Step 4 → live chain first; Dhan IV API until the chain has ticked
+        double iv = ivFromChain(row);
+        if (Double.isNaN(iv)) {
+            iv = dhanApis.fetchIv(row.securityId(), system);
+        }
 
         return IvResponseDto.builder()
-                .option(row.customSymbol)
+                .option(row.customSymbol())
                 .iv(iv)
                 .build();
     }
 
+    /**
+     * IV of the contract from its live option chain, NaN if not known yet.
+     * Opens (and subscribes) the chain on first use.
+     */
+    private double ivFromChain(OptionRow row) {
+        try {
+            OptionChain chain = chainService.chain(row.underlying(), row.expiry());
+            int i = chain.indexOf(row.strike());
+            return i < 0 ? Double.NaN : chain.iv(i, row.isCall());
+        } catch (Exception e) {
+            log.warn("⚠ Option chain unavailable for {}: {}", row.customSymbol(), e.getMessage());
+            return Double.NaN;
+        }
+    }
+
     private double determineSpot(String underlying, BrokerUserDetails system) throws Exception {
         return optionHelper.resolveSpotPrice(
                 underlying,
@@ -62,31 +84,13 @@ public class IvService {
             String underlying,
             String optionType,
             String moneyness,
-            String expiryMonthYear,
+            LocalDate expiry,
             double spot
     ) {
-        List<OptionRow> all = optionHelper.getOptions(underlying);
-
-        List<OptionRow> filtered = all.stream()
-                .filter(r -> r.optionType.equalsIgnoreCase(optionType))
-                .toList();
-
-        YearMonth ym = YearMonth.parse(
-                expiryMonthYear.trim(),
-                OptionOrderHelper.getMonthFormatter()
-        );
-
-        List<OptionRow> monthRows = filtered.stream()
-                .filter(r -> r.expiry != null && YearMonth.from(r.expiry).equals(ym))
-                .toList();
-
-        double step = monthRows.get(1).strike - monthRows.get(0).strike;
-
-        double atmStrike = Math.round(spot / step) * step;
-
-        return monthRows.stream()
-                .min(Comparator.comparingDouble(r -> Math.abs(r.strike - atmStrike)))
-                .orElseThrow();
+        return optionHelper.getStrikeIndex()
+                .ladder(underlying, optionType, expiry)
+                .orElseThrow(() -> new RuntimeException("No " + optionType + " options for " + underlying + " " + expiry))
+                .select(spot, moneyness);
     }
 
 }
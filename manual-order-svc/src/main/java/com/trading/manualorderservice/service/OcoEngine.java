@@ -2,31 +2,96 @@ package com.trading.manualorderservice.service;
 
 import com.trading.manualorderservice.dhan.DhanOrderClient;
 import com.trading.manualorderservice.entity.OrderEntity;
+import com.trading.manualorderservice.entity.OrderRole;
+import com.trading.manualorderservice.market.InstrumentKey;
+import com.trading.manualorderservice.market.InstrumentMap;
+import com.trading.manualorderservice.market.MarketClock;
+import com.trading.manualorderservice.marketfeed.TickDispatcher;
+import com.trading.manualorderservice.marketfeed.TickEvent;
+import com.trading.manualorderservice.marketfeed.TickHandler;
 import com.trading.manualorderservice.repo.OrderRepository;
 import com.trading.shareddto.entity.BrokerUserDetails;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 @Service
 @Slf4j
 @RequiredArgsConstructor
-public class OcoEngine {
+public class OcoEngine implements TickHandler {
 
     private final OrderRepository orderRepository;
     private final DhanOrderClient dhanOrderClient;
     private final DhanCredentialService dhanCredentialService;
+    private final TickDispatcher tickDispatcher;
+    private final MarketClock clock;
+
+    /** Min gap between two tick-triggered checks of the same entry. */
+    private static final long CHECK_DEBOUNCE_MS = 1000;
+
+    /** SL / TARGET price levels of one monitored entry. */
+    record OcoLevels(Long entryId, boolean isLong, double slTrigger, double target) {
+
+        boolean crossed(double ltp) {
+            if (isLong) {
+                return (slTrigger > 0 && ltp <= slTrigger) || (target > 0 && ltp >= target);
+            }
+            return (slTrigger > 0 && ltp >= slTrigger) || (target > 0 && ltp <= target);
+        }
+    }
+
+    private volatile InstrumentMap<List<OcoLevels>> levelsByInstrument = InstrumentMap.empty();
+
+    private final Map<Long, Long> lastCheck = new ConcurrentHashMap<>();
+
+    /**
+     * Replay: replayed prices do not trigger checks (and broker cancels) of
+     * real orders; the DB-driven scan keeps running.
+     */
+    @Value("${market.replay.enabled:false}")
+    private boolean replayMode;
+
+    /** Broker cancels run here, never on the tick consumer thread. */
+    private final ExecutorService ocoExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "oco-check");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @PostConstruct
+    public void registerForTicks() {
+        tickDispatcher.register(this);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ocoExecutor.shutdown();
+    }
 
     /**
-     * Runs every 2 seconds.
-     * Checks if SL or TARGET has filled → cancel the other leg.
+     * Safety net, runs every 2 seconds.
+     * Checks if SL or TARGET has filled → cancel the other leg, and rebuilds
+     * the price levels that let ticks trigger an immediate check. Leg fills
+     * seen by OrderSyncEngine trigger a check right away ({@link #onLegFilled}).
      */
     @Scheduled(fixedDelay = 2000)
     public void runOcoMonitor() {
 
         var entries = orderRepository.findEntriesForOco();
-        if (entries.isEmpty()) return;
+        if (entries.isEmpty()) {
+            levelsByInstrument = InstrumentMap.empty();
+            return;
+        }
 
         for (OrderEntity entry : entries) {
             try {
@@ -35,6 +100,112 @@ public class OcoEngine {
                 log.error("❌ OCO error for entry {}: {}", entry.getId(), e.getMessage());
             }
         }
+
+        rebuildLevels(entries);
+    }
+
+    // ------------------------------------------------------------------------
+    // TICK PATH
+    // ------------------------------------------------------------------------
+
+    @Override
+    public String name() {
+        return "oco";
+    }
+
+    /** Only the latest price per entry matters; the DB scan covers anything skipped. */
+    @Override
+    public DeliveryMode deliveryMode() {
+        return DeliveryMode.CONFLATED;
+    }
+
+    @Override
+    public boolean isInterested(int segment, int securityId) {
+        return levelsByInstrument.containsKey(InstrumentKey.of(segment, securityId));
+    }
+
+    /**
+     * Price crossed an SL trigger or target → a leg has most likely filled,
+     * check that entry now instead of waiting for the next scan.
+     */
+    @Override
+    public void onTick(TickEvent tick) {
+        if (!tick.hasPrice()) return;
+
+        List<OcoLevels> levels = levelsByInstrument.get(InstrumentKey.of(tick.segment, tick.securityId));
+        if (levels == null) return;
+
+        for (OcoLevels l : levels) {
+            if (l.crossed(tick.ltp)) {
+                scheduleCheck(l.entryId());
+            }
+        }
+    }
+
+    private void scheduleCheck(Long entryId) {
+        if (replayMode) {
+            log.debug("🔁 [OCO][REPLAY] level crossed for entry {} (no check)", entryId);
+            return;
+        }
+
+        long now = clock.millis();
+        Long prev = lastCheck.get(entryId);
+        if (prev != null && now - prev < CHECK_DEBOUNCE_MS) return;
+        lastCheck.put(entryId, now);
+
+        ocoExecutor.execute(() -> check(entryId));
+    }
+
+    /**
+     * A SL / TARGET leg of this entry was just recorded as traded: cancel its
+     * sibling now instead of waiting for a crossing tick or the next scan.
+     */
+    public void onLegFilled(Long entryId) {
+        if (entryId == null) return;
+        lastCheck.put(entryId, clock.millis());
+        ocoExecutor.execute(() -> check(entryId));
+    }
+
+    private void check(Long entryId) {
+        orderRepository.findById(entryId).ifPresent(entry -> {
+            try {
+                handleOco(entry);
+            } catch (Exception e) {
+                log.error("❌ OCO error for entry {}: {}", entryId, e.getMessage());
+            }
+        });
+    }
+
+    private void rebuildLevels(List<OrderEntity> entries) {
+        Map<Long, OrderEntity> byId = new HashMap<>();
+        for (OrderEntity e : entries) byId.put(e.getId(), e);
+
+        Map<Long, double[]> prices = new HashMap<>();   // entryId → [slTrigger, target]
+        for (OrderEntity child : orderRepository.findActiveExitOrders()) {
+            if (!byId.containsKey(child.getParentOrderId())) continue;
+
+            double[] p = prices.computeIfAbsent(child.getParentOrderId(), k -> new double[2]);
+            if (child.getRole() == OrderRole.STOPLOSS) {
+                Double trg = child.getTriggerPrice() != null ? child.getTriggerPrice() : child.getSlPrice();
+                p[0] = trg != null ? trg : 0;
+            } else if (child.getRole() == OrderRole.TARGET) {
+                p[1] = child.getTargetPrice() != null ? child.getTargetPrice() : 0;
+            }
+        }
+
+        Map<Long, List<OcoLevels>> byInstrument = new HashMap<>();
+        prices.forEach((entryId, p) -> {
+            OrderEntity e = byId.get(entryId);
+            long key = InstrumentKey.of(e.getExchangeSegment(), e.getSecurityId());
+            if (key <= 0) return;
+
+            boolean isLong = "BUY".equalsIgnoreCase(e.getTransactionType());
+            byInstrument.computeIfAbsent(key, k -> new ArrayList<>())
+                    .add(new OcoLevels(entryId, isLong, p[0], p[1]));
+        });
+
+        levelsByInstrument = InstrumentMap.copyOf(byInstrument);
+        lastCheck.keySet().retainAll(byId.keySet());
     }
 
     private void handleOco(OrderEntity entry) {
@@ -61,7 +232,7 @@ public class OcoEngine {
 
             entry.setOrderStatus("COMPLETED");
             entry.setRemark("SL hit, target canceled");
-            orderRepository.save(entry);
+            orderRepository.updateStatus(entry.getId(), entry.getOrderStatus(), entry.getRemark(), Instant.now());
 
             return;
         }
@@ -76,7 +247,7 @@ public class OcoEngine {
 
             entry.setOrderStatus("COMPLETED");
             entry.setRemark("Target hit, SL canceled");
-            orderRepository.save(entry);
+            orderRepository.updateStatus(entry.getId(), entry.getOrderStatus(), entry.getRemark(), Instant.now());
         }
     }
 
@@ -91,7 +262,7 @@ public class OcoEngine {
 
             order.setOrderStatus(status);
             order.setRemark(reason + " → " + cancelRes.getRaw());
-            orderRepository.save(order);
+            orderRepository.updateStatus(order.getId(), order.getOrderStatus(), order.getRemark(), Instant.now());
 
             log.info("🟢 OCO: {} → Order {} cancelled", order.getRole(), order.getId());
 
@@ -99,7 +270,7 @@ public class OcoEngine {
 
             order.setOrderStatus("CANCEL_FAILED");
             order.setRemark("OCO cancel failed: " + e.getMessage());
-            orderRepository.save(order);
+            orderRepository.updateStatus(order.getId(), order.getOrderStatus(), order.getRemark(), Instant.now());
 
             log.error("❌ OCO cancel error for {} order {}: {}",
                     order.getRole(), order.getId(), e.getMessage());
@@ -9,17 +9,26 @@ import com.trading.manualorderservice.kafka.ManualTradeProducer;
 import com.trading.manualorderservice.market.LtpService;
 import com.trading.manualorderservice.marketfeed.IndexPollingService;
 import com.trading.manualorderservice.optionfilter.OptionOrderHelper;
+import com.trading.manualorderservice.orderupdate.OrderUpdateStream;
 import com.trading.manualorderservice.repo.OrderRepository;
 import com.trading.manualorderservice.stockfilter.DhanStockHelper;
 import com.trading.shareddto.entity.BrokerUserDetails;
 import com.trading.shareddto.shareddto.TradeDto;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -33,15 +42,46 @@ public class OrderBuildService {
     private final DhanStockHelper dhanStockHelper;
     private final IndexPollingService indexPollingService;
     private final LtpService ltpService;   // 🔹 NEW: cache-aware LTP service
+    private final OrderFillTracker fillTracker;
+    private final OrderUpdateStream orderUpdateStream;
+    private final OrderSyncEngine orderSyncEngine;
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
     private OptionOrderHelper optionHelper;
 
+    /** SL / TARGET legs of one entry, placed once the entry fills. */
+    private record PendingExits(OrderEntity entry, OrderEntity sl, OrderEntity target,
+                                double slPrice, double triggerPrice, double targetPrice) {}
+
+    /** Fill continuations (SL/TGT placement) run here, never on the thread that saw the fill. */
+    private final ExecutorService exitExecutor = Executors.newFixedThreadPool(4, r -> {
+        Thread t = new Thread(r, "order-exits");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** TARGET leg goes out from here while the continuation thread sends the SL. */
+    private final ExecutorService legExecutor = Executors.newFixedThreadPool(4, r -> {
+        Thread t = new Thread(r, "order-legs");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @PreDestroy
+    public void shutdown() {
+        exitExecutor.shutdown();
+        legExecutor.shutdown();
+    }
+
     public TradeDto buildOrder(Object reqObj, BrokerUserDetails creds, Long userId) throws Exception {
         ManualOrderController.Req req = (ManualOrderController.Req) reqObj;
 
         String workflow = Optional.ofNullable(req.workflow()).orElse("").toUpperCase();
 
+        // Fill + SL/TGT updates for this account arrive on its order-update stream
+        orderUpdateStream.watch(creds);
+
         return switch (workflow) {
             case "EQUITY_INTRADAY" -> buildEquityIntradayWithSlTarget(req, creds, userId);
             case "OPTION"          -> buildOptionWithSlTarget(req, creds, userId);
@@ -86,10 +126,20 @@ public class OrderBuildService {
         double slPrice     = roundToTick(rawSl, tick);
         double targetPrice = roundToTick(rawTgt, tick);
 
+        // 7️⃣ Trigger price according to DHAN rules
+        double triggerPrice;
+        if ("BUY".equalsIgnoreCase(req.transactionType())) {
+            // BUY → exit is SELL → trigger > limit
+            triggerPrice = slPrice + tick;
+        } else {
+            // SELL → exit is BUY → trigger < limit
+            triggerPrice = slPrice - tick;
+        }
+
         log.info("[EQ] {} LTP={} SL raw={}→{} TGT raw={}→{} tick={}",
                 symbol, entryPrice, rawSl, slPrice, rawTgt, targetPrice, tick);
 
-        // 7️⃣ Save ENTRY (MARKET)
+        // 8️⃣ ENTRY (MARKET)
         OrderEntity entry = OrderEntity.builder()
                 .userId(userId)
                 .workflow(req.workflow())
@@ -108,9 +158,8 @@ public class OrderBuildService {
                 .trailingPercent(trailingPct)
                 .orderStatus("NEW")
                 .build();
-        entry = orderRepository.save(entry);
 
-        // 8️⃣ SL (reverse side)
+        // 9️⃣ SL (reverse side)
         OrderEntity sl = OrderEntity.builder()
                 .userId(userId)
                 .workflow(req.workflow())
@@ -123,13 +172,11 @@ public class OrderBuildService {
                 .orderType("SL") // internal label in DB
                 .productType("INTRADAY")
                 .role(OrderRole.STOPLOSS)
-                .parentOrderId(entry.getId())
                 .slPrice(slPrice)
                 .orderStatus("NEW")
                 .build();
-        sl = orderRepository.save(sl);
 
-        // 9️⃣ TARGET (LIMIT)
+        // 🔟 TARGET (LIMIT)
         OrderEntity target = OrderEntity.builder()
                 .userId(userId)
                 .workflow(req.workflow())
@@ -142,13 +189,14 @@ public class OrderBuildService {
                 .orderType("LIMIT")
                 .productType("INTRADAY")
                 .role(OrderRole.TARGET)
-                .parentOrderId(entry.getId())
                 .targetPrice(targetPrice)
                 .orderStatus("NEW")
                 .build();
-        target = orderRepository.save(target);
+        persistBracket(entry, sl, target);
 
-        // 🔟 Place ENTRY (MARKET)
+        PendingExits exits = new PendingExits(entry, sl, target, slPrice, triggerPrice, targetPrice);
+
+        // 1️⃣1️⃣ Place ENTRY (MARKET)
         var entryResult = dhanOrderClient.placeOrder(
                 creds,
                 ExchangeSegment.NSE_EQ,
@@ -162,101 +210,34 @@ public class OrderBuildService {
         );
 
         if (!entryResult.isOk()) {
-            entry.setOrderStatus("FAILED");
-            entry.setRemark("Entry failed: " + entryResult.getRaw());
-            orderRepository.save(entry);
-
-            sl.setOrderStatus("CANCELLED");
-            target.setOrderStatus("CANCELLED");
-            orderRepository.save(sl);
-            orderRepository.save(target);
-
+            abandonExits(exits, "Entry failed: " + entryResult.getRaw());
             return minimalDto(req, entryPrice, userId, securityId);
         }
 
         entry.setBrokerOrderId(entryResult.getOrderId());
         entry.setOrderStatus(entryResult.getStatus());
         entry.setRemark("ENTRY sent to Dhan");
-        orderRepository.save(entry);
-
-        // 1️⃣1️⃣ Wait until ENTRY is FILLED
-        boolean filled = waitUntilOrderFilled(creds, entry.getBrokerOrderId());
-        if (!filled) {
-            entry.setOrderStatus("FAILED");
-            entry.setRemark("Entry not filled → SL/TGT cancelled");
-            orderRepository.save(entry);
-
-            sl.setOrderStatus("CANCELLED");
-            target.setOrderStatus("CANCELLED");
-            orderRepository.save(sl);
-            orderRepository.save(target);
-
-            return minimalDto(req, entryPrice, userId, securityId);
-        }
-
-        // ⭐ Mark entry as FILLED
-        entry.setOrderStatus("FILLED");
-        orderRepository.save(entry);
-
-        // 1️⃣2️⃣ Compute trigger price according to DHAN rules
-        double triggerPrice;
-        if ("BUY".equalsIgnoreCase(req.transactionType())) {
-            // BUY → exit is SELL → trigger > limit
-            triggerPrice = slPrice + tick;
-        } else {
-            // SELL → exit is BUY → trigger < limit
-            triggerPrice = slPrice - tick;
-        }
-
-        // 1️⃣3️⃣ Place SL (STOP_LOSS = limit + trigger)
-        var slResult = dhanOrderClient.placeOrder(
-                creds,
-                sl.getExchangeSegment(),
-                sl.getTransactionType(),
-                sl.getProductType(),
-                "STOP_LOSS",
-                securityId,
-                sl.getQuantity(),
-                slPrice,       // limit
-                triggerPrice   // trigger
-        );
+        orderRepository.markSent(entry.getId(), entry.getBrokerOrderId(), entry.getOrderStatus(),
+                entry.getRemark(), Instant.now());
+        orderSyncEngine.onBrokerOrderIdStored(entry.getBrokerOrderId());
 
-        if (slResult.isOk()) {
-            sl.setOrderStatus(slResult.getStatus());
-            sl.setBrokerOrderId(slResult.getOrderId());
-            sl.setRemark("SL placed");
-        } else {
-            sl.setOrderStatus("FAILED");
-            sl.setRemark("SL failed: " + slResult.getRaw());
-        }
-        orderRepository.save(sl);
+        // 1️⃣2️⃣ Once ENTRY fills: mark it, place SL + TARGET, publish
+        TradeDto dto = minimalDto(req, entryPrice, userId, securityId);
 
-        // 1️⃣4️⃣ Place TARGET (LIMIT)
-        var tgtResult = dhanOrderClient.placeOrder(
-                creds,
-                ExchangeSegment.NSE_EQ,
-                target.getTransactionType(),
-                "INTRADAY",
-                "LIMIT",
-                securityId,
-                req.quantity(),
-                targetPrice,
-                0.0
-        );
+        fillTracker.track(creds, entry.getBrokerOrderId())
+                .thenAcceptAsync(fill -> {
+                    if (!fill.filled()) {
+                        abandonExits(exits, "Entry " + fill.status() + " → SL/TGT cancelled");
+                        return;
+                    }
 
-        if (tgtResult.isOk()) {
-            target.setOrderStatus(tgtResult.getStatus());
-            target.setBrokerOrderId(tgtResult.getOrderId());
-            target.setRemark("Target placed");
-        } else {
-            target.setOrderStatus("FAILED");
-            target.setRemark("Target failed: " + tgtResult.getRaw());
-        }
-        orderRepository.save(target);
+                    // ⭐ Mark entry as FILLED (written before the legs go out)
+                    recordFill(exits.entry(), fill);
 
-        // 1️⃣5️⃣ Publish final event
-        TradeDto dto = minimalDto(req, entryPrice, userId, securityId);
-        manualTradeProducer.publishToKafka(dto);
+                    placeExits(creds, exits);
+                    manualTradeProducer.publishToKafka(dto);
+                }, exitExecutor)
+                .exceptionally(ex -> logExitFailure(exits, ex));
 
         return dto;
     }
@@ -280,6 +261,13 @@ public class OrderBuildService {
         );
 
         // 2️⃣ Build OPTION contract (securityId, tradingSymbol, qty, tickSize, etc.)
+        LocalDate expiry = optionHelper.resolveExpiry(
+                underlying,
+                req.expiryType(),
+                req.expiry(),
+                req.dateInMonthYear()
+        );
+
         Map<String, Object> tradeData = optionHelper.buildOrder(
                 underlying,
                 req.optionType(),
@@ -289,7 +277,7 @@ public class OrderBuildService {
                 req.placeOrderType(),
                 req.numberOfLots(),
                 spotPrice,
-                req.dateInMonthYear()
+                expiry
         );
 
         String securityId      = (String) tradeData.get("security_id");
@@ -328,7 +316,7 @@ public class OrderBuildService {
         log.info("[OPT] {} LTP={} SL raw={} -> {} (trigger={}) TGT raw={} -> {} tick={}",
                 tradingSymbol, entryPrice, rawSl, slPrice, triggerPrice, rawTgt, targetPrice, tick);
 
-        // 5️⃣ Persist ENTRY order
+        // 5️⃣ ENTRY order
         OrderEntity entry = OrderEntity.builder()
                 .userId(userId)
                 .workflow(req.workflow() != null ? req.workflow() : "OPTION")
@@ -347,9 +335,8 @@ public class OrderBuildService {
                 .trailingPercent(trailingPct)
                 .orderStatus("NEW")
                 .build();
-        entry = orderRepository.save(entry);
 
-        // 6️⃣ Persist SL order
+        // 6️⃣ SL order
         OrderEntity sl = OrderEntity.builder()
                 .userId(userId)
                 .workflow(entry.getWorkflow())
@@ -362,14 +349,12 @@ public class OrderBuildService {
                 .orderType("STOP_LOSS")
                 .productType(req.tradeType())
                 .role(OrderRole.STOPLOSS)
-                .parentOrderId(entry.getId())
                 .slPrice(slPrice)
                 .triggerPrice(triggerPrice)
                 .orderStatus("NEW")
                 .build();
-        sl = orderRepository.save(sl);
 
-        // 7️⃣ Persist TARGET order
+        // 7️⃣ TARGET order (all three persisted together)
         OrderEntity target = OrderEntity.builder()
                 .userId(userId)
                 .workflow(entry.getWorkflow())
@@ -382,11 +367,12 @@ public class OrderBuildService {
                 .orderType("LIMIT")
                 .productType(req.tradeType())
                 .role(OrderRole.TARGET)
-                .parentOrderId(entry.getId())
                 .targetPrice(targetPrice)
                 .orderStatus("NEW")
                 .build();
-        target = orderRepository.save(target);
+        persistBracket(entry, sl, target);
+
+        PendingExits exits = new PendingExits(entry, sl, target, slPrice, triggerPrice, targetPrice);
 
         // 8️⃣ Place ENTRY – MARKET
         var entryResult = dhanOrderClient.placeOrder(
@@ -401,90 +387,40 @@ public class OrderBuildService {
                 0.0
         );
 
-        if (!entryResult.isOk()) {
-            entry.setOrderStatus("FAILED");
-            entry.setRemark("Entry failed: " + entryResult.getRaw());
-            orderRepository.save(entry);
-
-            sl.setOrderStatus("CANCELLED");
-            target.setOrderStatus("CANCELLED");
-            orderRepository.save(sl);
-            orderRepository.save(target);
+        TradeDto dtoFailed = mapToTradeDto(tradeData, userId);
 
-            TradeDto dtoFailed = mapToTradeDto(tradeData, userId);
+        if (!entryResult.isOk()) {
+            abandonExits(exits, "Entry failed: " + entryResult.getRaw());
             manualTradeProducer.publishToKafka(dtoFailed);
             return dtoFailed;
         }
 
         entry.setBrokerOrderId(entryResult.getOrderId());
         entry.setOrderStatus(entryResult.getStatus());
-        orderRepository.save(entry);
+        orderRepository.markSent(entry.getId(), entry.getBrokerOrderId(), entry.getOrderStatus(),
+                entry.getRemark(), Instant.now());
+        orderSyncEngine.onBrokerOrderIdStored(entry.getBrokerOrderId());
 
-        // 9️⃣ Wait until ENTRY is filled before placing SL/TGT
-        boolean filled = waitUntilOrderFilled(creds, entry.getBrokerOrderId());
-        if (!filled) {
-            entry.setOrderStatus("FAILED");
-            entry.setRemark("Entry not filled, abort SL/Target");
-            orderRepository.save(entry);
+        // 9️⃣ Build TradeDto for downstream
+        tradeData.put("price", entryPrice);
+        TradeDto dto = mapToTradeDto(tradeData, userId);
 
-            sl.setOrderStatus("CANCELLED");
-            target.setOrderStatus("CANCELLED");
-            orderRepository.save(sl);
-            orderRepository.save(target);
+        // 🔟 Once ENTRY fills: place SL + TARGET, publish
+        fillTracker.track(creds, entry.getBrokerOrderId())
+                .thenAcceptAsync(fill -> {
+                    if (!fill.filled()) {
+                        abandonExits(exits, "Entry " + fill.status() + ", abort SL/Target");
+                        manualTradeProducer.publishToKafka(dtoFailed);
+                        return;
+                    }
 
-            TradeDto dtoFailed = mapToTradeDto(tradeData, userId);
-            manualTradeProducer.publishToKafka(dtoFailed);
-            return dtoFailed;
-        }
+                    recordFill(exits.entry(), fill);
 
-        // 🔟 Place SL
-        var slResult = dhanOrderClient.placeOrder(
-                creds,
-                exchangeSegment,
-                sl.getTransactionType(),
-                sl.getProductType(),
-                "STOP_LOSS",
-                securityId,
-                quantity,
-                slPrice,
-                triggerPrice
-        );
-        if (slResult.isOk()) {
-            sl.setOrderStatus(slResult.getStatus());
-            sl.setBrokerOrderId(slResult.getOrderId());
-            sl.setRemark("SL placed");
-        } else {
-            sl.setOrderStatus("FAILED");
-            sl.setRemark("SL failed: " + slResult.getRaw());
-        }
-        orderRepository.save(sl);
-
-        // 1️⃣1️⃣ Place TARGET – LIMIT
-        var tgtResult = dhanOrderClient.placeOrder(
-                creds,
-                exchangeSegment,
-                target.getTransactionType(),
-                target.getProductType(),
-                "LIMIT",
-                securityId,
-                quantity,
-                targetPrice,
-                0.0
-        );
-        if (tgtResult.isOk()) {
-            target.setOrderStatus(tgtResult.getStatus());
-            target.setBrokerOrderId(tgtResult.getOrderId());
-            target.setRemark("Target placed");
-        } else {
-            target.setOrderStatus("FAILED");
-            target.setRemark("Target failed: " + tgtResult.getRaw());
-        }
-        orderRepository.save(target);
+                    placeExits(creds, exits);
+                    manualTradeProducer.publishToKafka(dto);
+                }, exitExecutor)
+                .exceptionally(ex -> logExitFailure(exits, ex));
 
-        // 1️⃣2️⃣ Build TradeDto for downstream
-        tradeData.put("price", entryPrice);
-        TradeDto dto = mapToTradeDto(tradeData, userId);
-        manualTradeProducer.publishToKafka(dto);
         return dto;
     }
 
@@ -492,33 +428,151 @@ public class OrderBuildService {
     //                        HELPERS
     // ============================================================
 
-    private boolean waitUntilOrderFilled(BrokerUserDetails creds, String orderId) {
-
-        int maxChecks = 40;   // ~40 sec
-        int delay = 1000;     // 1 sec
-
-        for (int i = 0; i < maxChecks; i++) {
-
-            var status = dhanOrderClient.getOrderStatus(creds, orderId);
-
-            if (!status.isOk()) continue;
+    /**
+     * Place SL (STOP_LOSS = limit + trigger) and TARGET (LIMIT) for a filled
+     * entry. The entry's fill, and the legs sized to it, are written first;
+     * both legs are then sent concurrently (the position is unprotected for
+     * one broker round trip) and both results are stored in one transaction
+     * once both calls have returned.
+     */
+    private void placeExits(BrokerUserDetails creds, PendingExits p) {
+        OrderEntity entry = p.entry();
+        OrderEntity sl = p.sl();
+        OrderEntity target = p.target();
+
+        int qty = entry.getFilledQuantity();
+        sl.setQuantity(qty);
+        target.setQuantity(qty);
+
+        Instant filledAt = Instant.now();
+        transactionTemplate.executeWithoutResult(tx -> {
+            orderRepository.markFilled(entry.getId(), entry.getOrderStatus(),
+                    qty, entry.getAverageTradedPrice(), filledAt);
+            orderRepository.updateLegQuantity(entry.getId(), qty, filledAt);
+        });
+
+        CompletableFuture<DhanOrderClient.PlaceOrderResult> tgtLeg = CompletableFuture.supplyAsync(
+                () -> placeLeg(() -> dhanOrderClient.placeOrder(
+                        creds,
+                        target.getExchangeSegment(),
+                        target.getTransactionType(),
+                        target.getProductType(),
+                        "LIMIT",
+                        target.getSecurityId(),
+                        qty,
+                        p.targetPrice(),
+                        0.0)),
+                legExecutor);
+
+        DhanOrderClient.PlaceOrderResult slResult = placeLeg(() -> dhanOrderClient.placeOrder(
+                creds,
+                sl.getExchangeSegment(),
+                sl.getTransactionType(),
+                sl.getProductType(),
+                "STOP_LOSS",
+                sl.getSecurityId(),
+                qty,
+                p.slPrice(),       // limit
+                p.triggerPrice()   // trigger
+        ));
+
+        applyLegResult(sl, "SL", slResult);
+        applyLegResult(target, "Target", tgtLeg.join());   // placeLeg never throws
+
+        Instant now = Instant.now();
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                orderRepository.markSent(sl.getId(), sl.getBrokerOrderId(), sl.getOrderStatus(),
+                        sl.getRemark(), now);
+                orderRepository.markSent(target.getId(), target.getBrokerOrderId(), target.getOrderStatus(),
+                        target.getRemark(), now);
+            });
+        } catch (RuntimeException e) {
+            // Both legs are live at the broker; without their ids the sync engine cannot see them
+            log.error("❌ Storing legs of entry {} failed (SL={}, TGT={}): {}", entry.getId(),
+                    sl.getBrokerOrderId(), target.getBrokerOrderId(), e.getMessage());
+            throw e;
+        }
 
-            String s = status.getStatus().toUpperCase();
+        // Updates that arrived before the ids were stored
+        orderSyncEngine.onBrokerOrderIdStored(sl.getBrokerOrderId());
+        orderSyncEngine.onBrokerOrderIdStored(target.getBrokerOrderId());
+    }
 
-            log.info("⏳ ENTRY STATUS CHECK {} => {}", orderId, s);
+    /** Broker call of one leg; a thrown error becomes a failed result. */
+    private static DhanOrderClient.PlaceOrderResult placeLeg(Supplier<DhanOrderClient.PlaceOrderResult> call) {
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            return DhanOrderClient.PlaceOrderResult.builder()
+                    .ok(false)
+                    .status("FAILED")
+                    .raw(String.valueOf(e.getMessage()))
+                    .build();
+        }
+    }
 
-            if (s.contains("TRADED") || s.contains("FILLED") || s.contains("COMPLETED")) {
-                return true;
-            }
+    /** Copy one leg's broker outcome onto its entity; placeExits writes it. */
+    private static void applyLegResult(OrderEntity leg, String label, DhanOrderClient.PlaceOrderResult result) {
+        if (result.isOk()) {
+            leg.setOrderStatus(result.getStatus());
+            leg.setBrokerOrderId(result.getOrderId());
+            leg.setRemark(label + " placed");
+        } else {
+            leg.setOrderStatus("FAILED");
+            leg.setRemark(label + " failed: " + result.getRaw());
+        }
+    }
 
-            if (s.contains("REJECTED") || s.contains("CANCELLED")) {
-                return false;
-            }
+    /**
+     * ENTRY, SL and TARGET rows in one transaction. IDs come from the pooled
+     * order sequence, so the entry's id is known before anything is flushed
+     * and the three INSERTs go to the database as one JDBC batch.
+     */
+    private void persistBracket(OrderEntity entry, OrderEntity sl, OrderEntity target) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            orderRepository.save(entry);
+            sl.setParentOrderId(entry.getId());
+            target.setParentOrderId(entry.getId());
+            orderRepository.save(sl);
+            orderRepository.save(target);
+        });
+    }
 
-            try { Thread.sleep(delay); } catch (InterruptedException ignored) {}
+    /**
+     * Keep the broker's fill on the entry; placeExits writes it. The traded
+     * quantity is the broker's; only when it did not report one is the
+     * requested quantity assumed.
+     */
+    private void recordFill(OrderEntity entry, OrderFillTracker.Fill fill) {
+        entry.setOrderStatus("FILLED");
+        if (fill.filledQty() > 0) {
+            entry.setFilledQuantity(fill.filledQty());
+        } else {
+            log.warn("⚠️ Fill of entry {} carries no quantity, assuming requested {}", entry.getId(),
+                    entry.getQuantity());
+            entry.setFilledQuantity(entry.getQuantity());
         }
+        if (fill.tradedPrice() > 0) entry.setAverageTradedPrice(fill.tradedPrice());
+    }
+
+    /** Entry did not go through → mark it FAILED and cancel its SL/TGT rows. */
+    private void abandonExits(PendingExits p, String remark) {
+        p.entry().setOrderStatus("FAILED");
+        p.entry().setRemark(remark);
+        p.sl().setOrderStatus("CANCELLED");
+        p.target().setOrderStatus("CANCELLED");
+
+        Instant now = Instant.now();
+        transactionTemplate.executeWithoutResult(tx -> {
+            orderRepository.updateStatus(p.entry().getId(), "FAILED", remark, now);
+            orderRepository.updateLegStatus(p.entry().getId(), "CANCELLED", now);
+        });
+    }
 
-        return false;  // timed out
+    private Void logExitFailure(PendingExits p, Throwable ex) {
+        log.error("❌ SL/TGT placement failed for entry {}: {}", p.entry().getId(), ex.getMessage(), ex);
+        return null;
     }
 
     private double calculateRawSl(double entryPrice, double slPct, String side) {
@@ -0,0 +1,206 @@
+package com.trading.manualorderservice.service;
+
+import com.trading.manualorderservice.dhan.DhanOrderClient;
+import com.trading.manualorderservice.dto.DhanOrderBookResponse;
+import com.trading.manualorderservice.orderupdate.OrderUpdateEvent;
+import com.trading.manualorderservice.orderupdate.OrderUpdateStream;
+import com.trading.shareddto.entity.BrokerUserDetails;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pending entry orders waiting for their fill.
+ *
+ * {@link #track} hands out a future per broker order that completes when the
+ * order reaches TRADED, REJECTED or CANCELLED, or with TIMED_OUT after the
+ * fill timeout; callers chain their follow-up work (SL / target placement)
+ * onto it instead of holding a thread. Status changes come in through
+ * {@link #onOrderUpdate} from whichever source sees them first — normally
+ * the account's order-update stream. One shared poller asks the broker for
+ * pending orders: every {@code poll-ms} while the account's stream is down,
+ * every {@code streamed-poll-ms} as a cross-check while it is up.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderFillTracker {
+
+    private final DhanOrderClient dhanOrderClient;
+    private final OrderUpdateStream orderUpdateStream;
+
+    @Value("${orders.fill.timeout-ms:40000}")
+    private long timeoutMs;
+
+    @Value("${orders.fill.poll-ms:1000}")
+    private long pollMs;
+
+    @Value("${orders.fill.streamed-poll-ms:10000}")
+    private long streamedPollMs;
+
+    /** Terminal updates seen before their order was tracked are kept this long. */
+    private static final long EARLY_UPDATE_TTL_MS = 60_000;
+
+    public enum Outcome { FILLED, REJECTED, CANCELLED, TIMED_OUT }
+
+    /** {@code filledQty} is the broker's traded quantity, 0 when it did not say. */
+    public record Fill(String orderId, Outcome outcome, String status, double tradedPrice, int filledQty) {
+
+        public boolean filled() {
+            return outcome == Outcome.FILLED;
+        }
+    }
+
+    private static final class Pending {
+        final BrokerUserDetails creds;
+        final CompletableFuture<Fill> future = new CompletableFuture<>();
+        final long deadlineMs;
+        long nextPollMs;          // poller thread only
+
+        Pending(BrokerUserDetails creds, long deadlineMs, long nextPollMs) {
+            this.creds = creds;
+            this.deadlineMs = deadlineMs;
+            this.nextPollMs = nextPollMs;
+        }
+    }
+
+    private record Early(Fill fill, long seenAtMs) {}
+
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private final Map<String, Early> early = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "order-fill");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @PostConstruct
+    public void start() {
+        poller.scheduleWithFixedDelay(this::poll, pollMs, pollMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.shutdownNow();
+        pending.forEach((id, p) -> p.future.complete(new Fill(id, Outcome.TIMED_OUT, "SHUTDOWN", 0.0, 0)));
+        pending.clear();
+    }
+
+    // ------------------------------------------------------------------------
+    // API
+    // ------------------------------------------------------------------------
+
+    /** Future of the order's final state; completes on the thread that saw it. */
+    public CompletableFuture<Fill> track(BrokerUserDetails creds, String orderId) {
+        if (orderId == null || orderId.isBlank()) {
+            return CompletableFuture.completedFuture(new Fill(orderId, Outcome.REJECTED, "NO_ORDER_ID", 0.0, 0));
+        }
+
+        Early seen = early.remove(orderId);
+        if (seen != null) return CompletableFuture.completedFuture(seen.fill());
+
+        long now = System.currentTimeMillis();
+        Pending p = new Pending(creds, now + timeoutMs, now + pollMs);
+        pending.put(orderId, p);
+
+        // An update may have landed between the check above and the put
+        seen = early.remove(orderId);
+        if (seen != null && pending.remove(orderId, p)) p.future.complete(seen.fill());
+
+        return p.future;
+    }
+
+    @EventListener
+    public void onStreamUpdate(OrderUpdateEvent event) {
+        DhanOrderBookResponse o = event.order();
+        Double avg = o.getAverageTradedPrice();
+        Integer qty = o.getFilledQty();
+        onOrderUpdate(o.getOrderId(), o.getOrderStatus(), avg != null ? avg : 0.0, qty != null ? qty : 0);
+    }
+
+    /** Broker status for an order; working states are ignored. */
+    public void onOrderUpdate(String orderId, String status, double tradedPrice, int filledQty) {
+        if (orderId == null) return;
+
+        Outcome outcome = classify(status);
+        if (outcome == null) return;
+
+        // Part-filled then cancelled/expired: the traded part is an open position and needs its exits
+        if (outcome == Outcome.CANCELLED && filledQty > 0) outcome = Outcome.FILLED;
+
+        Fill fill = new Fill(orderId, outcome, status, tradedPrice, filledQty);
+        Pending p = pending.remove(orderId);
+        if (p == null) {
+            early.put(orderId, new Early(fill, System.currentTimeMillis()));
+            return;
+        }
+
+        log.info("✅ ENTRY {} → {} ({})", orderId, outcome, status);
+        p.future.complete(fill);
+    }
+
+    public boolean isTracking(String orderId) {
+        return orderId != null && pending.containsKey(orderId);
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    static Outcome classify(String status) {
+        if (status == null) return null;
+        String s = status.toUpperCase();
+
+        if (s.contains("TRADED") && !s.contains("PART")) return Outcome.FILLED;
+        if (s.contains("FILLED") || s.contains("COMPLETED")) return Outcome.FILLED;
+        if (s.contains("REJECTED")) return Outcome.REJECTED;
+        if (s.contains("CANCELLED") || s.contains("EXPIRED")) return Outcome.CANCELLED;
+        return null;
+    }
+
+    // ------------------------------------------------------------------------
+    // POLL / TIMEOUT
+    // ------------------------------------------------------------------------
+
+    private void poll() {
+        try {
+            long now = System.currentTimeMillis();
+
+            for (Map.Entry<String, Pending> e : pending.entrySet()) {
+                String orderId = e.getKey();
+                Pending p = e.getValue();
+
+                if (now >= p.deadlineMs) {
+                    if (pending.remove(orderId, p)) {
+                        log.warn("⏳ ENTRY {} not filled within {} ms", orderId, timeoutMs);
+                        p.future.complete(new Fill(orderId, Outcome.TIMED_OUT, "TIMEOUT", 0.0, 0));
+                    }
+                    continue;
+                }
+
+                if (now < p.nextPollMs) continue;
+                boolean streamed = orderUpdateStream.isConnected(p.creds.getUserId());
+                p.nextPollMs = now + (streamed ? streamedPollMs : pollMs);
+
+                var status = dhanOrderClient.getOrderStatus(p.creds, orderId);
+                if (status.isOk()) onOrderUpdate(orderId, status.getStatus(), status.getTradedPrice(), status.getFilledQty());
+            }
+
+            early.values().removeIf(x -> now - x.seenAtMs() > EARLY_UPDATE_TTL_MS);
+        } catch (Exception e) {
+            log.error("❌ Order fill poll failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.trading.manualorderservice.service;
+
+import com.trading.manualorderservice.controller.ManualOrderController;
+import com.trading.shareddto.entity.BrokerUserDetails;
+import com.trading.shareddto.shareddto.TradeDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs /buildProcess submissions on a bounded order executor instead of the
+ * servlet thread.
+ *
+ * A fixed pool of {@code orders.executor.threads} workers drains a queue of at
+ * most {@code orders.executor.queue-capacity} submissions; once the queue is
+ * full {@link #submit} throws {@link RejectedExecutionException} (HTTP 429).
+ * Every submission gets a handle whose state (QUEUED → RUNNING → DONE /
+ * FAILED) can be read until {@code orders.executor.retention-minutes} after it
+ * finished.
+ */
+@Slf4j
+@Service
+public class OrderSubmissionService {
+
+    public enum State { QUEUED, RUNNING, DONE, FAILED }
+
+    /** Immutable view of one submission; replaced on every state change. */
+    public record Submission(
+            String handle,
+            Long userId,
+            State state,
+            Instant submittedAt,
+            Instant startedAt,
+            Instant finishedAt,
+            TradeDto result,
+            String error
+    ) {
+        Submission running() {
+            return new Submission(handle, userId, State.RUNNING, submittedAt, Instant.now(), null, null, null);
+        }
+
+        Submission done(TradeDto dto) {
+            return new Submission(handle, userId, State.DONE, submittedAt, startedAt, Instant.now(), dto, null);
+        }
+
+        Submission failed(String message) {
+            return new Submission(handle, userId, State.FAILED, submittedAt, startedAt, Instant.now(), null, message);
+        }
+
+        public boolean finished() {
+            return state == State.DONE || state == State.FAILED;
+        }
+    }
+
+    /** Handle plus the future of its result. */
+    public record Accepted(String handle, CompletableFuture<TradeDto> result) {}
+
+    private final OrderBuildService orderBuildService;
+    private final ThreadPoolExecutor executor;
+    private final long retentionMs;
+
+    private final Map<String, Submission> submissions = new ConcurrentHashMap<>();
+
+    public OrderSubmissionService(OrderBuildService orderBuildService,
+                                  MeterRegistry registry,
+                                  @Value("${orders.executor.threads:8}") int threads,
+                                  @Value("${orders.executor.queue-capacity:500}") int queueCapacity,
+                                  @Value("${orders.executor.retention-minutes:30}") long retentionMinutes) {
+        this.orderBuildService = orderBuildService;
+        this.retentionMs = TimeUnit.MINUTES.toMillis(retentionMinutes);
+
+        AtomicInteger n = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)),
+                r -> {
+                    Thread t = new Thread(r, "order-build-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("orders.executor.queued", executor, e -> e.getQueue().size()).register(registry);
+        Gauge.builder("orders.executor.active", executor, ThreadPoolExecutor::getActiveCount).register(registry);
+
+        log.info("🧵 Order executor: {} threads, queue capacity {}", threads, queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // ------------------------------------------------------------------------
+    // SUBMIT
+    // ------------------------------------------------------------------------
+
+    /**
+     * Queue one order build.
+     *
+     * @throws RejectedExecutionException when the order queue is full
+     */
+    public Accepted submit(ManualOrderController.Req req, BrokerUserDetails creds, Long userId) {
+        String handle = UUID.randomUUID().toString();
+        submissions.put(handle, new Submission(handle, userId, State.QUEUED, Instant.now(), null, null, null, null));
+
+        CompletableFuture<TradeDto> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> run(handle, req, creds, userId, result));
+        } catch (RejectedExecutionException e) {
+            submissions.remove(handle);
+            log.warn("⚠ Order queue full ({} queued), rejecting submission of user {}",
+                    executor.getQueue().size(), userId);
+            throw e;
+        }
+        return new Accepted(handle, result);
+    }
+
+    private void run(String handle, ManualOrderController.Req req, BrokerUserDetails creds, Long userId,
+                     CompletableFuture<TradeDto> result) {
+        submissions.computeIfPresent(handle, (k, s) -> s.running());
+        try {
+            TradeDto dto = orderBuildService.buildOrder(req, creds, userId);
+            submissions.computeIfPresent(handle, (k, s) -> s.done(dto));
+            result.complete(dto);
+        } catch (Throwable e) {
+            // Errors too: the result future must always complete
+            log.error("Error processing order {}: ", handle, e);
+            submissions.computeIfPresent(handle, (k, s) -> s.failed(e.getMessage()));
+            result.completeExceptionally(e);
+            if (e instanceof Error err) throw err;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // STATUS
+    // ------------------------------------------------------------------------
+
+    public Optional<Submission> find(String handle) {
+        return Optional.ofNullable(submissions.get(handle));
+    }
+
+    public int queued() {
+        return executor.getQueue().size();
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictFinished() {
+        Instant cutoff = Instant.now().minusMillis(retentionMs);
+        submissions.values().removeIf(s -> s.finished() && s.finishedAt().isBefore(cutoff));
+    }
+}
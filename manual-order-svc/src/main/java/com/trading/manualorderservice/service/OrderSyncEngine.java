@@ -4,15 +4,34 @@ import com.trading.manualorderservice.dhan.DhanOrderClient;
 import com.trading.manualorderservice.dto.DhanOrderBookResponse;
 import com.trading.manualorderservice.entity.OrderEntity;
 import com.trading.manualorderservice.entity.OrderRole;
+import com.trading.manualorderservice.orderupdate.OrderUpdateEvent;
+import com.trading.manualorderservice.orderupdate.OrderUpdateStream;
 import com.trading.manualorderservice.repo.OrderRepository;
 import com.trading.shareddto.entity.BrokerUserDetails;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.*;
-
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps order rows in line with the broker.
+ *
+ * Live: every update pushed on an account's order-update stream is applied
+ * to its row as it arrives ({@link #onOrderUpdate}). Safety net: a periodic
+ * order-book pass reconciles working orders — every pass for accounts whose
+ * stream is down, every {@code orders.sync.connected-interval-ms} for the rest.
+ * The pass also (re)connects the stream of every account with working orders.
+ *
+ * A streamed update can beat the write of its broker order id (SL / TARGET
+ * legs are stored after the broker call returns); such updates are held for
+ * {@link #UNMATCHED_TTL_MS} and applied once the id is stored.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -21,22 +40,91 @@ public class OrderSyncEngine {
     private final OrderRepository orderRepository;
     private final DhanCredentialService credentialService;
     private final DhanOrderClient dhanOrderClient;
+    private final OrderFillTracker fillTracker;
+    private final OrderUpdateStream orderUpdateStream;
+    private final OcoEngine ocoEngine;
 
-    @Scheduled(fixedDelay = 10000)
-    public void syncBrokerOrders() {
+    @Value("${orders.sync.connected-interval-ms:300000}")
+    private long connectedIntervalMs;
 
-        List<OrderEntity> active = orderRepository.findOrdersInTransit();
-        if (active.isEmpty()) {
+    /** Unmatched updates older than this are dropped (order not ours, or reconcile covers it). */
+    private static final long UNMATCHED_TTL_MS = 60_000;
+
+    private record Unmatched(DhanOrderBookResponse order, long seenAtMs) {}
+
+    /** userId → time of the last order-book fetch. */
+    private final Map<Long, Long> lastBookSync = new ConcurrentHashMap<>();
+
+    /** Broker order id → latest streamed update that matched no row yet. */
+    private final Map<String, Unmatched> unmatched = new ConcurrentHashMap<>();
+
+    // ------------------------------------------------------------------------
+    // LIVE
+    // ------------------------------------------------------------------------
+
+    @EventListener
+    public void onOrderUpdate(OrderUpdateEvent event) {
+        DhanOrderBookResponse broker = event.order();
+        if (broker.getOrderId() == null) return;
+
+        String oid = broker.getOrderId();
+        Optional<OrderEntity> dbOrder = orderRepository.findFirstByBrokerOrderId(oid);
+        if (dbOrder.isPresent()) {
+            apply(dbOrder.get(), broker);
             return;
         }
 
-        log.info("🔄 [SYNC] Checking {} active orders...", active.size());
+        unmatched.put(oid, new Unmatched(broker, System.currentTimeMillis()));
+
+        // The id may have been stored between the lookup and the put
+        applyUnmatched(oid);
+    }
+
+    /**
+     * Called once a broker order id is written to its row: applies a streamed
+     * update that arrived before the id was known.
+     */
+    public void onBrokerOrderIdStored(String brokerOrderId) {
+        if (brokerOrderId == null || unmatched.isEmpty()) return;
+        applyUnmatched(brokerOrderId);
+    }
+
+    private void applyUnmatched(String oid) {
+        Unmatched u = unmatched.get(oid);
+        if (u == null) return;
+
+        orderRepository.findFirstByBrokerOrderId(oid).ifPresent(dbOrder -> {
+            if (!unmatched.remove(oid, u)) return;   // applied by the other path
+            log.info("⏩ [SYNC] Applying early update for {} ({})", oid, u.order().getOrderStatus());
+            apply(dbOrder, u.order());
+        });
+    }
+
+    // ------------------------------------------------------------------------
+    // SAFETY NET
+    // ------------------------------------------------------------------------
+
+    @Scheduled(fixedDelayString = "${orders.sync.interval-ms:60000}")
+    public void syncBrokerOrders() {
+
+        long cutoff = System.currentTimeMillis() - UNMATCHED_TTL_MS;
+        unmatched.values().removeIf(u -> u.seenAtMs() < cutoff);
+
+        List<OrderEntity> active = orderRepository.findOrdersInTransit();
 
         Map<Long, List<OrderEntity>> grouped = new HashMap<>();
         for (OrderEntity order : active) {
             grouped.computeIfAbsent(order.getUserId(), id -> new ArrayList<>()).add(order);
         }
 
+        orderUpdateStream.closeIdle(grouped.keySet());
+        lastBookSync.keySet().retainAll(grouped.keySet());
+        if (active.isEmpty()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+
         for (var entry : grouped.entrySet()) {
 
             Long userId = entry.getKey();
@@ -48,6 +136,17 @@ public class OrderSyncEngine {
                 continue;
             }
 
+            orderUpdateStream.watch(creds);
+
+            // Streamed accounts only need the occasional cross-check
+            if (orderUpdateStream.isConnected(userId)
+                    && now - lastBookSync.getOrDefault(userId, 0L) < connectedIntervalMs) {
+                continue;
+            }
+            lastBookSync.put(userId, now);
+
+            log.info("🔄 [SYNC] Reconciling {} active orders of user {}", userOrders.size(), userId);
+
             List<DhanOrderBookResponse> book = dhanOrderClient.fetchOrderBook(creds);
             if (book == null || book.isEmpty()) {
                 log.warn("⚠️ [SYNC] Empty orderbook for user {}", userId);
@@ -73,41 +172,95 @@ public class OrderSyncEngine {
                     continue;
                 }
 
-                String brokerStatus = safeUpper(broker.getOrderStatus());
-                String dbStatus = safeUpper(dbOrder.getOrderStatus());
-
-                if (!Objects.equals(brokerStatus, dbStatus)) {
-                    applyBrokerStatus(dbOrder, dbStatus, brokerStatus, broker);
+                if (fillTracker.isTracking(oid)) {
+                    Double avg = broker.getAverageTradedPrice();
+                    Integer qty = broker.getFilledQty();
+                    fillTracker.onOrderUpdate(oid, safeUpper(broker.getOrderStatus()),
+                            avg != null ? avg : 0.0, qty != null ? qty : 0);
                 }
 
-                // 🆕 Always sync SL modification from Dhan app
-                syncSlChangesFromBroker(dbOrder, broker);
+                apply(dbOrder, broker);
             }
         }
     }
 
+    // ------------------------------------------------------------------------
+    // APPLY
+    // ------------------------------------------------------------------------
+
+    private void apply(OrderEntity dbOrder, DhanOrderBookResponse broker) {
+
+        String brokerStatus = localStatus(dbOrder, safeUpper(broker.getOrderStatus()));
+        String dbStatus = safeUpper(dbOrder.getOrderStatus());
+
+        if (syncFill(dbOrder, broker)) {
+            orderRepository.updateFill(dbOrder.getId(), dbOrder.getFilledQuantity(),
+                    dbOrder.getAverageTradedPrice(), Instant.now());
+        }
+
+        if (brokerStatus != null && !Objects.equals(brokerStatus, dbStatus)) {
+            applyBrokerStatus(dbOrder, dbStatus, brokerStatus, broker);
+        }
+
+        // 🆕 Always sync SL modification from Dhan app
+        syncSlChangesFromBroker(dbOrder, broker);
+    }
+
+    /**
+     * Broker status as stored on our row. ENTRY rows use FILLED for a complete
+     * fill (what the OCO / trailing / LTP queries select on), and an entry the
+     * engines already closed is never reopened by a late fill update.
+     */
+    private String localStatus(OrderEntity dbOrder, String brokerStatus) {
+        if (dbOrder.getRole() != OrderRole.ENTRY || !"TRADED".equals(brokerStatus)) return brokerStatus;
+
+        String dbStatus = safeUpper(dbOrder.getOrderStatus());
+        if ("COMPLETED".equals(dbStatus) || "CANCELLED".equals(dbStatus)) return dbStatus;
+        return "FILLED";
+    }
+
+    /** Copy traded quantity / average price; true if either changed. */
+    private boolean syncFill(OrderEntity dbOrder, DhanOrderBookResponse broker) {
+        Integer qty = broker.getFilledQty();
+        Double avg = broker.getAverageTradedPrice();
+        if (avg != null && avg <= 0) avg = null;
+
+        boolean changed = false;
+        if (qty != null && !Objects.equals(dbOrder.getFilledQuantity(), qty)) {
+            dbOrder.setFilledQuantity(qty);
+            changed = true;
+        }
+        if (avg != null && !Objects.equals(dbOrder.getAverageTradedPrice(), avg)) {
+            dbOrder.setAverageTradedPrice(avg);
+            changed = true;
+        }
+        return changed;
+    }
+
     private void syncSlChangesFromBroker(OrderEntity dbOrder, DhanOrderBookResponse broker) {
 
         if (dbOrder.getRole() != OrderRole.STOPLOSS) return;
 
         boolean changed = false;
 
-        if (!Objects.equals(dbOrder.getSlPrice(), broker.getPrice())) {
+        // Missing fields (null) are not changes
+        if (broker.getPrice() != null && !Objects.equals(dbOrder.getSlPrice(), broker.getPrice())) {
             dbOrder.setSlPrice(broker.getPrice());
             changed = true;
         }
 
-        if (!Objects.equals(dbOrder.getTriggerPrice(), broker.getTriggerPrice())) {
+        if (broker.getTriggerPrice() != null && !Objects.equals(dbOrder.getTriggerPrice(), broker.getTriggerPrice())) {
             dbOrder.setTriggerPrice(broker.getTriggerPrice());
             changed = true;
         }
 
         if (changed) {
             dbOrder.setRemark("SL updated from broker (sync-engine)");
-            orderRepository.save(dbOrder);
+            orderRepository.updateSlPrices(dbOrder.getId(), dbOrder.getSlPrice(), dbOrder.getTriggerPrice(),
+                    dbOrder.getRemark(), Instant.now());
 
             log.info("🔄 [SYNC] SL updated from broker → local updated sl={} trg={} (child {})",
-                    broker.getPrice(), broker.getTriggerPrice(), dbOrder.getId());
+                    dbOrder.getSlPrice(), dbOrder.getTriggerPrice(), dbOrder.getId());
         }
     }
 
@@ -127,7 +280,7 @@ public class OrderSyncEngine {
 
         dbOrder.setOrderStatus(brokerStatus);
         dbOrder.setRemark("Updated by SyncEngine (brokerStatus=" + brokerStatus + ")");
-        orderRepository.save(dbOrder);
+        orderRepository.updateStatus(dbOrder.getId(), brokerStatus, dbOrder.getRemark(), Instant.now());
 
         if (dbOrder.getRole() == OrderRole.STOPLOSS || dbOrder.getRole() == OrderRole.TARGET) {
             handleChildOrderStatusChange(dbOrder, brokerStatus);
@@ -144,7 +297,7 @@ public class OrderSyncEngine {
         entry.setLowestLtp(null);
 
         entry.setRemark("ENTRY cancelled at broker → trailing stopped (sync-engine)");
-        orderRepository.save(entry);
+        orderRepository.stopTrailing(entry.getId(), "CANCELLED", entry.getRemark(), Instant.now());
 
         log.info("🛑 [SYNC] ENTRY {} cancelled at broker → trailing stopped (oldTrailing={})",
                 entry.getId(), oldTrailing);
@@ -156,32 +309,25 @@ public class OrderSyncEngine {
         Long parentId = child.getParentOrderId();
         if (parentId == null) return;
 
-        OrderEntity parent = orderRepository.findById(parentId).orElse(null);
-        if (parent == null) return;
-
         status = safeUpper(status);
 
         if (status.equals("TRADED") || status.equals("FILLED") || status.equals("PART_TRADED")) {
 
-            parent.setOrderStatus("COMPLETED");
-            parent.setRemark("Closed because child " + child.getRole() + " executed (sync-engine)");
-            orderRepository.save(parent);
+            orderRepository.updateStatus(parentId, "COMPLETED",
+                    "Closed because child " + child.getRole() + " executed (sync-engine)", Instant.now());
 
             log.info("💰 [SYNC] Parent {} completed due to {} execution", parentId, child.getRole());
+
+            // cancel the sibling leg now, not on the next OCO scan
+            ocoEngine.onLegFilled(parentId);
             return;
         }
 
 
         if (child.getRole() == OrderRole.STOPLOSS && status.equals("CANCELLED")) {
 
-            Double oldTrailing = parent.getTrailingPercent();
-
-            parent.setTrailingPercent(0.0);
-            parent.setHighestLtp(null);
-            parent.setLowestLtp(null);
-            parent.setRemark("Trailing disabled: SL cancelled at broker (sync-engine)");
-
-            orderRepository.save(parent);
+            orderRepository.stopTrailing(parentId, null,
+                    "Trailing disabled: SL cancelled at broker (sync-engine)", Instant.now());
 
             log.info("🛑 [SYNC] SL cancelled at broker for parent {} → trailing disabled", parentId);
             return;
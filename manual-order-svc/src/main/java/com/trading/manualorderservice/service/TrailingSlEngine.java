@@ -2,37 +2,129 @@ package com.trading.manualorderservice.service;
 
 import com.trading.manualorderservice.entity.OrderEntity;
 import com.trading.manualorderservice.entity.OrderRole;
+import com.trading.manualorderservice.market.InstrumentKey;
+import com.trading.manualorderservice.market.InstrumentMap;
 import com.trading.manualorderservice.market.LtpCacheService;
+import com.trading.manualorderservice.marketfeed.MarketFeedManager;
+import com.trading.manualorderservice.marketfeed.TickDispatcher;
+import com.trading.manualorderservice.marketfeed.TickEvent;
+import com.trading.manualorderservice.marketfeed.TickHandler;
 import com.trading.manualorderservice.repo.OrderRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class TrailingSlEngine {
+public class TrailingSlEngine implements TickHandler {
 
     private final OrderRepository orderRepository;
     private final LtpCacheService ltpCacheService;
+    private final TickDispatcher tickDispatcher;
+    private final MarketFeedManager feedManager;
+
+    /** Replay: trail in memory and log the moves, never write them to the orders table. */
+    @Value("${market.replay.enabled:false}")
+    private boolean replayMode;
+
+    /** Instrument → latest trailing ENTRY for that instrument (rebuilt by refresh). */
+    private volatile InstrumentMap<OrderEntity> entriesByInstrument = InstrumentMap.empty();
+
+    /** Entries whose high/low watermark moved in memory but is not yet persisted. */
+    private final Set<OrderEntity> dirtyWatermarks = ConcurrentHashMap.newKeySet();
+
+    /** Entries whose SL/TGT filled since the last refresh (cleared on refresh). */
+    private final Set<Long> stoppedEntries = ConcurrentHashMap.newKeySet();
+
+    /** Trailed SL level + watermarks of one entry, waiting to be written. */
+    private record SlMove(String symbol, double sl, Double highestLtp, Double lowestLtp,
+                          double ltp, double trailingPct, double profitPct) {}
+
+    /** Entry id → latest unwritten SL move; a burst of moves costs one write. */
+    private final Map<Long, SlMove> pendingSlMoves = new ConcurrentHashMap<>();
+
+    /** SL moves (DB checks + writes) run here, never on the tick consumer thread. */
+    private final ExecutorService dbExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "trailing-db");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @PostConstruct
+    public void registerForTicks() {
+        tickDispatcher.register(this);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dbExecutor.shutdown();
+    }
+
+    // ------------------------------------------------------------------------
+    // TICK PATH (own consumer thread, no DB I/O)
+    // ------------------------------------------------------------------------
+
+    @Override
+    public String name() {
+        return "trailing-sl";
+    }
+
+    /** Trails on the latest price; a slow refresh or SL write never holds back the ring. */
+    @Override
+    public DeliveryMode deliveryMode() {
+        return DeliveryMode.CONFLATED;
+    }
+
+    @Override
+    public boolean isInterested(int segment, int securityId) {
+        return entriesByInstrument.containsKey(InstrumentKey.of(segment, securityId));
+    }
+
+    @Override
+    public void onTick(TickEvent tick) {
+        if (!tick.hasPrice()) return;
+
+        OrderEntity entry = entriesByInstrument.get(InstrumentKey.of(tick.segment, tick.securityId));
+        if (entry == null) return;
+
+        synchronized (entry) {
+            processEntry(entry, tick.ltp);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // REFRESH (DB) — rebuilds the watch set, REST fallback for non-streamed
+    // ------------------------------------------------------------------------
 
     /**
-     * Runs every 5 seconds.
+     * Runs every 15 seconds: persists in-memory watermarks, reloads active
+     * trailing entries and evaluates the ones that are not on the live feed.
      */
-    @Scheduled(fixedDelay = 5000)
+    @Scheduled(fixedDelay = 15000)
     public void run() {
 
-        log.info("⏱ [TRAIL] Tick fired");
+        log.debug("⏱ [TRAIL] Refresh fired");
+
+        flushWatermarks();
 
         List<OrderEntity> raw = orderRepository.findActiveEntriesWithTrailing();
         if (raw == null || raw.isEmpty()) {
-            log.info("🔍 [TRAIL] entries found = 0");
+            entriesByInstrument = InstrumentMap.empty();
+            log.debug("🔍 [TRAIL] entries found = 0");
             return;
         }
 
@@ -49,16 +141,59 @@ public class TrailingSlEngine {
                 .filter(Objects::nonNull)
                 .toList();
 
+        Map<Long, OrderEntity> byInstrument = new HashMap<>();
+        for (OrderEntity e : entries) {
+            long key = InstrumentKey.of(e.getExchangeSegment(), e.getSecurityId());
+            if (key > 0) byInstrument.put(key, e);
+        }
+        entriesByInstrument = InstrumentMap.copyOf(byInstrument);
+        stoppedEntries.clear();
+
         log.info("🔍 [TRAIL] entries found = {}", entries.size());
 
+        // Instruments without a live stream still trail on the REST-fed cache
         for (OrderEntity entry : entries) {
+            if (feedManager.isStreaming(entry.getExchangeSegment(), entry.getSecurityId())) continue;
+
+            Double ltp = ltpCacheService.getFresh(entry.getExchangeSegment(), entry.getSecurityId());
+            if (ltp == null || ltp <= 0) {
+                log.debug("⚪ [TRAIL][NO-UPDATE] symbol={} entryId={} reasonCode=NO_LTP ltp={}",
+                        entry.getTradingSymbol(), entry.getId(), ltp);
+                continue;
+            }
+
             try {
-                processEntry(entry);
+                synchronized (entry) {
+                    processEntry(entry, ltp);
+                }
             } catch (Exception e) {
                 log.error("❌ [TRAIL] Error processing entry {} ({})",
                         entry.getId(), entry.getTradingSymbol(), e);
             }
         }
+
+        flushWatermarks();
+    }
+
+    /**
+     * Watermark columns only; the cached entity may be up to one refresh old,
+     * so status, trailing % and remark are never written from here.
+     */
+    private void flushWatermarks() {
+        if (replayMode) {
+            dirtyWatermarks.clear();
+            return;
+        }
+        Instant now = Instant.now();
+        for (OrderEntity entry : dirtyWatermarks) {
+            Double high, low;
+            synchronized (entry) {
+                if (!dirtyWatermarks.remove(entry)) continue;
+                high = entry.getHighestLtp();
+                low = entry.getLowestLtp();
+            }
+            orderRepository.updateWatermarks(entry.getId(), high, low, now);
+        }
     }
 
     /**
@@ -77,7 +212,7 @@ public class TrailingSlEngine {
        PROCESS ENTRY LOGIC (unchanged from your working version)
     ---------------------------------------------------------------------- */
 
-    private void processEntry(OrderEntity entry) {
+    private void processEntry(OrderEntity entry, double ltp) {
 
         String symbol = entry.getTradingSymbol();
         Long entryId = entry.getId();
@@ -88,22 +223,6 @@ public class TrailingSlEngine {
             return;
         }
 
-        // SL or TGT filled already → trailing stops
-        if (orderRepository.findFilledSlOrder(entryId) != null ||
-                orderRepository.findFilledTargetOrder(entryId) != null) {
-
-            log.debug("⚪ [TRAIL][NO-UPDATE] symbol={} entryId={} reasonCode=CHILD_ALREADY_FILLED",
-                    symbol, entryId);
-            return;
-        }
-
-        // Fetch LTP
-        Double ltp = ltpCacheService.getFresh(entry.getExchangeSegment(), entry.getSecurityId());
-        if (ltp == null || ltp <= 0) {
-            log.debug("⚪ [TRAIL][NO-UPDATE] symbol={} entryId={} reasonCode=NO_LTP ltp={}", symbol, entryId, ltp);
-            return;
-        }
-
         double entryPrice = safe(entry.getEntryPrice());
         if (entryPrice <= 0) {
             log.debug("⚪ [TRAIL][NO-UPDATE] symbol={} entryId={} reasonCode=NO_ENTRY_PRICE entryPrice={}",
@@ -127,40 +246,78 @@ public class TrailingSlEngine {
         // If trailing does not improve → skip
         if (currentSl != null) {
             if (isLong && newSl <= currentSl) {
-                persistEntryWatermarks(entry, isLong, ltp);
+                markWatermarks(entry, isLong, ltp);
                 return;
             }
             if (!isLong && newSl >= currentSl) {
-                persistEntryWatermarks(entry, isLong, ltp);
+                markWatermarks(entry, isLong, ltp);
                 return;
             }
         }
 
-        // Find active SL order
-        OrderEntity activeSl = orderRepository.findActiveSlOrder(entryId);
+        // SL or TGT filled since last refresh → trailing stops
+        if (stoppedEntries.contains(entryId)) return;
 
-        // Update entry SL
+        // Move in memory now so later ticks trail from here; the write goes to trailing-db
         entry.setSlPrice(newSl);
         persistEntryWatermarks(entry, isLong, ltp);
-        orderRepository.save(entry);
+        dirtyWatermarks.remove(entry);
 
-        if (activeSl == null) {
-            log.debug("⚪ [TRAIL][NO-UPDATE] symbol={} entryId={} reasonCode=NO_ACTIVE_SL", symbol, entryId);
+        if (replayMode) {
+            log.info("🔁 [TRAIL][REPLAY] symbol={} entryId={} newSl={} ltp={} (not persisted)",
+                    symbol, entryId, newSl, ltp);
             return;
         }
 
-        double oldChildSl = safe(activeSl.getSlPrice());
+        SlMove move = new SlMove(symbol, newSl, entry.getHighestLtp(), entry.getLowestLtp(),
+                ltp, trailingPct, profitPct);
+        if (pendingSlMoves.put(entryId, move) == null) {
+            dbExecutor.execute(() -> writeSlMove(entryId));
+        }
+    }
 
-        // Update child STOPLOSS locally
-        activeSl.setSlPrice(newSl);
-        activeSl.setTriggerPrice(newSl);
-        activeSl.setRemark(
-                String.format("Trailing SL moved from %.2f → %.2f (entryId=%d)", oldChildSl, newSl, entryId)
-        );
-        orderRepository.save(activeSl);
+    /**
+     * trailing-db thread: child-filled check, then the entry's and the active
+     * SL child's prices. Takes the latest pending move of the entry.
+     */
+    private void writeSlMove(Long entryId) {
+        SlMove m = pendingSlMoves.remove(entryId);
+        if (m == null || stoppedEntries.contains(entryId)) return;
+
+        try {
+            if (orderRepository.findFilledSlOrder(entryId) != null ||
+                    orderRepository.findFilledTargetOrder(entryId) != null) {
 
-        log.info("🟢 [TRAIL][MOVE-SL] symbol={} entryId={} newSl={} ltp={} trailPct={} profitPct={}",
-                symbol, entryId, newSl, ltp, trailingPct, profitPct);
+                stoppedEntries.add(entryId);
+                log.debug("⚪ [TRAIL][NO-UPDATE] symbol={} entryId={} reasonCode=CHILD_ALREADY_FILLED",
+                        m.symbol(), entryId);
+                return;
+            }
+
+            // Find active SL order
+            OrderEntity activeSl = orderRepository.findActiveSlOrder(entryId);
+
+            // Update entry SL (+ watermarks)
+            orderRepository.updateTrailedSl(entryId, m.sl(), m.highestLtp(), m.lowestLtp(), Instant.now());
+
+            if (activeSl == null) {
+                log.debug("⚪ [TRAIL][NO-UPDATE] symbol={} entryId={} reasonCode=NO_ACTIVE_SL", m.symbol(), entryId);
+                return;
+            }
+
+            double oldChildSl = safe(activeSl.getSlPrice());
+
+            // Update child STOPLOSS prices only
+            orderRepository.updateSlPrices(activeSl.getId(), m.sl(), m.sl(),
+                    String.format("Trailing SL moved from %.2f → %.2f (entryId=%d)", oldChildSl, m.sl(), entryId),
+                    Instant.now());
+
+            log.info("🟢 [TRAIL][MOVE-SL] symbol={} entryId={} newSl={} ltp={} trailPct={} profitPct={}",
+                    m.symbol(), entryId, m.sl(), m.ltp(), m.trailingPct(), m.profitPct());
+
+        } catch (Exception e) {
+            log.error("❌ [TRAIL] SL move failed for entry {} ({}): {}", entryId, m.symbol(), e.getMessage(), e);
+        }
     }
 
     /* ----------------------------------------------------------------------
@@ -171,8 +328,7 @@ public class TrailingSlEngine {
                                       boolean isLong, double ltp,
                                       double profitPct, double trailingPct) {
 
-        persistEntryWatermarks(entry, isLong, ltp);
-        orderRepository.save(entry);
+        markWatermarks(entry, isLong, ltp);
 
         log.debug("⚪ [TRAIL][NO-UPDATE] symbol={} entryId={} BELOW_THRESHOLD profit={} < trail={} ltp={}",
                 entry.getTradingSymbol(), entry.getId(),
@@ -201,6 +357,18 @@ public class TrailingSlEngine {
                 basis * (1 + trailingPct / 100.0);
     }
 
+    /**
+     * Watermark-only change: kept in memory, persisted by the next refresh.
+     */
+    private void markWatermarks(OrderEntity entry, boolean isLong, double ltp) {
+        Double before = isLong ? entry.getHighestLtp() : entry.getLowestLtp();
+        persistEntryWatermarks(entry, isLong, ltp);
+        Double after = isLong ? entry.getHighestLtp() : entry.getLowestLtp();
+        if (!Objects.equals(before, after)) {
+            dirtyWatermarks.add(entry);
+        }
+    }
+
     private void persistEntryWatermarks(OrderEntity entry, boolean isLong, double ltp) {
 
         if (isLong) {
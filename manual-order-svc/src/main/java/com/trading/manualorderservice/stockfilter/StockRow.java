@@ -1,6 +1,6 @@
 package com.trading.manualorderservice.stockfilter;
 
-import java.util.Map;
+import com.trading.manualorderservice.instrument.InstrumentMaster;
 
 public class StockRow {
 
@@ -13,31 +13,20 @@ public class StockRow {
     public final double lotUnits;
     public final double tickSize;   // ⭐ REQUIRED FOR SL/TARGET ROUNDING
 
-    public StockRow(Map<String, String> row) {
-        this.securityId = row.getOrDefault("SEM_SMST_SECURITY_ID", "").trim();
-        this.tradingSymbol = row.getOrDefault("SEM_TRADING_SYMBOL", "").trim();
-        this.exchangeId = row.getOrDefault("SEM_EXM_EXCH_ID", "").trim();
-        this.segment = row.getOrDefault("SEM_SEGMENT", "").trim();
-        this.series = row.getOrDefault("SEM_SERIES", "").trim();
-        this.instrumentType = row.getOrDefault("SEM_EXCH_INSTRUMENT_TYPE", "").trim();
+    public StockRow(InstrumentMaster master, int row) {
+        this.securityId = String.valueOf(master.securityId(row));
+        this.tradingSymbol = master.tradingSymbol(row);
+        this.exchangeId = master.exchange(row);
+        this.segment = String.valueOf(master.segment(row));
+        this.series = master.series(row);
+        this.instrumentType = master.instrumentType(row);
 
         // LOT SIZE
-        double lot;
-        try {
-            lot = Double.parseDouble(row.getOrDefault("SEM_LOT_UNITS", "1"));
-        } catch (Exception e) {
-            lot = 1;
-        }
-        this.lotUnits = lot;
+        this.lotUnits = master.lotUnits(row);
 
         // ⭐ TICK SIZE
-        double tick;
-        try {
-            tick = Double.parseDouble(row.getOrDefault("SEM_TICK_SIZE", "0.05"));
-        } catch (Exception e) {
-            tick = 0.05;
-        }
-        this.tickSize = tick;
+        double tick = master.tickSize(row);
+        this.tickSize = Double.isNaN(tick) ? 0.05 : tick;
     }
 
     @Override
@@ -45,4 +45,41 @@ public class SegmentMapper {
             default -> dhanSegment;
         };
     }
+
+    /**
+     * Converts internal segment → numeric exchange segment code used in
+     * Dhan WebSocket binary packet headers. Returns -1 for unknown segments.
+     */
+    public static int toFeedCode(String internal) {
+        if (internal == null) return -1;
+
+        return switch (internal.toUpperCase()) {
+            case "NSE_IDX", "IDX_I" -> 0;
+            case "NSE_EQ"           -> 1;
+            case "NSE_FNO"          -> 2;
+            case "NSE_CURRENCY"     -> 3;
+            case "BSE_EQ"           -> 4;
+            case "MCX_COMM"         -> 5;
+            case "BSE_CURRENCY"     -> 7;
+            case "BSE_FNO"          -> 8;
+            default                 -> -1;
+        };
+    }
+
+    /**
+     * Converts numeric binary packet segment code → internal normalized segment.
+     */
+    public static String fromFeedCode(int code) {
+        return switch (code) {
+            case 0 -> "NSE_IDX";
+            case 1 -> "NSE_EQ";
+            case 2 -> "NSE_FNO";
+            case 3 -> "NSE_CURRENCY";
+            case 4 -> "BSE_EQ";
+            case 5 -> "MCX_COMM";
+            case 7 -> "BSE_CURRENCY";
+            case 8 -> "BSE_FNO";
+            default -> null;
+        };
+    }
 }
@@ -0,0 +1,33 @@
+-- Baseline: orders table as Hibernate created it (IDENTITY ids).
+-- Existing databases are baselined at version 1 and skip this script.
+
+CREATE TABLE IF NOT EXISTS orders (
+    id                 BIGINT NOT NULL AUTO_INCREMENT,
+    user_id            BIGINT,
+    workflow           VARCHAR(255),
+    symbol             VARCHAR(255),
+    trading_symbol     VARCHAR(255),
+    security_id        VARCHAR(255),
+    exchange_segment   VARCHAR(255),
+    transaction_type   VARCHAR(255),
+    quantity           INT,
+    order_type         VARCHAR(255),
+    product_type       VARCHAR(255),
+    role               VARCHAR(255),
+    parent_order_id    BIGINT,
+    stoploss_percent   DOUBLE,
+    target_percent     DOUBLE,
+    trailing_percent   DOUBLE,
+    entry_price        DOUBLE,
+    sl_price           DOUBLE,
+    target_price       DOUBLE,
+    trigger_price      DOUBLE,
+    broker_order_id    VARCHAR(255),
+    order_status       VARCHAR(255),
+    remark             TEXT,
+    highest_ltp        DOUBLE,
+    lowest_ltp         DOUBLE,
+    created_at         DATETIME(6),
+    updated_at         DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,35 @@
+-- Orders take ids from the pooled orders_seq table (allocationSize 50) instead
+-- of AUTO_INCREMENT, and keep the broker's fill.
+--
+-- orders_seq is the one-row table Hibernate uses as a sequence on MySQL. It is
+-- seeded past every existing id, so the first block handed out can never
+-- collide with a row inserted under IDENTITY.
+
+CREATE TABLE IF NOT EXISTS orders_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO orders_seq (next_val)
+SELECT 1 FROM DUAL
+ WHERE NOT EXISTS (SELECT 1 FROM orders_seq);
+
+-- MAX(id) + allocationSize + 1, never moved backwards
+UPDATE orders_seq
+   SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 51 FROM orders));
+
+-- Fill columns; skipped where a schema update already added them
+SET @has_col := (SELECT COUNT(*) FROM information_schema.columns
+                  WHERE table_schema = DATABASE() AND table_name = 'orders'
+                    AND column_name = 'filled_quantity');
+SET @ddl := IF(@has_col = 0, 'ALTER TABLE orders ADD COLUMN filled_quantity INT NULL', 'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @has_col := (SELECT COUNT(*) FROM information_schema.columns
+                  WHERE table_schema = DATABASE() AND table_name = 'orders'
+                    AND column_name = 'average_traded_price');
+SET @ddl := IF(@has_col = 0, 'ALTER TABLE orders ADD COLUMN average_traded_price DOUBLE NULL', 'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
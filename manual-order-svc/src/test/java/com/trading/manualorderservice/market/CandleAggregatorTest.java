@@ -0,0 +1,65 @@
+package com.trading.manualorderservice.market;
+
+import com.trading.manualorderservice.marketfeed.TickDispatcher;
+import com.trading.manualorderservice.marketfeed.TickEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CandleAggregatorTest {
+
+    private static final long T0 = 1_699_999_200_000L;   // on a 15m boundary
+
+    private final TickDispatcher dispatcher = new TickDispatcher(new SimpleMeterRegistry());
+    private final MarketClock clock = new MarketClock();
+    private final List<CandleClosedEvent> closed = new ArrayList<>();
+    private final CandleAggregator aggregator =
+            new CandleAggregator(dispatcher, e -> closed.add((CandleClosedEvent) e), clock);
+
+    @AfterEach
+    void stop() {
+        dispatcher.shutdown();
+    }
+
+    private static TickEvent tick(long exchangeTimeMs, double ltp) {
+        TickEvent t = new TickEvent();
+        t.segment = 1;
+        t.securityId = 1333;
+        t.ltp = ltp;
+        t.exchangeTimeMs = exchangeTimeMs;
+        return t;
+    }
+
+    @Test
+    void idleCloseRunsOnExchangeTime() {
+        // exchange timestamps run 40s behind the local clock
+        clock.startVirtual((T0 + 50_000) * 1_000_000L);
+        aggregator.onTick(tick(T0 + 10_000, 100.0));
+
+        // local clock is past the 1m bar end, exchange time is not
+        clock.advanceTo((T0 + 65_000) * 1_000_000L);
+        aggregator.closeIdleBars();
+        assertTrue(closed.isEmpty());
+
+        // exchange time now past bar end + grace
+        clock.advanceTo((T0 + 102_500) * 1_000_000L);
+        aggregator.closeIdleBars();
+        assertEquals(1, closed.size());
+        assertEquals(1, closed.get(0).timeframeMinutes());
+    }
+
+    @Test
+    void tickOpeningNewBucketPublishesEachTimeframeOnce() {
+        clock.startVirtual(T0 * 1_000_000L);
+        aggregator.onTick(tick(T0 + 1_000, 100.0));
+        aggregator.onTick(tick(T0 + 60_000, 101.0));
+
+        assertEquals(1, closed.size(), "only the 1m bar ended");
+        assertEquals(2, aggregator.getCandles("NSE_EQ", "1333", 1, 10).size());
+    }
+}
@@ -0,0 +1,93 @@
+package com.trading.manualorderservice.market;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CandleSeriesTest {
+
+    private static final long T0 = 1_700_000_040_000L;   // on a 1m boundary
+    private static final long MIN = 60_000L;
+
+    private final CandleSeries oneMinute = new CandleSeries(1, 1333, 1, 8);
+
+    @Test
+    void firstTickSeedsVolumeFromItsOwnTrade() {
+        oneMinute.onTrade(T0 + 1_000, 100.0, 50_000, 25);
+        oneMinute.onTrade(T0 + 2_000, 101.0, 50_040, 40);
+
+        CandleAggregator.Candle bar = oneMinute.last(1).get(0);
+        assertEquals(65L, bar.volume(), "25 from the first trade + 40 day-volume delta");
+    }
+
+    @Test
+    void tickOnBoundaryOpensNextBar() {
+        assertEquals(-1L, oneMinute.onTrade(T0, 100.0, 0, 0));
+        assertEquals(-1L, oneMinute.onTrade(T0 + MIN - 1, 102.0, 0, 0));
+        long closed = oneMinute.onTrade(T0 + MIN, 99.0, 0, 0);
+
+        assertEquals(0L, closed);
+        CandleAggregator.Candle first = oneMinute.bar(closed);
+        assertEquals(T0, first.startMs());
+        assertEquals(100.0, first.open());
+        assertEquals(102.0, first.high());
+        assertEquals(102.0, first.close());
+
+        List<CandleAggregator.Candle> bars = oneMinute.last(10);
+        assertEquals(2, bars.size());
+        assertEquals(T0 + MIN, bars.get(1).startMs());
+        assertEquals(99.0, bars.get(1).open());
+    }
+
+    @Test
+    void lateTickForOlderBarDoesNotChangeItAndCarriesVolume() {
+        oneMinute.onTrade(T0 + 1_000, 100.0, 1_000, 10);
+        oneMinute.onTrade(T0 + MIN + 1_000, 101.0, 1_010, 10);
+
+        // out-of-order packet from the first minute
+        assertEquals(-1L, oneMinute.onTrade(T0 + 59_000, 150.0, 1_030, 20));
+
+        CandleAggregator.Candle first = oneMinute.bar(0);
+        assertEquals(100.0, first.high());
+        assertEquals(100.0, first.close());
+        assertEquals(10L, first.volume());
+
+        // forming bar unchanged in price, late volume lands in the next bar
+        assertEquals(101.0, oneMinute.bar(1).high());
+        oneMinute.onTrade(T0 + 2 * MIN, 102.0, 1_035, 5);
+        assertEquals(10L, oneMinute.bar(1).volume());
+        assertEquals(25L, oneMinute.bar(2).volume(), "20 carried + 5");
+    }
+
+    @Test
+    void tickAfterIdleCloseDoesNotReopenTheBar() {
+        oneMinute.onTrade(T0 + 1_000, 100.0, 1_000, 10);
+
+        assertEquals(-1L, oneMinute.closeIfDue(T0 + MIN - 1));
+        assertEquals(0L, oneMinute.closeIfDue(T0 + MIN));
+        assertEquals(-1L, oneMinute.closeIfDue(T0 + MIN + 5_000), "closed once");
+
+        // late tick for the swept bucket
+        assertEquals(-1L, oneMinute.onTrade(T0 + 58_000, 90.0, 1_007, 7));
+        CandleAggregator.Candle bar = oneMinute.bar(0);
+        assertEquals(100.0, bar.low());
+        assertEquals(10L, bar.volume());
+
+        // next bucket opens without reporting the swept bar again
+        assertEquals(-1L, oneMinute.onTrade(T0 + MIN + 1_000, 101.0, 1_010, 3));
+        assertEquals(10L, oneMinute.bar(1).volume(), "7 carried + 3");
+    }
+
+    @Test
+    void higherTimeframeBucketsAlignOnEpoch() {
+        CandleSeries fiveMinute = new CandleSeries(1, 1333, 5, 8);
+        long fiveStart = T0 - Math.floorMod(T0, 5 * MIN);
+
+        fiveMinute.onTrade(T0 + 1_000, 100.0, 0, 0);
+        assertEquals(fiveStart, fiveMinute.last(1).get(0).startMs());
+        assertEquals(-1L, fiveMinute.closeIfDue(fiveStart + 5 * MIN - 1));
+        assertEquals(0L, fiveMinute.closeIfDue(fiveStart + 5 * MIN));
+    }
+}
@@ -0,0 +1,30 @@
+package com.trading.manualorderservice.market;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LtpCacheServiceTest {
+
+    private final LtpCacheService cache = new LtpCacheService(new LtpStore(), new MarketClock());
+
+    @Test
+    void stringKeysRoundTrip() {
+        cache.update("NSE_EQ", "1333", 1640.5);
+
+        assertEquals(1640.5, cache.getFresh("NSE_EQ", "1333"));
+        assertEquals(1640.5, cache.getLastKnown("NSE_EQ", "1333"));
+        assertTrue(cache.exists("NSE_EQ", "1333"));
+    }
+
+    @Test
+    void unparseableKeysAreMisses() {
+        assertDoesNotThrow(() -> cache.update("NSE_EQ", "SBIN", 800.0));
+        assertDoesNotThrow(() -> cache.update("NSE_EQ", null, 800.0));
+
+        assertNull(cache.getFresh("NSE_EQ", "SBIN"));
+        assertNull(cache.getLastKnown("NSE_EQ", null));
+        assertNull(cache.getFresh("UNKNOWN_SEG", "1333"));
+        assertFalse(cache.exists("NSE_EQ", ""));
+    }
+}
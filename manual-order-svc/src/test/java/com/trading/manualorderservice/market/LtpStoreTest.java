@@ -0,0 +1,114 @@
+package com.trading.manualorderservice.market;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LtpStoreTest {
+
+    private static final int NSE_EQ = 1;
+
+    @Test
+    void readReturnsLastWrite() {
+        LtpStore store = new LtpStore(64);
+
+        store.update(NSE_EQ, 1333, 1640.5, 1_000L, 1_005L);
+        store.update(NSE_EQ, 1333, 1641.0, 2_000L, 2_004L);
+
+        LtpStore.Snapshot snap = new LtpStore.Snapshot();
+        assertTrue(store.read(NSE_EQ, 1333, snap));
+        assertEquals(1641.0, snap.price);
+        assertEquals(2_000L, snap.exchangeTimeMs);
+        assertEquals(2_004L, snap.receiveTimeMs);
+    }
+
+    @Test
+    void unknownInstrumentIsAMiss() {
+        LtpStore store = new LtpStore(64);
+        store.update(NSE_EQ, 1333, 1640.5, 1_000L, 1_000L);
+
+        assertFalse(store.contains(NSE_EQ, 11536));
+        assertFalse(store.read(NSE_EQ, 11536, new LtpStore.Snapshot()));
+        assertTrue(Double.isNaN(store.lastPrice(NSE_EQ, 11536)));
+        assertTrue(Double.isNaN(store.lastPrice(2, 1333)), "same id, other segment");
+    }
+
+    @Test
+    void priceIfNewerHonoursReceiveTime() {
+        LtpStore store = new LtpStore(64);
+        store.update(NSE_EQ, 1333, 1640.5, 1_000L, 5_000L);
+
+        assertEquals(1640.5, store.priceIfNewer(NSE_EQ, 1333, 5_000L));
+        assertTrue(Double.isNaN(store.priceIfNewer(NSE_EQ, 1333, 5_001L)));
+    }
+
+    @Test
+    void fullTableDropsNewKeys() {
+        LtpStore store = new LtpStore(16);   // 12 usable entries
+        for (int id = 1; id <= 20; id++) {
+            store.update(NSE_EQ, id, id, id, id);
+        }
+
+        assertEquals(12, store.size());
+        assertEquals(1.0, store.lastPrice(NSE_EQ, 1));
+        assertTrue(Double.isNaN(store.lastPrice(NSE_EQ, 20)));
+    }
+
+    /**
+     * One writer keeps price and both timestamps equal; concurrent readers must
+     * never see a snapshot mixing two writes, nor go backwards.
+     */
+    @Test
+    @Timeout(30)
+    void concurrentReadsAreNeverTorn() throws Exception {
+        LtpStore store = new LtpStore(64);
+        store.update(NSE_EQ, 1333, 1, 1, 1);
+
+        int readers = 3;
+        long writes = 2_000_000;
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        CountDownLatch finished = new CountDownLatch(readers);
+
+        for (int r = 0; r < readers; r++) {
+            Thread t = new Thread(() -> {
+                LtpStore.Snapshot snap = new LtpStore.Snapshot();
+                long last = 0;
+                try {
+                    while (!done.get() && failure.get() == null) {
+                        assertTrue(store.read(NSE_EQ, 1333, snap));
+                        long p = (long) snap.price;
+                        if (p != snap.exchangeTimeMs || p != snap.receiveTimeMs) {
+                            failure.set("torn read: price=" + snap.price + " exch=" + snap.exchangeTimeMs
+                                    + " recv=" + snap.receiveTimeMs);
+                        } else if (p < last) {
+                            failure.set("went backwards: " + last + " → " + p);
+                        }
+                        last = p;
+
+                        double price = store.priceIfNewer(NSE_EQ, 1333, Long.MIN_VALUE);
+                        if (price < last) failure.set("priceIfNewer went backwards: " + last + " → " + price);
+                    }
+                } finally {
+                    finished.countDown();
+                }
+            }, "ltp-reader-" + r);
+            t.setDaemon(true);
+            t.start();
+        }
+
+        for (long i = 2; i <= writes; i++) {
+            store.update(NSE_EQ, 1333, i, i, i);
+        }
+        done.set(true);
+        finished.await();
+
+        assertNull(failure.get(), failure.get());
+        assertEquals((double) writes, store.lastPrice(NSE_EQ, 1333));
+    }
+}
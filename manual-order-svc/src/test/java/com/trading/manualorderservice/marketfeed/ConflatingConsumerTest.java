@@ -0,0 +1,121 @@
+package com.trading.manualorderservice.marketfeed;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConflatingConsumerTest {
+
+    private static final int INSTRUMENTS = 10;
+
+    /** Blocks in its first onTick until released, then records the latest price per instrument. */
+    private static final class SlowHandler implements TickHandler {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Map<Integer, Double> latest = new ConcurrentHashMap<>();
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public String name() {
+            return "slow";
+        }
+
+        @Override
+        public DeliveryMode deliveryMode() {
+            return DeliveryMode.CONFLATED;
+        }
+
+        @Override
+        public boolean isInterested(int segment, int securityId) {
+            return true;
+        }
+
+        @Override
+        public void onTick(TickEvent tick) {
+            calls.incrementAndGet();
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            latest.put(tick.securityId, tick.ltp);
+        }
+    }
+
+    private static TickEvent tick(int securityId, double ltp) {
+        TickEvent t = new TickEvent();
+        t.segment = 2;
+        t.securityId = securityId;
+        t.ltp = ltp;
+        return t;
+    }
+
+    @Test
+    @Timeout(10)
+    void slowHandlerGetsLatestPricePerInstrumentWithoutStallingThePump() throws Exception {
+        SlowHandler h = new SlowHandler();
+        ConflatingConsumer c = new ConflatingConsumer(h);
+        Thread delivery = new Thread(c::deliverLoop, "test-delivery");
+        delivery.start();
+
+        TickHandler pump = c.pump();
+        pump.onTick(tick(0, 1.0));
+        assertTrue(h.entered.await(5, TimeUnit.SECONDS));
+
+        // handler is stuck: the pump still takes every tick straight away
+        for (int i = 1; i <= 200_000; i++) {
+            pump.onTick(tick(i % INSTRUMENTS, i));
+        }
+
+        h.release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (h.latest.size() < INSTRUMENTS && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        for (int id = 0; id < INSTRUMENTS; id++) {
+            assertEquals(200_000.0 - ((200_000 - id) % INSTRUMENTS), h.latest.get(id), "instrument " + id);
+        }
+        assertTrue(h.calls.get() <= 1 + INSTRUMENTS, "one delivery per dirty instrument, got " + h.calls.get());
+
+        c.stop();
+        delivery.join(1000);
+    }
+
+    @Test
+    @Timeout(10)
+    void slowConflatedHandlerNeverFillsTheRing() throws Exception {
+        TickDispatcher dispatcher = new TickDispatcher(new SimpleMeterRegistry());
+        SlowHandler h = new SlowHandler();
+        dispatcher.register(h);
+
+        try {
+            // A full ring only has to drain again: with the conflated handler stuck the pump
+            // keeps consuming, while a stuck EVERY_TICK handler would never free a slot (timeout)
+            for (int i = 0; i < 300_000; i++) {   // several times the ring size
+                long seq;
+                while ((seq = dispatcher.claim()) < 0) Thread.sleep(1);
+                TickEvent e = dispatcher.slot(seq);
+                e.segment = 2;
+                e.securityId = i % INSTRUMENTS;
+                e.ltp = i + 1;
+                dispatcher.publish(seq);
+                if (i == 0) assertTrue(h.entered.await(5, TimeUnit.SECONDS));
+            }
+
+            assertEquals(1, h.calls.get(), "handler is still inside its first tick");
+        } finally {
+            h.release.countDown();
+            dispatcher.shutdown();
+        }
+    }
+}
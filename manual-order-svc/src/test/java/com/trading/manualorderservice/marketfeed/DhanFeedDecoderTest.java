@@ -0,0 +1,160 @@
+package com.trading.manualorderservice.marketfeed;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DhanFeedDecoderTest {
+
+    private final DhanFeedDecoder decoder = new DhanFeedDecoder();
+
+    /** Copies what it needs out of the flyweights, as real handlers must. */
+    private static final class Recorder implements FeedPacketHandler {
+        final List<String> seen = new ArrayList<>();
+
+        @Override
+        public void onTicker(DhanFeedDecoder.TickerPacket p) {
+            seen.add("T " + p.segment() + "/" + p.securityId() + " " + p.ltp() + " @" + p.lastTradeTimeMs());
+        }
+
+        @Override
+        public void onQuote(DhanFeedDecoder.QuotePacket p) {
+            seen.add("Q " + p.securityId() + " " + p.ltp() + " qty=" + p.lastTradeQty() + " vol=" + p.volume()
+                    + " ohlc=" + p.open() + "/" + p.high() + "/" + p.low() + "/" + p.close());
+        }
+
+        @Override
+        public void onOi(DhanFeedDecoder.OiPacket p) {
+            seen.add("OI " + p.securityId() + " " + p.openInterest());
+        }
+
+        @Override
+        public void onFull(DhanFeedDecoder.FullPacket p) {
+            seen.add("F " + p.securityId() + " " + p.ltp() + " oi=" + p.openInterest()
+                    + " bid=" + p.bidPrice(0) + "x" + p.bidQty(0) + " ask=" + p.askPrice(4) + "x" + p.askQty(4));
+        }
+
+        @Override
+        public void onDepth(DhanFeedDecoder.DepthPacket p) {
+            seen.add("D " + (p.isBid() ? "bid " : "ask ") + p.securityId() + " seq=" + p.sequence()
+                    + " levels=" + p.levels() + " top=" + p.price(0) + "x" + p.qty(0));
+        }
+
+        @Override
+        public void onDisconnect(int reasonCode) {
+            seen.add("X " + reasonCode);
+        }
+    }
+
+    private static ByteBuffer le(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void header(ByteBuffer b, int code, int length, int segment, int securityId) {
+        b.put((byte) code).putShort((short) length).put((byte) segment).putInt(securityId);
+    }
+
+    private static void ticker(ByteBuffer b, int securityId, float ltp, int ltt) {
+        header(b, DhanFeedDecoder.TICKER, 16, 1, securityId);
+        b.putFloat(ltp).putInt(ltt);
+    }
+
+    @Test
+    void decodesBackToBackPacketsOfOneFrame() {
+        ByteBuffer b = le(16 + 50 + 12 + 162);
+        ticker(b, 1333, 1640.5f, 1_700_000_000);
+
+        header(b, DhanFeedDecoder.QUOTE, 50, 1, 11536);
+        b.putFloat(3900.25f).putShort((short) 7).putInt(1_700_000_001)
+                .putFloat(3899.5f).putInt(123_456).putInt(10).putInt(20)
+                .putFloat(3880f).putFloat(3870f).putFloat(3910f).putFloat(3860f);
+
+        header(b, DhanFeedDecoder.OI, 12, 2, 35001);
+        b.putInt(987_654);
+
+        int start = b.position();
+        header(b, DhanFeedDecoder.FULL, 162, 2, 35002);
+        b.putFloat(101.5f).putShort((short) 50).putInt(1_700_000_002)
+                .putFloat(100.75f).putInt(5_000).putInt(1).putInt(2)
+                .putInt(44_000).putInt(45_000).putInt(40_000)
+                .putFloat(99f).putFloat(98f).putFloat(103f).putFloat(97f);
+        for (int i = 0; i < 5; i++) {
+            b.putInt(100 + i).putInt(200 + i).putShort((short) 1).putShort((short) 2)
+                    .putFloat(101f - i * 0.05f).putFloat(101.5f + i * 0.5f);
+        }
+        assertEquals(start + 162, b.position());
+        b.flip();
+
+        Recorder r = new Recorder();
+        assertEquals(4, decoder.decode(b, r));
+        assertEquals(List.of(
+                "T 1/1333 1640.5 @1700000000000",
+                "Q 11536 3900.25 qty=7 vol=123456 ohlc=3880.0/3910.0/3860.0/3870.0",
+                "OI 35001 987654",
+                "F 35002 101.5 oi=44000 bid=101.0x100 ask=103.5x204"), r.seen);
+    }
+
+    @Test
+    void stopsAtATruncatedPacket() {
+        ByteBuffer b = le(16 + 10);
+        ticker(b, 1333, 1640.5f, 1);
+        header(b, DhanFeedDecoder.QUOTE, 50, 1, 11536);   // header only, body missing
+        b.putShort((short) 0);
+        b.flip();
+
+        Recorder r = new Recorder();
+        assertEquals(1, decoder.decode(b, r));
+        assertEquals(1, r.seen.size());
+    }
+
+    @Test
+    void skipsUnknownCodesByDeclaredLength() {
+        ByteBuffer b = le(12 + 16 + 10);
+        header(b, 99, 12, 1, 1);
+        b.putInt(0);
+        ticker(b, 1333, 1640.5f, 1);
+        header(b, DhanFeedDecoder.DISCONNECT, 10, 0, 0);
+        b.putShort((short) 805);
+        b.flip();
+
+        Recorder r = new Recorder();
+        assertEquals(3, decoder.decode(b, r));
+        assertEquals(List.of("T 1/1333 1640.5 @1000", "X 805"), r.seen);
+    }
+
+    @Test
+    void readsLittleEndianFromABigEndianBuffer() {
+        ByteBuffer b = le(16);
+        ticker(b, 1333, 1640.5f, 2);
+        b.flip();
+        ByteBuffer big = ByteBuffer.allocate(16).put(b).flip();   // default BIG_ENDIAN, same bytes
+
+        Recorder r = new Recorder();
+        decoder.decode(big, r);
+        assertEquals(List.of("T 1/1333 1640.5 @2000"), r.seen);
+    }
+
+    @Test
+    void decodesTwentyLevelDepthSides() {
+        int size = DhanFeedDecoder.DEPTH20_HEADER_SIZE + 20 * DhanFeedDecoder.DEPTH20_LEVEL_SIZE;
+        ByteBuffer b = le(size * 2);
+        for (int code : new int[]{DhanFeedDecoder.DEPTH_BID, DhanFeedDecoder.DEPTH_ASK}) {
+            b.putShort((short) size).put((byte) code).put((byte) 2).putInt(35002).putInt(42);
+            for (int i = 0; i < 20; i++) {
+                b.putDouble(code == DhanFeedDecoder.DEPTH_BID ? 100.0 - i : 101.0 + i).putInt(10 * (i + 1)).putInt(1);
+            }
+        }
+        b.flip();
+
+        Recorder r = new Recorder();
+        assertEquals(2, decoder.decodeDepth20(b, r));
+        assertEquals(List.of(
+                "D bid 35002 seq=42 levels=20 top=100.0x10",
+                "D ask 35002 seq=42 levels=20 top=101.0x10"), r.seen);
+    }
+}
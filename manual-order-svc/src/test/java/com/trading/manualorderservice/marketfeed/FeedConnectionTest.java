@@ -0,0 +1,130 @@
+package com.trading.manualorderservice.marketfeed;
+
+import com.trading.manualorderservice.service.DhanCredentialService;
+import com.trading.shareddto.entity.BrokerUserDetails;
+import okhttp3.*;
+import okio.ByteString;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeedConnectionTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @AfterEach
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    private static final class StubCredentials extends DhanCredentialService {
+        StubCredentials() {
+            super(null, null, null, null);
+        }
+
+        @Override
+        public BrokerUserDetails getSystemUser() {
+            BrokerUserDetails creds = new BrokerUserDetails();
+            creds.setAccessToken("token");
+            creds.setClientId("client");
+            return creds;
+        }
+    }
+
+    private static final class FakeSocket implements WebSocket {
+        final Request request;
+        final List<String> sent = new CopyOnWriteArrayList<>();
+
+        FakeSocket(Request request) {
+            this.request = request;
+        }
+
+        @Override public Request request()              { return request; }
+        @Override public long queueSize()               { return 0; }
+        @Override public boolean send(String text)      { sent.add(text); return true; }
+        @Override public boolean send(ByteString bytes) { return true; }
+        @Override public boolean close(int code, String reason) { return true; }
+        @Override public void cancel()                  { }
+    }
+
+    /**
+     * First attempt fails inside newWebSocket (before it returns), like a DNS
+     * or TLS error on a fast path. Later attempts open.
+     */
+    private static final class FlakyClient extends OkHttpClient {
+        final BlockingQueue<FakeSocket> opened = new LinkedBlockingQueue<>();
+        int attempts;
+
+        @Override
+        public WebSocket newWebSocket(Request request, WebSocketListener listener) {
+            FakeSocket ws = new FakeSocket(request);
+            if (attempts++ == 0) {
+                listener.onFailure(ws, new java.io.IOException("connect refused"), null);
+            } else {
+                listener.onOpen(ws, new Response.Builder()
+                        .request(request)
+                        .protocol(Protocol.HTTP_1_1)
+                        .code(101)
+                        .message("Switching Protocols")
+                        .build());
+                opened.add(ws);
+            }
+            return ws;
+        }
+    }
+
+    @Test
+    @Timeout(5)
+    void failureBeforeNewWebSocketReturnsStillReconnects() throws Exception {
+        FlakyClient client = new FlakyClient();
+        FeedConnection conn = new FeedConnection(0, client, null, null, new StubCredentials(), scheduler);
+        conn.subscribe("NSE_EQ", List.of("1333"));
+
+        conn.start();
+
+        FakeSocket ws = client.opened.poll(3, TimeUnit.SECONDS);
+        assertNotNull(ws, "reconnect scheduled after the early failure");
+        assertTrue(conn.isConnected());
+        assertEquals(1, ws.sent.size(), "subscriptions replayed on the new socket");
+        assertTrue(ws.sent.get(0).contains("1333"));
+
+        // live subscribe goes to the socket the callback handed us
+        conn.subscribe("NSE_EQ", List.of("11536"));
+        assertEquals(2, ws.sent.size());
+    }
+
+    @Test
+    @Timeout(5)
+    void callbacksOfSupersededSocketAreIgnored() throws Exception {
+        CapturingClient client = new CapturingClient();
+        FeedConnection conn = new FeedConnection(0, client, null, null, new StubCredentials(), scheduler);
+
+        conn.start();
+        WebSocketListener first = client.listeners.take();
+        first.onFailure(new FakeSocket(client.request), new java.io.IOException("reset"), null);
+
+        WebSocketListener second = client.listeners.poll(3, TimeUnit.SECONDS);
+        assertNotNull(second);
+
+        // a late failure from the first socket must not schedule another reconnect
+        first.onFailure(new FakeSocket(client.request), new java.io.IOException("late"), null);
+        assertNull(client.listeners.poll(1, TimeUnit.SECONDS));
+    }
+
+    private static final class CapturingClient extends OkHttpClient {
+        final BlockingQueue<WebSocketListener> listeners = new LinkedBlockingQueue<>();
+        volatile Request request;
+
+        @Override
+        public WebSocket newWebSocket(Request request, WebSocketListener listener) {
+            this.request = request;
+            listeners.add(listener);
+            return new FakeSocket(request);
+        }
+    }
+}
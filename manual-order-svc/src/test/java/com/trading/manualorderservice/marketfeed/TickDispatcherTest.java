@@ -0,0 +1,79 @@
+package com.trading.manualorderservice.marketfeed;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickDispatcherTest {
+
+    private final TickDispatcher dispatcher = new TickDispatcher(new SimpleMeterRegistry());
+
+    @AfterEach
+    void stop() {
+        dispatcher.shutdown();
+    }
+
+    /** Handler stuck in onTick until released. */
+    private static final class StuckHandler implements TickHandler {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public String name() {
+            return "stuck";
+        }
+
+        @Override
+        public boolean isInterested(int segment, int securityId) {
+            return true;
+        }
+
+        @Override
+        public void onTick(TickEvent tick) {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private int publishTicks(int count) {
+        int published = 0;
+        for (int i = 0; i < count; i++) {
+            long seq = dispatcher.claim();
+            if (seq < 0) continue;
+            TickEvent e = dispatcher.slot(seq);
+            e.segment = 1;
+            e.securityId = 1333;
+            e.ltp = 1640 + i;
+            dispatcher.publish(seq);
+            published++;
+        }
+        return published;
+    }
+
+    @Test
+    @Timeout(10)
+    void stuckEveryTickHandlerDropsTicksInsteadOfBlockingTheProducer() throws Exception {
+        StuckHandler h = new StuckHandler();
+        dispatcher.register(h);
+
+        publishTicks(1);
+        assertTrue(h.entered.await(5, TimeUnit.SECONDS));
+
+        // Far more than the ring holds; returns because full claims fail fast
+        int published = publishTicks(200_000);
+
+        assertTrue(published < 200_000);
+        assertEquals(200_000 - published, dispatcher.droppedTicks());
+        h.release.countDown();
+    }
+}
@@ -0,0 +1,122 @@
+package com.trading.manualorderservice.marketfeed;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickRingBufferTest {
+
+    private static long publish(TickRingBuffer ring, int securityId) {
+        long seq = ring.tryNext();
+        if (seq >= 0) {
+            ring.get(seq).securityId = securityId;
+            ring.publish(seq);
+        }
+        return seq;
+    }
+
+    @Test
+    void rejectsNonPowerOfTwoCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new TickRingBuffer(100));
+    }
+
+    @Test
+    void producerNeverLapsALaggingConsumer() {
+        TickRingBuffer ring = new TickRingBuffer(8);
+        TickRingBuffer.Sequence consumer = ring.addConsumer();
+
+        for (int i = 0; i < 8; i++) {
+            assertEquals(i, publish(ring, 100 + i));
+        }
+
+        // Consumer still at -1 → the next claim would overwrite slot 0
+        assertEquals(-1, ring.tryNext());
+        assertEquals(-1, ring.tryNext(), "failed claims must not advance the producer");
+        assertEquals(7, ring.cursor());
+        assertEquals(100, ring.get(0).securityId, "unread slot untouched");
+
+        // Consumer reads 0..2 → three more slots free up
+        consumer.setRelease(2);
+        assertEquals(8, publish(ring, 108));
+        assertEquals(9, publish(ring, 109));
+        assertEquals(10, publish(ring, 110));
+        assertEquals(-1, ring.tryNext());
+
+        // Wrapped sequences land on the freed slots, the rest are intact
+        assertEquals(108, ring.get(8).securityId);
+        assertSame(ring.get(0), ring.get(8));
+        for (long s = 3; s <= 7; s++) {
+            assertEquals(100 + s, ring.get(s).securityId);
+        }
+    }
+
+    @Test
+    void slowestConsumerGates() {
+        TickRingBuffer ring = new TickRingBuffer(4);
+        TickRingBuffer.Sequence fast = ring.addConsumer();
+        TickRingBuffer.Sequence slow = ring.addConsumer();
+
+        for (int i = 0; i < 4; i++) publish(ring, i);
+        fast.setRelease(3);
+
+        assertEquals(-1, ring.tryNext(), "slow consumer still holds slot 0");
+
+        ring.removeConsumer(slow);
+        assertEquals(4, publish(ring, 4));
+    }
+
+    @Test
+    void consumerAddedLaterGatesFromItsStart() {
+        TickRingBuffer ring = new TickRingBuffer(4);
+        TickRingBuffer.Sequence first = ring.addConsumer();
+
+        // Producer caches the gate of the first consumer
+        for (int i = 0; i < 4; i++) publish(ring, i);
+        first.setRelease(3);
+        assertEquals(4, publish(ring, 4));
+
+        TickRingBuffer.Sequence late = ring.addConsumer();
+        assertEquals(4, late.getAcquire(), "starts at the cursor");
+        first.setRelease(100);
+
+        // Late consumer has read nothing: 3 more claims (5..7) then it gates
+        for (int i = 5; i <= 8; i++) assertEquals(i, publish(ring, i));
+        assertEquals(-1, ring.tryNext());
+
+        late.setRelease(8);
+        assertEquals(9, publish(ring, 9));
+    }
+
+    @Test
+    @Timeout(10)
+    void consumerThreadSeesEveryPublishedTickInOrder() throws Exception {
+        TickRingBuffer ring = new TickRingBuffer(1024);
+        TickRingBuffer.Sequence seq = ring.addConsumer();
+        int total = 100_000;
+        long[] seen = new long[1];
+        boolean[] ordered = {true};
+
+        Thread consumer = new Thread(() -> {
+            long next = 0;
+            while (next < total) {
+                long available = ring.cursor();
+                for (; next <= available; next++) {
+                    if (ring.get(next).securityId != (int) next) ordered[0] = false;
+                    seen[0]++;
+                }
+                seq.setRelease(available);
+            }
+        });
+        consumer.start();
+
+        for (int i = 0; i < total; ) {
+            if (publish(ring, i) >= 0) i++;
+            else Thread.onSpinWait();
+        }
+        consumer.join();
+
+        assertEquals(total, seen[0]);
+        assertTrue(ordered[0], "slot content matches its sequence");
+    }
+}
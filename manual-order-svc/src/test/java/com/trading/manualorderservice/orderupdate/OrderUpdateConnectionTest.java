@@ -0,0 +1,191 @@
+package com.trading.manualorderservice.orderupdate;
+
+import com.trading.manualorderservice.dto.DhanOrderBookResponse;
+import com.trading.shareddto.entity.BrokerUserDetails;
+import okhttp3.*;
+import okio.ByteString;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderUpdateConnectionTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final List<DhanOrderBookResponse> updates = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    private static BrokerUserDetails creds() {
+        BrokerUserDetails creds = new BrokerUserDetails();
+        creds.setUserId(7L);
+        creds.setAccessToken("token");
+        creds.setClientId("client");
+        return creds;
+    }
+
+    private static final class FakeSocket implements WebSocket {
+        final Request request;
+        final List<String> sent = new CopyOnWriteArrayList<>();
+        volatile boolean closed;
+
+        FakeSocket(Request request) {
+            this.request = request;
+        }
+
+        @Override public Request request()              { return request; }
+        @Override public long queueSize()               { return 0; }
+        @Override public boolean send(String text)      { sent.add(text); return true; }
+        @Override public boolean send(ByteString bytes) { return true; }
+        @Override public boolean close(int code, String reason) { closed = true; return true; }
+        @Override public void cancel()                  { }
+    }
+
+    /** Hands out the listener of every connect attempt; the test drives the callbacks. */
+    private static final class CapturingClient extends OkHttpClient {
+        final BlockingQueue<WebSocketListener> listeners = new LinkedBlockingQueue<>();
+        final boolean failFirstInline;
+        volatile Request request;
+        int attempts;
+
+        CapturingClient(boolean failFirstInline) {
+            this.failFirstInline = failFirstInline;
+        }
+
+        @Override
+        public WebSocket newWebSocket(Request request, WebSocketListener listener) {
+            this.request = request;
+            FakeSocket ws = new FakeSocket(request);
+            if (failFirstInline && attempts++ == 0) {
+                // DNS / TLS / 401 reported before newWebSocket returns
+                listener.onFailure(ws, new java.io.IOException("401 Unauthorized"), null);
+            } else {
+                listeners.add(listener);
+            }
+            return ws;
+        }
+    }
+
+    private static Response switching(Request request) {
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(101)
+                .message("Switching Protocols")
+                .build();
+    }
+
+    @Test
+    @Timeout(5)
+    void failureBeforeNewWebSocketReturnsStillReconnects() throws Exception {
+        CapturingClient client = new CapturingClient(true);
+        OrderUpdateConnection conn = new OrderUpdateConnection(creds(), client, scheduler, updates::add);
+
+        conn.start();
+
+        WebSocketListener retry = client.listeners.poll(3, TimeUnit.SECONDS);
+        assertNotNull(retry, "reconnect scheduled after the early failure");
+
+        FakeSocket ws = new FakeSocket(client.request);
+        retry.onOpen(ws, switching(client.request));
+        assertEquals(1, ws.sent.size(), "login sent on the socket the callback handed us");
+        assertTrue(ws.sent.get(0).contains("LoginReq"));
+    }
+
+    @Test
+    @Timeout(5)
+    void callbacksOfSupersededSocketAreIgnored() throws Exception {
+        CapturingClient client = new CapturingClient(false);
+        OrderUpdateConnection conn = new OrderUpdateConnection(creds(), client, scheduler, updates::add);
+
+        conn.start();
+        WebSocketListener first = client.listeners.take();
+        first.onFailure(new FakeSocket(client.request), new java.io.IOException("reset"), null);
+
+        assertNotNull(client.listeners.poll(3, TimeUnit.SECONDS));
+
+        // a late failure from the first socket must not schedule another reconnect
+        first.onFailure(new FakeSocket(client.request), new java.io.IOException("late"), null);
+        assertNull(client.listeners.poll(1, TimeUnit.SECONDS));
+
+        // and a late open of the first socket is closed, not adopted
+        FakeSocket late = new FakeSocket(client.request);
+        first.onOpen(late, switching(client.request));
+        assertTrue(late.closed);
+        assertTrue(late.sent.isEmpty());
+    }
+
+    @Test
+    @Timeout(5)
+    void connectedOnlyAfterTheServerAnswersTheLogin() throws Exception {
+        CapturingClient client = new CapturingClient(false);
+        OrderUpdateConnection conn = new OrderUpdateConnection(creds(), client, scheduler, updates::add);
+
+        conn.start();
+        WebSocketListener listener = client.listeners.take();
+        FakeSocket ws = new FakeSocket(client.request);
+        listener.onOpen(ws, switching(client.request));
+        assertFalse(conn.isConnected(), "login sent but not answered");
+
+        listener.onMessage(ws, "{\"Type\":\"order_alert\",\"Data\":{\"OrderNo\":\"112\",\"Status\":\"Pending\"}}");
+        assertTrue(conn.isConnected());
+        assertEquals(1, updates.size());
+        assertEquals("112", updates.get(0).getOrderId());
+    }
+
+    @Test
+    @Timeout(5)
+    void loginErrorDisconnectsAndReconnects() throws Exception {
+        CapturingClient client = new CapturingClient(false);
+        OrderUpdateConnection conn = new OrderUpdateConnection(creds(), client, scheduler, updates::add);
+
+        conn.start();
+        WebSocketListener listener = client.listeners.take();
+        FakeSocket ws = new FakeSocket(client.request);
+        listener.onOpen(ws, switching(client.request));
+
+        listener.onMessage(ws, "{\"Type\":\"error\",\"ErrorCode\":\"807\",\"Message\":\"Access token invalid\"}");
+
+        assertFalse(conn.isConnected());
+        assertTrue(ws.closed);
+        assertNotNull(client.listeners.poll(3, TimeUnit.SECONDS), "reconnect after login error");
+        assertTrue(updates.isEmpty());
+    }
+
+    @Test
+    void missingPriceFieldsParseAsNull() {
+        DhanOrderBookResponse o = OrderUpdateConnection.parse(new JSONObject()
+                .put("OrderNo", "112")
+                .put("Status", "Part Traded")
+                .put("TriggerPrice", "")
+                .put("TradedQty", 25));
+
+        assertEquals("PART_TRADED", o.getOrderStatus());
+        assertNull(o.getPrice());
+        assertNull(o.getTriggerPrice());
+        assertNull(o.getAverageTradedPrice());
+        assertNull(o.getQuantity());
+        assertEquals(25, o.getFilledQty());
+    }
+
+    @Test
+    void presentPriceFieldsAreKept() {
+        DhanOrderBookResponse o = OrderUpdateConnection.parse(new JSONObject()
+                .put("OrderNo", "113")
+                .put("Price", 101.5)
+                .put("TriggerPrice", "101.0")
+                .put("AvgTradedPrice", 0));
+
+        assertEquals(101.5, o.getPrice());
+        assertEquals(101.0, o.getTriggerPrice());
+        assertEquals(0.0, o.getAverageTradedPrice(), "a real zero stays zero");
+    }
+}